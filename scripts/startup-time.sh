@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request: from process launch to the first 200 from /actuator/info, which
+# unlike /actuator/health does not wait for the MongoDB health check.
+#
+#   scripts/startup-time.sh jvm|cds|aot|native [runs]
+#
+# Build first: jvm -> mvn package, cds -> mvn package -Pcds, aot -> mvn package -Pnative,
+# native -> mvn -Pnative native:compile. The config server is skipped.
+# TARGET points at another build directory; STARTUP_OPTS adds JVM options to every launch.
+set -euo pipefail
+
+mode=${1:?usage: $0 jvm|cds|aot|native [runs]}
+runs=${2:-5}
+port=${PORT:-18080}
+target=${TARGET:-target}
+jar=$(ls "$target"/creditcard-service-*.jar | grep -v original | head -1)
+props=(-Dserver.port="$port" -Dspring.cloud.config.enabled=false ${STARTUP_OPTS:-})
+
+case "$mode" in
+  jvm) cmd=(java "${props[@]}" -jar "$jar") ;;
+  cds) cmd=(java -XX:SharedArchiveFile="$target"/cds/application.jsa "${props[@]}"
+      -jar "$target/cds/$(basename "$jar")") ;;
+  aot) cmd=(java -Dspring.aot.enabled=true "${props[@]}" -jar "$jar") ;;
+  native) cmd=("$target"/creditcard-service "${props[@]}") ;;
+  *) echo "unknown mode: $mode" >&2; exit 1 ;;
+esac
+
+total=0
+for i in $(seq "$runs"); do
+  start=$(date +%s%N)
+  "${cmd[@]}" > /dev/null 2>&1 &
+  pid=$!
+  until curl -sf "http://localhost:$port/actuator/info" > /dev/null; do
+    sleep 0.01
+  done
+  elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+  kill "$pid"; wait "$pid" 2> /dev/null || true
+  echo "$mode run $i: ${elapsed} ms"
+  total=$(( total + elapsed ))
+done
+echo "$mode mean: $(( total / runs )) ms"
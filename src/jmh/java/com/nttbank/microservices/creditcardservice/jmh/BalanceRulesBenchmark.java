@@ -0,0 +1,79 @@
+package com.nttbank.microservices.creditcardservice.jmh;
+
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.util.BalanceRules;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The arithmetic applied to every charge and payment: {@link BalanceRules} over {@link Money},
+ * against the {@link BigDecimal} operations it replaced as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceRulesBenchmark {
+
+  private BigDecimal requested = new BigDecimal("125.5");
+  private BigDecimal decimalAmount = new BigDecimal("125.50");
+  private BigDecimal decimalBalance = new BigDecimal("4830.27");
+  private BigDecimal decimalLimit = new BigDecimal("10000.00");
+  private Money amount = Money.parse("125.50");
+  private Money currentBalance = Money.parse("4830.27");
+  private Money creditLimit = Money.parse("10000.00");
+
+  @Benchmark
+  public BigDecimal bigDecimalScale() {
+    return requested.setScale(2, RoundingMode.HALF_UP);
+  }
+
+  @Benchmark
+  public Money moneyOf() {
+    return Money.of(requested);
+  }
+
+  @Benchmark
+  public boolean bigDecimalCanCharge() {
+    return decimalBalance.compareTo(decimalAmount) >= 0;
+  }
+
+  @Benchmark
+  public boolean moneyCanCharge() {
+    return BalanceRules.canCharge(currentBalance, amount);
+  }
+
+  @Benchmark
+  public boolean bigDecimalCanPay() {
+    return decimalLimit.compareTo(decimalBalance.add(decimalAmount)) >= 0;
+  }
+
+  @Benchmark
+  public boolean moneyCanPay() {
+    return BalanceRules.canPay(currentBalance, creditLimit, amount);
+  }
+
+  @Benchmark
+  public BigDecimal bigDecimalCharge() {
+    return decimalBalance.compareTo(decimalAmount) >= 0
+        ? decimalBalance.subtract(decimalAmount) : decimalBalance;
+  }
+
+  @Benchmark
+  public Money moneyCharge() {
+    return BalanceRules.canCharge(currentBalance, amount)
+        ? currentBalance.subtract(amount) : currentBalance;
+  }
+}
@@ -0,0 +1,99 @@
+package com.nttbank.microservices.creditcardservice.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.nttbank.microservices.creditcardservice.codec.BinaryFormats;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Encode and decode throughput of a {@link CreditCard} in each wire format offered by the API,
+ * with the mappers configured as the WebFlux codecs are. The payload size of each format is
+ * printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CodecBenchmark {
+
+  @Param({"json", "smile", "cbor", "protobuf"})
+  public String format;
+
+  @Param({"0", "100"})
+  public int transactions;
+
+  private ObjectWriter writer;
+  private ObjectReader reader;
+  private CreditCard creditCard;
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() throws IOException {
+    Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder()
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    ObjectMapper mapper = switch (format) {
+      case "json" -> builder.build();
+      case "smile" -> BinaryFormats.smileMapper(builder);
+      case "cbor" -> BinaryFormats.cborMapper(builder);
+      case "protobuf" -> BinaryFormats.protobufMapper(builder);
+      default -> throw new IllegalArgumentException(format);
+    };
+    writer = mapper.writerFor(CreditCard.class);
+    reader = mapper.readerFor(CreditCard.class);
+    if ("protobuf".equals(format)) {
+      ProtobufSchema schema = BinaryFormats.protobufSchemas().get(CreditCard.class);
+      writer = writer.with(schema);
+      reader = reader.with(schema);
+    }
+    creditCard = CreditCard.builder()
+        .id("65f1c2a9e4b0a1b2c3d4e5f6")
+        .customerId("customer-1")
+        .cardType("Personal")
+        .creditLimit(Money.parse("10000.00"))
+        .currentBalance(Money.parse("5000.00"))
+        .expirationDate(LocalDate.of(2029, 12, 31))
+        .issueStatementDay("15")
+        .maintenanceFee(Money.parse("10.00"))
+        .status("active")
+        .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+        .updatedAt(LocalDateTime.of(2024, 6, 1, 0, 0))
+        .lstCreditCardTransactions(transactions == 0 ? null
+            : Fixtures.transactions("65f1c2a9e4b0a1b2c3d4e5f6", transactions))
+        .build();
+    encoded = writer.writeValueAsBytes(creditCard);
+    System.out.printf("%n%s payload with %d transactions: %d bytes%n", format, transactions,
+        encoded.length);
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException {
+    return writer.writeValueAsBytes(creditCard);
+  }
+
+  @Benchmark
+  public CreditCard decode() throws IOException {
+    return reader.readValue(encoded);
+  }
+}
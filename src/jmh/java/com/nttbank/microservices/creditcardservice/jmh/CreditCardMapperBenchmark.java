@@ -0,0 +1,60 @@
+package com.nttbank.microservices.creditcardservice.jmh;
+
+import com.nttbank.microservices.creditcardservice.dto.CreditCardDTO;
+import com.nttbank.microservices.creditcardservice.mapper.CreditCardMapper;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link CreditCardMapper#creditCardDTOToCreditCard} with and without embedded transactions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreditCardMapperBenchmark {
+
+  @Param({"0", "100", "10000"})
+  public int transactions;
+
+  private CreditCardMapper mapper;
+  private CreditCardDTO creditCardDTO;
+
+  @Setup
+  public void setUp() {
+    mapper = CreditCardMapper.INSTANCE;
+    creditCardDTO = CreditCardDTO.builder()
+        .id("card-1")
+        .customerId("customer-1")
+        .cardType("Personal")
+        .creditLimit(new BigDecimal("10000.00"))
+        .currentBalance(new BigDecimal("5000.00"))
+        .expirationDate(LocalDate.of(2029, 12, 31))
+        .issueStatementDay("15")
+        .maintenanceFee(new BigDecimal("10.00"))
+        .status("active")
+        .lstCreditCardTransactions(transactions == 0 ? null
+            : Fixtures.transactions("card-1", transactions))
+        .build();
+  }
+
+  @Benchmark
+  public CreditCard creditCardDTOToCreditCard() {
+    return mapper.creditCardDTOToCreditCard(creditCardDTO);
+  }
+}
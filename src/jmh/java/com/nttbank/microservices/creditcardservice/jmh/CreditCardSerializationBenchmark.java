@@ -0,0 +1,73 @@
+package com.nttbank.microservices.creditcardservice.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Jackson serialization of a {@link CreditCard} carrying a growing list of transactions, with the
+ * same {@link ObjectMapper} configuration Spring Boot applies to the WebFlux codecs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreditCardSerializationBenchmark {
+
+  @Param({"0", "100", "10000"})
+  public int transactions;
+
+  private ObjectMapper objectMapper;
+  private CreditCard creditCard;
+  private byte[] serialized;
+
+  @Setup
+  public void setUp() throws JsonProcessingException {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    creditCard = CreditCard.builder()
+        .id("card-1")
+        .customerId("customer-1")
+        .cardType("Personal")
+        .creditLimit(Money.parse("10000.00"))
+        .currentBalance(Money.parse("5000.00"))
+        .expirationDate(LocalDate.of(2029, 12, 31))
+        .issueStatementDay("15")
+        .maintenanceFee(Money.parse("10.00"))
+        .status("active")
+        .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+        .updatedAt(LocalDateTime.of(2024, 6, 1, 0, 0))
+        .lstCreditCardTransactions(transactions == 0 ? null
+            : Fixtures.transactions("card-1", transactions))
+        .build();
+    serialized = objectMapper.writeValueAsBytes(creditCard);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(creditCard);
+  }
+
+  @Benchmark
+  public CreditCard deserialize() throws IOException {
+    return objectMapper.readValue(serialized, CreditCard.class);
+  }
+}
@@ -0,0 +1,100 @@
+package com.nttbank.microservices.creditcardservice.jmh;
+
+import com.nttbank.microservices.creditcardservice.archive.TransactionArchiver;
+import com.nttbank.microservices.creditcardservice.cache.NoOpCreditCardCache;
+import com.nttbank.microservices.creditcardservice.command.CardCommandExecutor;
+import com.nttbank.microservices.creditcardservice.hold.HoldExpiryScheduler;
+import com.nttbank.microservices.creditcardservice.metrics.CreditCardMetrics;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.service.impl.CreditCardServiceImpl;
+import com.nttbank.microservices.creditcardservice.writer.TransactionGroupCommitter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+/**
+ * Charges and payments through {@link CreditCardServiceImpl} against in-memory repositories,
+ * spread over a fixed set of cards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreditCardServiceBenchmark {
+
+  private static final int CARDS = 1024;
+  private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+  private CreditCardServiceImpl service;
+  private String[] creditCardIds;
+
+  @Setup
+  public void setUp() {
+    Map<String, CreditCard> cards = new ConcurrentHashMap<>();
+    creditCardIds = new String[CARDS];
+    for (int i = 0; i < CARDS; i++) {
+      String id = "card-" + i;
+      creditCardIds[i] = id;
+      cards.put(id, CreditCard.builder()
+          .id(id)
+          .customerId("customer-" + (i % 64))
+          .cardType("Personal")
+          .creditLimit(Money.parse("1000000000.00"))
+          .currentBalance(Money.parse("500000000.00"))
+          .expirationDate(LocalDate.now().plusYears(3))
+          .issueStatementDay("15")
+          .maintenanceFee(Money.parse("10.00"))
+          .status("active")
+          .build());
+    }
+    // The counter service is not used by charges and payments.
+    StaticListableBeanFactory noOptionalBeans = new StaticListableBeanFactory();
+    service = new CreditCardServiceImpl(InMemoryRepositories.creditCardRepo(cards),
+        InMemoryRepositories.transactionRepo(), null, new NoOpCreditCardCache(), null,
+        noOptionalBeans.getBeanProvider(CardCommandExecutor.class),
+        noOptionalBeans.getBeanProvider(TransactionGroupCommitter.class),
+        noOptionalBeans.getBeanProvider(TransactionArchiver.class),
+        noOptionalBeans.getBeanProvider(HoldExpiryScheduler.class),
+        new CreditCardMetrics(new SimpleMeterRegistry()));
+  }
+
+  /**
+   * Position of each benchmark thread in the card set.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+
+    private int next;
+
+    int next() {
+      return next++ & (CARDS - 1);
+    }
+  }
+
+  @Benchmark
+  public CreditCard charge(Cursor cursor) {
+    return service.chargeCreditCard(creditCardIds[cursor.next()], AMOUNT).block();
+  }
+
+  @Benchmark
+  public CreditCard pay(Cursor cursor) {
+    return service.payCreditCard(creditCardIds[cursor.next()], AMOUNT).block();
+  }
+}
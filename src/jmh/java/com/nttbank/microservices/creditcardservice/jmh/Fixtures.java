@@ -0,0 +1,38 @@
+package com.nttbank.microservices.creditcardservice.jmh;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test data shared by the benchmarks.
+ */
+final class Fixtures {
+
+  private Fixtures() {
+  }
+
+  static List<CreditCardTransactions> transactions(String creditCardId, int count) {
+    List<CreditCardTransactions> transactions = new ArrayList<>(count);
+    LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+    Money balance = Money.parse("5000.00");
+    for (int i = 0; i < count; i++) {
+      boolean charge = i % 3 != 0;
+      Money amount = Money.ofCents(1000 + i % 9000);
+      balance = charge ? balance.subtract(amount) : balance.add(amount);
+      transactions.add(CreditCardTransactions.builder()
+          .id(String.format("%024x", i))
+          .customerId("customer-1")
+          .creditCardId(creditCardId)
+          .type(charge ? Constants.CHARGE : Constants.PAYMENT)
+          .amount(amount)
+          .balanceAfterMovement(balance)
+          .createdAt(start.plusMinutes(i))
+          .build());
+    }
+    return transactions;
+  }
+}
@@ -0,0 +1,88 @@
+package com.nttbank.microservices.creditcardservice.jmh;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.util.BalanceRules;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory stand-ins of the reactive repositories, implementing only the methods used by the
+ * charge and payment paths so the benchmarks measure the service and not MongoDB.
+ */
+final class InMemoryRepositories {
+
+  private InMemoryRepositories() {
+  }
+
+  /**
+   * Credit card repository backed by a map, applying the conditional balance updates atomically
+   * per card like the MongoDB implementation does.
+   */
+  static ICreditCardRepo creditCardRepo(Map<String, CreditCard> cards) {
+    return proxy(ICreditCardRepo.class, (method, args) -> switch (method) {
+      case "chargeIfFundsAvailable" -> {
+        Money amount = (Money) args[1];
+        yield Mono.fromSupplier(() -> move(cards, (String) args[0], amount.negate(),
+            card -> BalanceRules.canCharge(
+                BalanceRules.available(card.getCurrentBalance(), card.getHeldAmount()), amount)));
+      }
+      case "payIfWithinLimit" -> {
+        Money amount = (Money) args[1];
+        yield Mono.fromSupplier(() -> move(cards, (String) args[0], amount,
+            card -> BalanceRules.canPay(card.getCurrentBalance(), card.getCreditLimit(), amount)));
+      }
+      case "findById" -> Mono.fromSupplier(() -> cards.get((String) args[0]));
+      case "existsById" -> Mono.fromSupplier(() -> cards.containsKey((String) args[0]));
+      case "convertStringAmounts" -> Mono.just(false);
+      default -> throw new UnsupportedOperationException(method);
+    });
+  }
+
+  /**
+   * Transaction repository that acknowledges and discards every insert, keeping the heap flat
+   * across iterations.
+   */
+  static ICreditCardTransactionRepo transactionRepo() {
+    return proxy(ICreditCardTransactionRepo.class, (method, args) -> switch (method) {
+      case "save", "insert" -> Mono.just(args[0]);
+      case "append" -> Mono.empty();
+      default -> throw new UnsupportedOperationException(method);
+    });
+  }
+
+  private static CreditCard move(Map<String, CreditCard> cards, String creditCardId,
+      Money delta, Predicate<CreditCard> allowed) {
+    AtomicReference<CreditCard> updated = new AtomicReference<>();
+    cards.computeIfPresent(creditCardId, (id, card) -> {
+      if (!allowed.test(card)) {
+        return card;
+      }
+      CreditCard next = card.toBuilder()
+          .currentBalance(card.getCurrentBalance().add(delta))
+          .updatedAt(LocalDateTime.now())
+          .build();
+      updated.set(next);
+      return next;
+    });
+    return updated.get();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T proxy(Class<T> type, BiFunction<String, Object[], Object> handler) {
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+        (proxy, method, args) -> switch (method.getName()) {
+          case "toString" -> "InMemory" + type.getSimpleName();
+          case "hashCode" -> System.identityHashCode(proxy);
+          case "equals" -> proxy == args[0];
+          default -> handler.apply(method.getName(), args);
+        });
+  }
+}
@@ -0,0 +1,36 @@
+package com.nttbank.microservices.creditcardservice.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the JMH benchmarks, launched by the {@code jmh} Maven profile. Results are
+ * written as JSON so they can be archived and compared between releases; the GC profiler adds
+ * the allocation rate of each benchmark.
+ *
+ * <p>Arguments: the result file (default {@code target/jmh-result.json}) and an optional regular
+ * expression selecting the benchmarks to run.
+ */
+public final class JmhBenchmarks {
+
+  private JmhBenchmarks() {
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    String result = args.length > 0 ? args[0] : "target/jmh-result.json";
+    String include = args.length > 1 && !args[1].isBlank()
+        ? args[1]
+        : JmhBenchmarks.class.getPackageName() + ".*Benchmark";
+    Options options = new OptionsBuilder()
+        .include(include)
+        .addProfiler(GCProfiler.class)
+        .resultFormat(ResultFormatType.JSON)
+        .result(result)
+        .build();
+    new Runner(options).run();
+  }
+}
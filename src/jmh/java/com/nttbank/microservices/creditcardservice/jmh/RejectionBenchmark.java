@@ -0,0 +1,60 @@
+package com.nttbank.microservices.creditcardservice.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nttbank.microservices.creditcardservice.exception.CardRejectionException;
+import com.nttbank.microservices.creditcardservice.exception.InsufficientFundsException;
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Cost of one insufficient-funds rejection, from raising the error to the response body bytes:
+ * a {@link ResponseStatusException} with its stack trace and an error map serialized by Jackson,
+ * against the shared {@link CardRejectionException} and its pre-serialized body. The GC profiler
+ * of {@link JmhBenchmarks} reports the bytes allocated per rejection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RejectionBenchmark {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+  private final String path = "/creditcards/6650f1c2a4b7e93d2c1f0a55/charge";
+
+  @Benchmark
+  public DataBuffer responseStatusException() throws JsonProcessingException {
+    RuntimeException error = new ResponseStatusException(HttpStatus.BAD_REQUEST,
+        Constants.INSUFFICIENT_FUNDS_MESSAGE);
+    ResponseStatusException rejection = (ResponseStatusException) error;
+    Map<String, Object> errorDetails = new HashMap<>();
+    errorDetails.put(Constants.ERROR_KEY, "Invalid request");
+    errorDetails.put(Constants.MESSAGE_KEY, rejection.getReason());
+    errorDetails.put(Constants.PATH_KEY, path);
+    return bufferFactory.wrap(objectMapper.writeValueAsBytes(errorDetails));
+  }
+
+  @Benchmark
+  public DataBuffer cardRejection() {
+    RuntimeException error = InsufficientFundsException.INSTANCE;
+    return ((CardRejectionException) error).body(bufferFactory, path);
+  }
+}
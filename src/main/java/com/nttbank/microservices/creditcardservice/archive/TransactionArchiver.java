@@ -0,0 +1,150 @@
+package com.nttbank.microservices.creditcardservice.archive;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import com.nttbank.microservices.creditcardservice.model.TransactionArchiveSegment;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepoCustom.ArchivableSegment;
+import com.nttbank.microservices.creditcardservice.repo.IJobRunRepo;
+import com.nttbank.microservices.creditcardservice.repo.ITransactionArchiveRepo;
+import com.nttbank.microservices.creditcardservice.util.TransactionArchiveCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Archival tier of the transaction history. A run moves the transactions older than
+ * {@code retention} out of the hot collections: each segment of consecutive transactions of a
+ * card is encoded with {@link TransactionArchiveCodec}, saved to
+ * 'creditcard_transaction_archive' and only then deleted from the hot collections with one bulk
+ * delete. Segments are identified by their first transaction, so a run interrupted between the
+ * two steps is simply run again. Archived transactions stay readable through the transactions
+ * API; their segments are fetched and decompressed only when a page reaches their time range.
+ *
+ * <p>Enabled with {@code creditcard.archive.enabled=true}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "creditcard.archive.enabled", havingValue = "true")
+public class TransactionArchiver {
+
+  private static final Sort SEGMENT_ORDER = Sort.by("firstCreatedAt", "id");
+  private static final Comparator<CreditCardTransactions> TRANSACTION_ORDER = Comparator
+      .comparing(CreditCardTransactions::getCreatedAt)
+      .thenComparing(CreditCardTransactions::getId);
+
+  private final ICreditCardTransactionRepo transactionRepo;
+  private final ITransactionArchiveRepo archiveRepo;
+  private final IJobRunRepo jobRunRepo;
+  private final String owner = UUID.randomUUID().toString();
+  private final Duration retention;
+  private final int segmentSize;
+  private final int parallelism;
+  private final Duration leaseTimeout;
+  private final Counter archived;
+  private final Counter archivedBytes;
+
+  public TransactionArchiver(ICreditCardTransactionRepo transactionRepo,
+      ITransactionArchiveRepo archiveRepo, IJobRunRepo jobRunRepo, MeterRegistry meterRegistry,
+      @Value("${creditcard.archive.retention:365d}") Duration retention,
+      @Value("${creditcard.archive.segment-size:1000}") int segmentSize,
+      @Value("${creditcard.archive.parallelism:4}") int parallelism,
+      @Value("${creditcard.archive.lease-timeout:5m}") Duration leaseTimeout) {
+    this.transactionRepo = transactionRepo;
+    this.archiveRepo = archiveRepo;
+    this.jobRunRepo = jobRunRepo;
+    this.retention = retention;
+    this.segmentSize = segmentSize;
+    this.parallelism = parallelism;
+    this.leaseTimeout = leaseTimeout;
+    this.archived = Counter.builder("creditcard.archive.transactions")
+        .description("Transactions moved to the archive")
+        .register(meterRegistry);
+    this.archivedBytes = Counter.builder("creditcard.archive.bytes")
+        .description("Compressed bytes written to the archive")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Archives the transactions created before the retention window, which starts at today's
+   * midnight minus {@code retention}. Reruns on the same day share the run and its lease.
+   *
+   * @return the completed run, or empty if another instance owns it or it already completed.
+   */
+  public Mono<JobRun> archive() {
+    LocalDate today = LocalDate.now();
+    LocalDateTime cutoff = today.atStartOfDay().minus(retention);
+    String runId = "archive:" + today;
+    return jobRunRepo.claim(runId, owner, leaseTimeout)
+        .flatMap(run -> {
+          long started = System.nanoTime();
+          return transactionRepo.findArchivable(cutoff, segmentSize)
+              .flatMapSequential(segment -> archiveSegment(segment).thenReturn(segment),
+                  parallelism)
+              .bufferUntilChanged(ArchivableSegment::creditCardId)
+              .concatMap(segments -> jobRunRepo.checkpoint(runId, owner,
+                      segments.get(0).creditCardId(), 1)
+                  .thenReturn(1L))
+              .reduce(0L, Long::sum)
+              .flatMap(cards -> {
+                double seconds = Math.max(1e-3, (System.nanoTime() - started) / 1e9);
+                log.info("Archived transactions before {} of {} cards ({} cards/s).", cutoff,
+                    cards, Math.round(cards / seconds));
+                return jobRunRepo.complete(runId, owner, cards / seconds);
+              });
+        });
+  }
+
+  /**
+   * Merges the archived transactions of a card into a page of hot transactions. Both streams are
+   * in {@code (createdAt, _id)} order and hold the transactions created before {@code to},
+   * strictly after the {@code (afterCreatedAt, afterId)} position. Archived segments are fetched
+   * and decoded one at a time, only as far as the merged stream is consumed.
+   *
+   * @param hot the hot transactions of the page.
+   * @param creditCardId the credit card identifier.
+   * @param to the end of the window (exclusive).
+   * @param afterCreatedAt the creation time of the last transaction already read.
+   * @param afterId the identifier of the last transaction already read.
+   * @return the merged transactions.
+   */
+  public Flux<CreditCardTransactions> withArchived(Flux<CreditCardTransactions> hot,
+      String creditCardId, LocalDateTime to, LocalDateTime afterCreatedAt, ObjectId afterId) {
+    String after = afterId.toHexString();
+    Flux<CreditCardTransactions> archivedPage = archiveRepo
+        .findOverlapping(creditCardId, afterCreatedAt, to, SEGMENT_ORDER)
+        .concatMapIterable(TransactionArchiveCodec::decode, 1)
+        .filter(t -> t.getCreatedAt().isBefore(to)
+            && (t.getCreatedAt().isAfter(afterCreatedAt)
+            || t.getCreatedAt().isEqual(afterCreatedAt) && t.getId().compareTo(after) > 0));
+    return Flux.mergeComparing(TRANSACTION_ORDER, archivedPage, hot);
+  }
+
+  private Mono<Void> archiveSegment(ArchivableSegment segment) {
+    List<CreditCardTransactions> transactions = segment.transactions();
+    return Mono.fromCallable(() -> TransactionArchiveCodec.encode(transactions,
+            LocalDateTime.now()))
+        .subscribeOn(Schedulers.parallel())
+        .flatMap(archiveRepo::save)
+        .doOnNext(saved -> {
+          archived.increment(saved.getCount());
+          archivedBytes.increment(saved.getPayload().length);
+        })
+        .then(transactionRepo.removeArchived(segment));
+  }
+}
@@ -0,0 +1,30 @@
+package com.nttbank.microservices.creditcardservice.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link CreditCardCache} backed by a Caffeine {@link AsyncCache}. A miss stores the in-flight
+ * future, so a burst of lookups on one card is served by a single query.
+ */
+@RequiredArgsConstructor
+public class CaffeineCreditCardCache implements CreditCardCache {
+
+  private final AsyncCache<String, CreditCard> cache;
+
+  @Override
+  public Mono<CreditCard> get(String creditCardId, Function<String, Mono<CreditCard>> loader) {
+    // Cancellation is suppressed: the future is shared with every coalesced caller.
+    return Mono.fromFuture(() -> cache.get(creditCardId,
+        (id, executor) -> loader.apply(id).toFuture()), true)
+        .map(card -> card.toBuilder().build());
+  }
+
+  @Override
+  public void invalidate(String creditCardId) {
+    cache.synchronous().invalidate(creditCardId);
+  }
+}
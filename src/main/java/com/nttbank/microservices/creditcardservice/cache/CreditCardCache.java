@@ -0,0 +1,30 @@
+package com.nttbank.microservices.creditcardservice.cache;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import java.util.function.Function;
+import reactor.core.publisher.Mono;
+
+/**
+ * Asynchronous read-through cache for credit card lookups. Writers keep it coherent by
+ * invalidating the entry once their write is acknowledged; post-images are not put back because
+ * concurrent writers could store them out of order.
+ */
+public interface CreditCardCache {
+
+  /**
+   * Returns the cached card or loads it. Concurrent lookups of the same card share one load, and
+   * every caller gets its own copy, so changing it leaves the cached entry untouched.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param loader the loader used on a miss.
+   * @return the credit card, or empty if it does not exist.
+   */
+  Mono<CreditCard> get(String creditCardId, Function<String, Mono<CreditCard>> loader);
+
+  /**
+   * Removes a card from the cache.
+   *
+   * @param creditCardId the credit card identifier.
+   */
+  void invalidate(String creditCardId);
+}
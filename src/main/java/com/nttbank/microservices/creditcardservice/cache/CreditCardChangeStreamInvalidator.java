@@ -0,0 +1,58 @@
+package com.nttbank.microservices.creditcardservice.cache;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+/**
+ * Listens to the change stream of the 'credit_cards' collection and invalidates the local cache
+ * entry of every card modified by any replica. Requires MongoDB to run as a replica set.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CreditCardChangeStreamInvalidator implements DisposableBean {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final CreditCardCache cache;
+  private Disposable subscription;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    String collection = mongoTemplate.getCollectionName(CreditCard.class);
+    subscription = mongoTemplate.changeStream(collection, ChangeStreamOptions.empty(),
+            Document.class)
+        .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+            .maxBackoff(Duration.ofMinutes(1))
+            .doBeforeRetry(signal -> log.warn("Restarting credit card change stream.",
+                signal.failure())))
+        .map(ChangeStreamEvent::getRaw)
+        .subscribe(event -> {
+          BsonDocument key = event.getDocumentKey();
+          BsonValue id = key != null ? key.get("_id") : null;
+          if (id != null) {
+            cache.invalidate(id.isObjectId() ? id.asObjectId().getValue().toHexString()
+                : id.asString().getValue());
+          }
+        }, error -> log.error("Credit card change stream terminated.", error));
+    log.info("Listening to '{}' changes for cache invalidation.", collection);
+  }
+
+  @Override
+  public void destroy() {
+    if (subscription != null) {
+      subscription.dispose();
+    }
+  }
+}
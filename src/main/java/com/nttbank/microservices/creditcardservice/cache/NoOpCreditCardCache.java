@@ -0,0 +1,20 @@
+package com.nttbank.microservices.creditcardservice.cache;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import java.util.function.Function;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link CreditCardCache} used when caching is disabled: every lookup goes to the loader.
+ */
+public class NoOpCreditCardCache implements CreditCardCache {
+
+  @Override
+  public Mono<CreditCard> get(String creditCardId, Function<String, Mono<CreditCard>> loader) {
+    return loader.apply(creditCardId);
+  }
+
+  @Override
+  public void invalidate(String creditCardId) {
+  }
+}
@@ -0,0 +1,89 @@
+package com.nttbank.microservices.creditcardservice.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufFactory;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.nttbank.microservices.creditcardservice.dto.CreditCardDTO;
+import com.nttbank.microservices.creditcardservice.dto.TransactionPageDTO;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Binary wire formats offered to internal callers next to JSON: Smile, CBOR and Protobuf. The
+ * mappers are built from the same {@link Jackson2ObjectMapperBuilder} as the JSON one, so field
+ * names, date formats and null handling match. Protobuf messages are described by
+ * {@code proto/creditcard.proto}; amounts and dates travel as strings in it.
+ */
+public final class BinaryFormats {
+
+  public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+  public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+  public static final MediaType PROTOBUF = MediaType.APPLICATION_PROTOBUF;
+
+  private static final String PROTOBUF_SCHEMA = "proto/creditcard.proto";
+  private static final Map<Class<?>, String> PROTOBUF_MESSAGES = Map.of(
+      CreditCard.class, "CreditCard",
+      CreditCardDTO.class, "CreditCardDTO",
+      CreditCardTransactions.class, "CreditCardTransactions",
+      TransactionPageDTO.class, "TransactionPage");
+
+  private BinaryFormats() {
+  }
+
+  public static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+    return builder.factory(new SmileFactory()).build();
+  }
+
+  public static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+    return builder.factory(new CBORFactory()).build();
+  }
+
+  /**
+   * Builds the Protobuf mapper. Decimal amounts are written as strings, the type the schema
+   * declares for them, and dates as ISO-8601 strings.
+   *
+   * @param builder the builder configured like the JSON mapper.
+   * @return the Protobuf mapper.
+   */
+  public static ObjectMapper protobufMapper(Jackson2ObjectMapperBuilder builder) {
+    ObjectMapper mapper = builder.factory(new ProtobufFactory())
+        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .build();
+    return mapper.registerModule(new SimpleModule("protobuf-decimals")
+        .addSerializer(BigDecimal.class, ToStringSerializer.instance));
+  }
+
+  /**
+   * Loads the Protobuf schema of every type exchanged in Protobuf.
+   *
+   * @return the schema of each type, rooted at its message.
+   */
+  public static Map<Class<?>, ProtobufSchema> protobufSchemas() {
+    try (InputStream in = new ClassPathResource(PROTOBUF_SCHEMA).getInputStream()) {
+      ProtobufSchema schema = ProtobufSchemaLoader.std.parse(
+          new String(in.readAllBytes(), StandardCharsets.UTF_8));
+      Map<Class<?>, ProtobufSchema> schemas = new HashMap<>();
+      PROTOBUF_MESSAGES.forEach((type, message) -> schemas.put(type,
+          schema.withRootType(message)));
+      return Map.copyOf(schemas);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot load " + PROTOBUF_SCHEMA, e);
+    }
+  }
+}
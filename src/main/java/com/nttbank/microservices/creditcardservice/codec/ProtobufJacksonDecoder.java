@@ -0,0 +1,44 @@
+package com.nttbank.microservices.creditcardservice.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import java.util.Map;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.codec.json.AbstractJackson2Decoder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+/**
+ * Decodes request bodies holding one Protobuf message of a type described by
+ * {@code proto/creditcard.proto}.
+ */
+public class ProtobufJacksonDecoder extends AbstractJackson2Decoder {
+
+  private final Map<Class<?>, ProtobufSchema> schemas;
+
+  public ProtobufJacksonDecoder(ObjectMapper mapper, Map<Class<?>, ProtobufSchema> schemas) {
+    super(mapper, BinaryFormats.PROTOBUF);
+    this.schemas = schemas;
+  }
+
+  @Override
+  public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
+    return schemas.containsKey(elementType.toClass()) && super.canDecode(elementType, mimeType);
+  }
+
+  @Override
+  public Flux<Object> decode(Publisher<DataBuffer> input, ResolvableType elementType,
+      @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+    return decodeToMono(input, elementType, mimeType, hints).flux();
+  }
+
+  @Override
+  protected ObjectReader customizeReader(ObjectReader reader, ResolvableType elementType,
+      @Nullable Map<String, Object> hints) {
+    return reader.with(schemas.get(elementType.toClass()));
+  }
+}
@@ -0,0 +1,64 @@
+package com.nttbank.microservices.creditcardservice.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import java.util.List;
+import java.util.Map;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Encodes the types described by {@code proto/creditcard.proto} as Protobuf messages through
+ * Jackson. A single value is written as one message; a stream of values is written as
+ * length-delimited messages, the framing of {@code writeDelimitedTo} in the Protobuf runtimes.
+ */
+public class ProtobufJacksonEncoder extends AbstractJackson2Encoder {
+
+  private final Map<Class<?>, ProtobufSchema> schemas;
+
+  public ProtobufJacksonEncoder(ObjectMapper mapper, Map<Class<?>, ProtobufSchema> schemas) {
+    super(mapper, BinaryFormats.PROTOBUF);
+    this.schemas = schemas;
+  }
+
+  @Override
+  public boolean canEncode(ResolvableType elementType, @Nullable MimeType mimeType) {
+    return schemas.containsKey(elementType.toClass()) && super.canEncode(elementType, mimeType);
+  }
+
+  @Override
+  public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+      ResolvableType elementType, @Nullable MimeType mimeType,
+      @Nullable Map<String, Object> hints) {
+    if (inputStream instanceof Mono) {
+      return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+    }
+    return Flux.from(inputStream).map(value -> delimit(
+        encodeValue(value, bufferFactory, elementType, mimeType, hints), bufferFactory));
+  }
+
+  @Override
+  protected ObjectWriter customizeWriter(ObjectWriter writer, @Nullable MimeType mimeType,
+      ResolvableType elementType, @Nullable Map<String, Object> hints) {
+    return writer.with(schemas.get(elementType.toClass()));
+  }
+
+  private static DataBuffer delimit(DataBuffer message, DataBufferFactory bufferFactory) {
+    int length = message.readableByteCount();
+    DataBuffer prefix = bufferFactory.allocateBuffer(5);
+    while ((length & ~0x7F) != 0) {
+      prefix.write((byte) ((length & 0x7F) | 0x80));
+      length >>>= 7;
+    }
+    prefix.write((byte) length);
+    return bufferFactory.join(List.of(prefix, message));
+  }
+}
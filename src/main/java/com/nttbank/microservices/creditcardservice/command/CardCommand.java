@@ -0,0 +1,29 @@
+package com.nttbank.microservices.creditcardservice.command;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import java.util.function.Supplier;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * A charge or payment queued in the mailbox of its card.
+ *
+ * @param creditCardId the credit card identifier.
+ * @param type the movement type, {@code charge} or {@code payment}.
+ * @param amount the scaled amount of the movement.
+ * @param idempotencyKey the key recorded on the transaction of the movement, or null.
+ * @param single applies this command alone through the atomic single-call path.
+ * @param result completed with the card after this movement was applied.
+ */
+record CardCommand(String creditCardId, String type, Money amount, String idempotencyKey,
+    Supplier<Mono<CreditCard>> single, Sinks.One<CreditCard> result) {
+
+  void emit(CreditCard creditCard) {
+    if (creditCard == null) {
+      result.tryEmitEmpty();
+    } else {
+      result.tryEmitValue(creditCard);
+    }
+  }
+}
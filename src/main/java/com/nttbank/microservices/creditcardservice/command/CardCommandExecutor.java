@@ -0,0 +1,240 @@
+package com.nttbank.microservices.creditcardservice.command;
+
+import com.nttbank.microservices.creditcardservice.cache.CreditCardCache;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Serializes charges and payments per card through striped, lock-free mailboxes. A card always
+ * hashes to the same stripe and a stripe drains one batch at a time, so movements on one card
+ * never race each other while different stripes proceed in parallel. Consecutive movements of the
+ * same type on one card are coalesced into a single conditional balance update plus one bulk
+ * transaction insert; if the coalesced update is rejected, the run is replayed one movement at a
+ * time so every movement gets its own accept or reject outcome.
+ *
+ * <p>Enabled with {@code creditcard.commands.sequencing.enabled=true}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "creditcard.commands.sequencing.enabled", havingValue = "true")
+public class CardCommandExecutor {
+
+  private final ICreditCardRepo creditCardRepo;
+  private final ICreditCardTransactionRepo transactionRepo;
+  private final CreditCardCache cache;
+  private final Stripe[] stripes;
+  private final int maxBatchSize;
+  private final AtomicLong queueDepth = new AtomicLong();
+  private final Counter commands;
+  private final Counter balanceUpdates;
+
+  public CardCommandExecutor(ICreditCardRepo creditCardRepo,
+      ICreditCardTransactionRepo transactionRepo, CreditCardCache cache,
+      MeterRegistry meterRegistry,
+      @Value("${creditcard.commands.stripes:0}") int stripes,
+      @Value("${creditcard.commands.max-batch-size:256}") int maxBatchSize) {
+    this.creditCardRepo = creditCardRepo;
+    this.transactionRepo = transactionRepo;
+    this.cache = cache;
+    this.maxBatchSize = maxBatchSize;
+    int stripeCount = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors() * 4;
+    this.stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      this.stripes[i] = new Stripe();
+    }
+    this.commands = Counter.builder("creditcard.commands.applied")
+        .description("Movements applied through the card mailboxes")
+        .register(meterRegistry);
+    this.balanceUpdates = Counter.builder("creditcard.commands.balance.updates")
+        .description("Balance updates issued for the applied movements")
+        .register(meterRegistry);
+    Gauge.builder("creditcard.commands.queue.depth", queueDepth, AtomicLong::get)
+        .description("Movements waiting in the card mailboxes")
+        .register(meterRegistry);
+    Gauge.builder("creditcard.commands.coalescing.ratio", this,
+            e -> e.balanceUpdates.count() == 0 ? 1.0
+                : e.commands.count() / e.balanceUpdates.count())
+        .description("Movements applied per balance update")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Queues a movement in the mailbox of its card.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param type the movement type, {@code charge} or {@code payment}.
+   * @param amount the scaled amount of the movement.
+   * @param idempotencyKey the key recorded on the transaction of the movement, or null.
+   * @param single applies the movement alone through the atomic single-call path.
+   * @return the card after the movement, an error if it was rejected, or empty if the card does
+   *     not exist.
+   */
+  public Mono<CreditCard> submit(String creditCardId, String type, Money amount,
+      String idempotencyKey, Supplier<Mono<CreditCard>> single) {
+    return Mono.defer(() -> {
+      Sinks.One<CreditCard> result = Sinks.one();
+      stripes[Math.floorMod(creditCardId.hashCode(), stripes.length)]
+          .offer(new CardCommand(creditCardId, type, amount, idempotencyKey, single, result));
+      return result.asMono();
+    });
+  }
+
+  private Mono<Void> applyBatch(List<CardCommand> batch) {
+    Map<String, List<CardCommand>> byCard = new LinkedHashMap<>();
+    batch.forEach(c -> byCard.computeIfAbsent(c.creditCardId(), id -> new ArrayList<>()).add(c));
+    return Flux.fromIterable(byCard.values())
+        .flatMap(cardCommands -> Flux.fromIterable(runs(cardCommands))
+            .concatMap(this::applyRun))
+        .then();
+  }
+
+  /** Splits one card's commands into runs of consecutive movements of the same type. */
+  private static List<List<CardCommand>> runs(List<CardCommand> cardCommands) {
+    List<List<CardCommand>> runs = new ArrayList<>();
+    List<CardCommand> run = null;
+    for (CardCommand command : cardCommands) {
+      if (run == null || !run.get(0).type().equals(command.type())) {
+        run = new ArrayList<>();
+        runs.add(run);
+      }
+      run.add(command);
+    }
+    return runs;
+  }
+
+  private Mono<Void> applyRun(List<CardCommand> run) {
+    commands.increment(run.size());
+    if (run.size() == 1) {
+      return applySingle(run.get(0));
+    }
+    CardCommand first = run.get(0);
+    boolean charge = Constants.CHARGE.equals(first.type());
+    Money total;
+    try {
+      total = run.stream().map(CardCommand::amount).reduce(Money.ZERO, Money::add);
+    } catch (ArithmeticException e) {
+      return Flux.fromIterable(run).concatMap(this::applySingle).then();
+    }
+    balanceUpdates.increment();
+    Mono<CreditCard> update = charge
+        ? creditCardRepo.chargeIfFundsAvailable(first.creditCardId(), total)
+        : creditCardRepo.payIfWithinLimit(first.creditCardId(), total);
+    return update
+        .map(Optional::of)
+        .defaultIfEmpty(Optional.empty())
+        .flatMap(postImage -> postImage
+            .map(creditCard -> recordRun(run, creditCard, charge, total))
+            .orElseGet(() -> Flux.fromIterable(run).concatMap(this::applySingle).then()))
+        .onErrorResume(e -> {
+          run.forEach(c -> c.result().tryEmitError(e));
+          return Mono.empty();
+        });
+  }
+
+  /**
+   * Writes the transactions of a coalesced run and hands each caller the card as it was right
+   * after its own movement.
+   */
+  private Mono<Void> recordRun(List<CardCommand> run, CreditCard postImage, boolean charge,
+      Money total) {
+    cache.invalidate(postImage.getId());
+    Money balance = charge ? postImage.getCurrentBalance().add(total)
+        : postImage.getCurrentBalance().subtract(total);
+    LocalDateTime now = LocalDateTime.now();
+    List<CreditCardTransactions> transactions = new ArrayList<>(run.size());
+    List<CreditCard> images = new ArrayList<>(run.size());
+    for (CardCommand command : run) {
+      balance = charge ? balance.subtract(command.amount()) : balance.add(command.amount());
+      transactions.add(CreditCardTransactions.builder()
+          .customerId(postImage.getCustomerId())
+          .creditCardId(postImage.getId())
+          .balanceAfterMovement(balance)
+          .amount(command.amount())
+          .type(command.type())
+          .createdAt(now)
+          .idempotencyKey(command.idempotencyKey())
+          .build());
+      images.add(postImage.toBuilder().currentBalance(balance).build());
+    }
+    return transactionRepo.append(transactions)
+        .then(Mono.fromRunnable(() -> {
+          for (int i = 0; i < run.size(); i++) {
+            run.get(i).emit(images.get(i));
+          }
+        }));
+  }
+
+  private Mono<Void> applySingle(CardCommand command) {
+    balanceUpdates.increment();
+    return command.single().get()
+        .doOnSuccess(command::emit)
+        .doOnError(e -> command.result().tryEmitError(e))
+        .onErrorResume(e -> Mono.empty())
+        .then();
+  }
+
+  /**
+   * Mailbox shared by the cards hashing to one stripe. {@code pending} counts the commands offered
+   * and not yet applied; the thread that moves it from zero becomes the drainer until it drops
+   * back to zero.
+   */
+  private final class Stripe {
+
+    private final Queue<CardCommand> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    void offer(CardCommand command) {
+      mailbox.offer(command);
+      queueDepth.incrementAndGet();
+      if (pending.getAndIncrement() == 0) {
+        drain();
+      }
+    }
+
+    private void drain() {
+      List<CardCommand> batch = new ArrayList<>();
+      CardCommand command;
+      while (batch.size() < maxBatchSize && (command = mailbox.poll()) != null) {
+        batch.add(command);
+      }
+      queueDepth.addAndGet(-batch.size());
+      applyBatch(batch)
+          .onErrorResume(e -> {
+            log.error("Unexpected error applying card commands.", e);
+            return Mono.empty();
+          })
+          .doFinally(signal -> {
+            if (pending.addAndGet(-batch.size()) > 0) {
+              Schedulers.parallel().schedule(this::drain);
+            }
+          })
+          .subscribe();
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.nttbank.microservices.creditcardservice.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nttbank.microservices.creditcardservice.cache.CaffeineCreditCardCache;
+import com.nttbank.microservices.creditcardservice.cache.CreditCardCache;
+import com.nttbank.microservices.creditcardservice.cache.CreditCardChangeStreamInvalidator;
+import com.nttbank.microservices.creditcardservice.cache.NoOpCreditCardCache;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+/**
+ * Configuration class for the credit card lookup cache. The Caffeine cache is enabled by default
+ * and can be turned off with {@code creditcard.cache.enabled=false}. Cross-replica invalidation
+ * through a MongoDB change stream is opt-in with {@code creditcard.cache.change-stream.enabled}.
+ */
+@Configuration
+public class CacheConfig {
+
+  @Bean
+  @ConditionalOnProperty(name = "creditcard.cache.enabled", havingValue = "true",
+      matchIfMissing = true)
+  public CreditCardCache caffeineCreditCardCache(MeterRegistry meterRegistry,
+      @Value("${creditcard.cache.maximum-size:10000}") long maximumSize,
+      @Value("${creditcard.cache.ttl:30s}") Duration ttl) {
+    AsyncCache<String, CreditCard> cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .buildAsync();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "credit_cards", List.of());
+    return new CaffeineCreditCardCache(cache);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(CreditCardCache.class)
+  public CreditCardCache noOpCreditCardCache() {
+    return new NoOpCreditCardCache();
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "creditcard.cache.change-stream.enabled", havingValue = "true")
+  public CreditCardChangeStreamInvalidator creditCardChangeStreamInvalidator(
+      ReactiveMongoTemplate mongoTemplate, CreditCardCache cache) {
+    return new CreditCardChangeStreamInvalidator(mongoTemplate, cache);
+  }
+}
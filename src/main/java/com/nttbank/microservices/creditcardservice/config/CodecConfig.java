@@ -0,0 +1,45 @@
+package com.nttbank.microservices.creditcardservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.nttbank.microservices.creditcardservice.codec.BinaryFormats;
+import com.nttbank.microservices.creditcardservice.codec.ProtobufJacksonDecoder;
+import com.nttbank.microservices.creditcardservice.codec.ProtobufJacksonEncoder;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Configuration class registering the Smile, CBOR and Protobuf codecs. They are registered after
+ * the JSON codec, so JSON stays the format of requests that do not ask for another one.
+ */
+@Configuration
+public class CodecConfig {
+
+  @Bean
+  public CodecCustomizer binaryCodecsCustomizer(
+      ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+    ObjectMapper smile = BinaryFormats.smileMapper(builders.getObject());
+    ObjectMapper cbor = BinaryFormats.cborMapper(builders.getObject());
+    ObjectMapper protobuf = BinaryFormats.protobufMapper(builders.getObject());
+    Map<Class<?>, ProtobufSchema> schemas = BinaryFormats.protobufSchemas();
+    return configurer -> {
+      // Without explicit MIME types the Jackson codecs fall back to the JSON ones.
+      configurer.defaultCodecs().jackson2SmileEncoder(
+          new Jackson2SmileEncoder(smile, BinaryFormats.SMILE));
+      configurer.defaultCodecs().jackson2SmileDecoder(
+          new Jackson2SmileDecoder(smile, BinaryFormats.SMILE));
+      configurer.customCodecs().register(new Jackson2CborEncoder(cbor, BinaryFormats.CBOR));
+      configurer.customCodecs().register(new Jackson2CborDecoder(cbor, BinaryFormats.CBOR));
+      configurer.customCodecs().register(new ProtobufJacksonEncoder(protobuf, schemas));
+      configurer.customCodecs().register(new ProtobufJacksonDecoder(protobuf, schemas));
+    };
+  }
+}
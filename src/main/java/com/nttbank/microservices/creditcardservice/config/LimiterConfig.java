@@ -0,0 +1,52 @@
+package com.nttbank.microservices.creditcardservice.config;
+
+import com.nttbank.microservices.creditcardservice.limiter.CustomerQuotas;
+import com.nttbank.microservices.creditcardservice.limiter.GradientConcurrencyLimit;
+import com.nttbank.microservices.creditcardservice.limiter.LoadSheddingFilter;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for load shedding on the charge and payment endpoints, opt-in with
+ * {@code creditcard.limiter.enabled}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "creditcard.limiter.enabled", havingValue = "true")
+public class LimiterConfig {
+
+  @Bean
+  public GradientConcurrencyLimit movementConcurrencyLimit(
+      @Value("${creditcard.limiter.initial-limit:20}") int initialLimit,
+      @Value("${creditcard.limiter.min-limit:4}") int minLimit,
+      @Value("${creditcard.limiter.max-limit:500}") int maxLimit,
+      @Value("${creditcard.limiter.tolerance:1.5}") double tolerance) {
+    return new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance);
+  }
+
+  @Bean
+  public CustomerQuotas customerQuotas(
+      @Value("${creditcard.limiter.customer.rate:50}") double ratePerSecond,
+      @Value("${creditcard.limiter.customer.burst:100}") int burst,
+      @Value("${creditcard.limiter.customer.maximum-size:100000}") long maximumCustomers) {
+    return new CustomerQuotas(ratePerSecond, burst, maximumCustomers);
+  }
+
+  @Bean
+  public LoadSheddingFilter loadSheddingFilter(GradientConcurrencyLimit limit,
+      CustomerQuotas quotas, ICreditCardRepo creditCardRepo, MeterRegistry meterRegistry,
+      @Value("${creditcard.limiter.customer.lookup-timeout:50ms}") Duration lookupTimeout,
+      @Value("${creditcard.limiter.customer.max-lookups:32}") int maxLookups,
+      @Value("${creditcard.limiter.unknown-card.rate:1}") double unknownCardRate,
+      @Value("${creditcard.limiter.unknown-card.burst:5}") int unknownCardBurst,
+      @Value("${creditcard.limiter.cards.maximum-size:100000}") long maximumCards) {
+    CustomerQuotas unknownCardQuotas = new CustomerQuotas(unknownCardRate, unknownCardBurst,
+        maximumCards);
+    return new LoadSheddingFilter(limit, quotas, unknownCardQuotas, creditCardRepo, lookupTimeout,
+        maxLookups, meterRegistry, maximumCards);
+  }
+}
@@ -1,16 +1,19 @@
 package com.nttbank.microservices.creditcardservice.config;
 
+import com.nttbank.microservices.creditcardservice.util.MoneyConverters;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
 import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 
 /**
  * Configuration class for MongoDB. This configuration is responsible for customizing the MongoDB
  * converter by removing the default MongoDB type mapper, which adds a `_class` field to each
- * document.
+ * document, and registers the {@code Money} converters.
  */
 @Configuration
 @RequiredArgsConstructor
@@ -19,6 +22,11 @@ public class MongoConfig implements InitializingBean {
   @Lazy
   private final MappingMongoConverter converter;
 
+  @Bean
+  public static MongoCustomConversions mongoCustomConversions() {
+    return new MongoCustomConversions(MoneyConverters.converters());
+  }
+
   @Override
   public void afterPropertiesSet() throws Exception {
     converter.setTypeMapper(new DefaultMongoTypeMapper(null));
@@ -0,0 +1,64 @@
+package com.nttbank.microservices.creditcardservice.config;
+
+import com.nttbank.microservices.creditcardservice.dto.CardEventDTO;
+import com.nttbank.microservices.creditcardservice.dto.CardMovementDTO;
+import com.nttbank.microservices.creditcardservice.dto.CardMovementResultDTO;
+import com.nttbank.microservices.creditcardservice.dto.CreditCardDTO;
+import com.nttbank.microservices.creditcardservice.dto.LedgerBalanceDTO;
+import com.nttbank.microservices.creditcardservice.dto.LedgerVerificationDTO;
+import com.nttbank.microservices.creditcardservice.dto.TransactionPageDTO;
+import com.nttbank.microservices.creditcardservice.exception.WebExceptionHandler;
+import com.nttbank.microservices.creditcardservice.model.CardHold;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.CreditCardStatement;
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import com.nttbank.microservices.creditcardservice.model.ReconciliationReport;
+import feign.FeignException;
+import io.swagger.v3.oas.models.ExternalDocumentation;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.info.Contact;
+import io.swagger.v3.oas.models.info.Info;
+import io.swagger.v3.oas.models.info.License;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Configuration class registering the reflection and resource hints the service needs when it is
+ * processed ahead of time or compiled to a native image ({@code mvn -Pnative}). Bean definitions,
+ * repositories and controller bodies are covered by Spring AOT itself; these hints add the types
+ * that are only reached through Jackson, the error handler and the OpenAPI model.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.Hints.class)
+public class NativeHintsConfig {
+
+  static class Hints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+      bindings.registerReflectionHints(hints.reflection(),
+          CreditCard.class, CreditCardTransactions.class, CreditCardStatement.class,
+          JobRun.class, ReconciliationReport.class, CardHold.class,
+          CreditCardDTO.class, TransactionPageDTO.class, CardMovementDTO.class,
+          CardMovementResultDTO.class, LedgerBalanceDTO.class, LedgerVerificationDTO.class,
+          CardEventDTO.class,
+          OpenAPI.class, Info.class, Contact.class, License.class, ExternalDocumentation.class);
+
+      hints.reflection().registerType(WebExceptionHandler.class,
+          MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+      hints.reflection().registerType(OpenApiConfig.class,
+          MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+      hints.reflection().registerType(FeignException.NotFound.class,
+          MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+      hints.resources().registerPattern("proto/*.proto");
+    }
+  }
+}
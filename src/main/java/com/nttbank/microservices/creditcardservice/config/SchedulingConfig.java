@@ -0,0 +1,13 @@
+package com.nttbank.microservices.creditcardservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class enabling the scheduled batch jobs of the service.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
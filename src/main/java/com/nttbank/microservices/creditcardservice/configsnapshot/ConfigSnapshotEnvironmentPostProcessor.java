@@ -0,0 +1,77 @@
+package com.nttbank.microservices.creditcardservice.configsnapshot;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.config.ConfigDataEnvironmentPostProcessor;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+/**
+ * Points the config import at the local config snapshot, when one exists, instead of the config
+ * server, so startup does not wait for the server. It runs before the config data is loaded, so
+ * {@code creditcard.config.snapshot.enabled} and {@code creditcard.config.snapshot.path} must be
+ * set as environment variables, system properties or arguments rather than in application.yml.
+ * The path must be absolute; it defaults to a directory in the user's home, so the snapshot does
+ * not depend on the working directory.
+ */
+public class ConfigSnapshotEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+  static final String ENABLED_PROPERTY = "creditcard.config.snapshot.enabled";
+  static final String PATH_PROPERTY = "creditcard.config.snapshot.path";
+  static final String DEFAULT_PATH = ".creditcard-service/config-snapshot.properties";
+
+  /**
+   * Name of the property source holding the import override. It is listed in
+   * {@code spring.cloud.refresh.additional-property-sources-to-retain}, so refreshes keep reading
+   * the snapshot.
+   */
+  static final String PROPERTY_SOURCE = "configSnapshot";
+  private static final String IMPORT_PROPERTY = "creditcard.config.import";
+
+  @Override
+  public void postProcessEnvironment(ConfigurableEnvironment environment,
+      SpringApplication application) {
+    if (!environment.getProperty(ENABLED_PROPERTY, Boolean.class, false)) {
+      return;
+    }
+    Path path = snapshotPath(environment);
+    if (Files.isReadable(path)) {
+      useSnapshot(environment, path);
+    }
+  }
+
+  @Override
+  public int getOrder() {
+    return ConfigDataEnvironmentPostProcessor.ORDER - 1;
+  }
+
+  /**
+   * Resolves the snapshot file: the configured path, or the default one in the user's home.
+   *
+   * @throws IllegalStateException if the configured path is relative.
+   */
+  static Path snapshotPath(ConfigurableEnvironment environment) {
+    String configured = environment.getProperty(PATH_PROPERTY);
+    if (configured == null) {
+      return Path.of(System.getProperty("user.home"), DEFAULT_PATH);
+    }
+    Path path = Path.of(configured);
+    if (!path.isAbsolute()) {
+      throw new IllegalStateException(PATH_PROPERTY + " must be an absolute path: " + configured);
+    }
+    return path;
+  }
+
+  static boolean isUsingSnapshot(ConfigurableEnvironment environment) {
+    return environment.getPropertySources().contains(PROPERTY_SOURCE);
+  }
+
+  static void useSnapshot(ConfigurableEnvironment environment, Path path) {
+    environment.getPropertySources().addLast(new MapPropertySource(PROPERTY_SOURCE,
+        Map.of(IMPORT_PROPERTY, "optional:file:" + path.toAbsolutePath())));
+  }
+}
@@ -0,0 +1,195 @@
+package com.nttbank.microservices.creditcardservice.configsnapshot;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.client.ConfigServicePropertySourceLocator;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Keeps the local config snapshot in line with the config server. Once the application is ready
+ * it fetches the configuration in the background, then again at a fixed interval. A fetch that
+ * differs from the snapshot is written to the snapshot file and, if the snapshot was already in
+ * use, applied with a context refresh, which publishes the changed keys and rebinds the
+ * configuration properties. A failed fetch keeps the snapshot and the current values. The snapshot
+ * holds every fetched value, credentials included, so on POSIX file systems it is only readable
+ * and writable by its owner.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = ConfigSnapshotEnvironmentPostProcessor.ENABLED_PROPERTY,
+    havingValue = "true")
+public class ConfigSnapshotRefresher implements DisposableBean {
+
+  private static final String VERSION_PROPERTY = "config.client.version";
+  private static final Set<PosixFilePermission> FILE_PERMISSIONS =
+      PosixFilePermissions.fromString("rw-------");
+  private static final Set<PosixFilePermission> DIRECTORY_PERMISSIONS =
+      PosixFilePermissions.fromString("rwx------");
+
+  private final ConfigurableEnvironment environment;
+  private final ObjectProvider<ConfigClientProperties> clientProperties;
+  private final ObjectProvider<ContextRefresher> contextRefresher;
+  private final Path path;
+  private final Duration interval;
+  private Disposable subscription;
+
+  public ConfigSnapshotRefresher(ConfigurableEnvironment environment,
+      ObjectProvider<ConfigClientProperties> clientProperties,
+      ObjectProvider<ContextRefresher> contextRefresher,
+      @Value("${creditcard.config.snapshot.refresh-interval:5m}") Duration interval) {
+    this.environment = environment;
+    this.clientProperties = clientProperties;
+    this.contextRefresher = contextRefresher;
+    this.path = ConfigSnapshotEnvironmentPostProcessor.snapshotPath(environment);
+    this.interval = interval;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    log.info("Config snapshot at '{}' {}.", path,
+        ConfigSnapshotEnvironmentPostProcessor.isUsingSnapshot(environment)
+            ? "used for startup" : "not used for startup");
+    subscription = Flux.interval(Duration.ZERO, interval, Schedulers.boundedElastic())
+        .onBackpressureDrop()
+        .concatMap(tick -> Mono.fromRunnable(this::refresh)
+            .onErrorResume(error -> {
+              log.warn("Config snapshot refresh failed; keeping the current snapshot.", error);
+              return Mono.empty();
+            }))
+        .subscribe();
+  }
+
+  /**
+   * Fetches the configuration from the config server and updates the snapshot with it.
+   */
+  void refresh() {
+    ConfigClientProperties properties = clientProperties.getIfAvailable();
+    if (properties == null) {
+      log.debug("Config client disabled; config snapshot not refreshed.");
+      return;
+    }
+    PropertySource<?> source = fetch(properties);
+    if (!(source instanceof EnumerablePropertySource<?> remote)
+        || remote.getPropertyNames().length == 0) {
+      log.warn("Config server returned no configuration; keeping the current snapshot.");
+      return;
+    }
+    Map<String, String> fetched = new TreeMap<>();
+    for (String name : remote.getPropertyNames()) {
+      Object value = remote.getProperty(name);
+      if (value != null) {
+        fetched.put(name, String.valueOf(value));
+      }
+    }
+    Map<String, String> current = read();
+    if (fetched.equals(current)) {
+      return;
+    }
+    write(fetched);
+    log.info("Config snapshot updated to version {}.", fetched.get(VERSION_PROPERTY));
+    if (current == null) {
+      return;
+    }
+    if (!ConfigSnapshotEnvironmentPostProcessor.isUsingSnapshot(environment)) {
+      ConfigSnapshotEnvironmentPostProcessor.useSnapshot(environment, path);
+    }
+    ContextRefresher refresher = contextRefresher.getIfAvailable();
+    if (refresher == null) {
+      log.warn("Context refresh disabled; config changes apply on the next restart.");
+      return;
+    }
+    Set<String> changed = refresher.refresh();
+    log.info("Config refreshed from snapshot; changed keys: {}.", changed);
+  }
+
+  /**
+   * Fetches the configuration from the config server.
+   */
+  PropertySource<?> fetch(ConfigClientProperties properties) {
+    return new ConfigServicePropertySourceLocator(properties).locate(environment);
+  }
+
+  private Map<String, String> read() {
+    if (!Files.isReadable(path)) {
+      return null;
+    }
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    } catch (IOException e) {
+      log.warn("Unreadable config snapshot at '{}'; it will be replaced.", path, e);
+      return Map.of();
+    }
+    Map<String, String> values = new TreeMap<>();
+    properties.stringPropertyNames().forEach(name -> values.put(name,
+        properties.getProperty(name)));
+    return values;
+  }
+
+  /**
+   * Writes the snapshot next to its final location and moves it into place, so a reader never
+   * sees a partial file. The file is created owner-only before anything is written to it.
+   */
+  private void write(Map<String, String> values) {
+    Properties properties = new Properties();
+    properties.putAll(values);
+    try {
+      Path directory = path.getParent();
+      boolean posix = directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+      Path temp;
+      if (posix) {
+        Files.createDirectories(directory,
+            PosixFilePermissions.asFileAttribute(DIRECTORY_PERMISSIONS));
+        temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp",
+            PosixFilePermissions.asFileAttribute(FILE_PERMISSIONS));
+      } else {
+        Files.createDirectories(directory);
+        temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+      }
+      try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+        properties.store(writer, "Config snapshot, config server version "
+            + values.getOrDefault(VERSION_PROPERTY, "unknown"));
+      }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    if (subscription != null) {
+      subscription.dispose();
+    }
+  }
+}
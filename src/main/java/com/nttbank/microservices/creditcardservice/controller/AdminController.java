@@ -0,0 +1,109 @@
+package com.nttbank.microservices.creditcardservice.controller;
+
+import com.nttbank.microservices.creditcardservice.archive.TransactionArchiver;
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import com.nttbank.microservices.creditcardservice.model.ReconciliationReport;
+import com.nttbank.microservices.creditcardservice.service.AmountMigrationService;
+import com.nttbank.microservices.creditcardservice.service.CustomerCardCounterService;
+import com.nttbank.microservices.creditcardservice.service.MaintenanceFeeService;
+import com.nttbank.microservices.creditcardservice.service.ReconciliationService;
+import com.nttbank.microservices.creditcardservice.service.StatementService;
+import com.nttbank.microservices.creditcardservice.service.TransactionMigrationService;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller class to handle maintenance operations over the credit card data.
+ */
+@RestController
+@RequestMapping("/creditcards/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+  private final CustomerCardCounterService counterService;
+  private final StatementService statementService;
+  private final MaintenanceFeeService maintenanceFeeService;
+  private final TransactionMigrationService migrationService;
+  private final AmountMigrationService amountMigrationService;
+  private final ReconciliationService reconciliationService;
+  private final ObjectProvider<TransactionArchiver> transactionArchiver;
+
+  @PostMapping("/counters/rebuild")
+  public Mono<ResponseEntity<Map<String, Long>>> rebuildCounters() {
+    return counterService.rebuild()
+        .map(rebuilt -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+            .body(Map.of("counters", rebuilt)));
+  }
+
+  @PostMapping("/statements/run")
+  public Mono<ResponseEntity<JobRun>> generateStatements(
+      @RequestParam("date") @DateTimeFormat(iso = ISO.DATE) LocalDate date) {
+    return statementService.generateStatements(date)
+        .map(run -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(run))
+        .defaultIfEmpty(ResponseEntity.status(HttpStatus.CONFLICT).build());
+  }
+
+  @PostMapping("/maintenance-fees/run")
+  public Mono<ResponseEntity<JobRun>> billMaintenanceFees(
+      @RequestParam("period") @DateTimeFormat(pattern = "yyyy-MM") YearMonth period) {
+    return maintenanceFeeService.billMaintenanceFees(period)
+        .map(run -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(run))
+        .defaultIfEmpty(ResponseEntity.status(HttpStatus.CONFLICT).build());
+  }
+
+  @PostMapping("/transactions/migrate-buckets")
+  public Mono<ResponseEntity<Map<String, Long>>> migrateTransactionsToBuckets() {
+    return migrationService.migrateToBuckets()
+        .map(migrated -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+            .body(Map.of("migrated", migrated)));
+  }
+
+  @PostMapping("/amounts/convert")
+  public Mono<ResponseEntity<JobRun>> convertStringAmounts() {
+    return amountMigrationService.convertStringAmounts()
+        .map(run -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(run))
+        .defaultIfEmpty(ResponseEntity.status(HttpStatus.CONFLICT).build());
+  }
+
+  @PostMapping("/transactions/archive")
+  public Mono<ResponseEntity<JobRun>> archiveTransactions() {
+    TransactionArchiver archiver = transactionArchiver.getIfAvailable();
+    if (archiver == null) {
+      return Mono.error(new IllegalStateException(
+          "Transactions can only be archived with creditcard.archive.enabled=true."));
+    }
+    return archiver.archive()
+        .map(run -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(run))
+        .defaultIfEmpty(ResponseEntity.status(HttpStatus.CONFLICT).build());
+  }
+
+  @PostMapping("/reconciliation/run")
+  public Mono<ResponseEntity<JobRun>> reconcile(
+      @RequestParam(value = "incremental", defaultValue = "false") boolean incremental) {
+    return reconciliationService.reconcile(incremental)
+        .map(run -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(run))
+        .defaultIfEmpty(ResponseEntity.status(HttpStatus.CONFLICT).build());
+  }
+
+  @GetMapping("/reconciliation/{run_id}/reports")
+  public Flux<ReconciliationReport> findReconciliationReports(
+      @PathVariable("run_id") String runId) {
+    return reconciliationService.findReports(runId);
+  }
+}
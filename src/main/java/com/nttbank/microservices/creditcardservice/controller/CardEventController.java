@@ -0,0 +1,68 @@
+package com.nttbank.microservices.creditcardservice.controller;
+
+import com.nttbank.microservices.creditcardservice.dto.CardEventDTO;
+import com.nttbank.microservices.creditcardservice.events.CardEventHub;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.service.CreditCardService;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller class pushing the changes of a credit card as server-sent events.
+ */
+@RestController
+@RequestMapping("/creditcards")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "creditcard.events.enabled", havingValue = "true")
+public class CardEventController {
+
+  private final CreditCardService service;
+  private final CardEventHub hub;
+
+  @Value("${creditcard.events.heartbeat:15s}")
+  private Duration heartbeat;
+
+  /**
+   * Streams the changes of a card. The first event is the card's current balance; the
+   * subscription is opened before the card is read, so no change in between is missed. Comments
+   * are sent while the card is idle to keep proxies from closing the connection.
+   */
+  @GetMapping(value = "/{creditcard_id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<CardEventDTO>> streamEvents(
+      @PathVariable("creditcard_id") String creditCardId) {
+    Mono<CardEventDTO> current = service.findById(creditCardId)
+        .switchIfEmpty(Mono.error(
+            new ResponseStatusException(HttpStatus.NOT_FOUND, "Credit card not found.")))
+        .map(CardEventController::toBalanceEvent);
+    Flux<ServerSentEvent<CardEventDTO>> events = Flux.mergeSequential(current,
+            hub.subscribe(creditCardId))
+        .map(e -> ServerSentEvent.builder(e).event(e.getType()).build());
+    Flux<ServerSentEvent<CardEventDTO>> heartbeats = Flux.interval(heartbeat)
+        .onBackpressureDrop()
+        .map(i -> ServerSentEvent.<CardEventDTO>builder().comment("keep-alive").build());
+    return events.mergeWith(heartbeats);
+  }
+
+  private static CardEventDTO toBalanceEvent(CreditCard card) {
+    return CardEventDTO.builder()
+        .type(CardEventDTO.BALANCE)
+        .creditCardId(card.getId())
+        .currentBalance(card.getCurrentBalance())
+        .heldAmount(card.getHeldAmount())
+        .status(card.getStatus())
+        .occurredAt(card.getUpdatedAt())
+        .build();
+  }
+}
@@ -1,21 +1,37 @@
 package com.nttbank.microservices.creditcardservice.controller;
 
+import com.nttbank.microservices.creditcardservice.dto.CardMovementDTO;
+import com.nttbank.microservices.creditcardservice.dto.CardMovementResultDTO;
 import com.nttbank.microservices.creditcardservice.dto.CreditCardDTO;
+import com.nttbank.microservices.creditcardservice.dto.TransactionPageDTO;
 import com.nttbank.microservices.creditcardservice.mapper.CreditCardMapper;
+import com.nttbank.microservices.creditcardservice.model.CardHold;
 import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.CreditCardStatement;
+import com.nttbank.microservices.creditcardservice.service.CardMovementService;
 import com.nttbank.microservices.creditcardservice.service.CreditCardService;
+import com.nttbank.microservices.creditcardservice.service.IdempotencyService;
+import com.nttbank.microservices.creditcardservice.service.StatementService;
+import com.nttbank.microservices.creditcardservice.util.Constants;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.QueryParam;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -24,6 +40,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -40,21 +57,53 @@ import reactor.core.publisher.Mono;
 public class CreditCardController {
 
   private final CreditCardService service;
+  private final CardMovementService movementService;
+  private final StatementService statementService;
+  private final IdempotencyService idempotencyService;
   private final CreditCardMapper mapper;
   private static final Logger logger = LoggerFactory.getLogger(CreditCardController.class);
+  private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
 
   @GetMapping
   public Mono<ResponseEntity<Flux<CreditCard>>> findAll() {
     return Mono.just(
-            ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(service.findAll()))
+            ResponseEntity.ok().body(service.findAll()))
         .defaultIfEmpty(ResponseEntity.noContent().build());
   }
 
+  /**
+   * Streams credit cards as newline-delimited JSON. The response is written element by element
+   * under Reactor backpressure, so exports run in constant memory.
+   */
+  @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<CreditCard> streamAll(
+      @RequestParam(value = "customerId", required = false) String customerId,
+      @RequestParam(value = "status", required = false) String status,
+      @RequestParam(value = "fields", required = false) Set<String> fields,
+      @RequestParam(value = "after", required = false) String after) {
+    return service.streamAll(customerId, status, fields, after);
+  }
+
+  /**
+   * Streams credit cards as server-sent events. Each event id is the card id, so a reconnecting
+   * client resumes from its {@code Last-Event-ID}.
+   */
+  @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<ServerSentEvent<CreditCard>> streamAllEvents(
+      @RequestParam(value = "customerId", required = false) String customerId,
+      @RequestParam(value = "status", required = false) String status,
+      @RequestParam(value = "fields", required = false) Set<String> fields,
+      @RequestParam(value = "after", required = false) String after,
+      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+    return service.streamAll(customerId, status, fields, lastEventId != null ? lastEventId : after)
+        .map(c -> ServerSentEvent.builder(c).id(c.getId()).build());
+  }
+
   @GetMapping("/{creditcard_id}")
   public Mono<ResponseEntity<CreditCard>> findById(
       @Valid @PathVariable("creditcard_id") String id) {
     return service.findById(id)
-        .map(c -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(c))
+        .map(c -> ResponseEntity.ok().body(c))
         .defaultIfEmpty(ResponseEntity.notFound().build());
   }
 
@@ -64,7 +113,7 @@ public class CreditCardController {
     return service.save(mapper.creditCardDTOToCreditCard(creditCardDTO))
         .map(c -> ResponseEntity.created(
                 URI.create(req.getURI().toString().concat("/").concat(c.getId())))
-            .contentType(MediaType.APPLICATION_JSON).body(c))
+            .body(c))
         .defaultIfEmpty(ResponseEntity.notFound().build());
   }
 
@@ -72,7 +121,7 @@ public class CreditCardController {
   public Mono<ResponseEntity<CreditCard>> update(
       @Valid @RequestBody CreditCardDTO creditCardDTO) {
     return service.update(mapper.creditCardDTOToCreditCard(creditCardDTO))
-        .map(e -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(e))
+        .map(e -> ResponseEntity.ok().body(e))
         .defaultIfEmpty(ResponseEntity.notFound().build());
   }
 
@@ -95,22 +144,96 @@ public class CreditCardController {
         .defaultIfEmpty(ResponseEntity.notFound().build());
   }
 
+  /**
+   * Charges a card. With an {@code Idempotency-Key} header, retries of the same request return
+   * the outcome of the first one instead of charging again.
+   */
   @PostMapping("/{creditcard_id}/charge")
   public Mono<ResponseEntity<CreditCard>> charge(
       @PathVariable("creditcard_id") String creditCardId,
-      @QueryParam("amount") @NotNull BigDecimal amount) {
-    return service.chargeCreditCard(creditCardId, amount)
-        .map(e -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(e))
+      @QueryParam("amount") @NotNull BigDecimal amount,
+      @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+    Mono<CreditCard> charge = idempotencyKey == null
+        ? service.chargeCreditCard(creditCardId, amount)
+        : idempotencyService.execute(idempotencyKey, creditCardId, Constants.CHARGE, amount,
+            () -> service.chargeCreditCard(creditCardId, amount, idempotencyKey));
+    return charge
+        .map(e -> ResponseEntity.ok().body(e))
         .defaultIfEmpty(ResponseEntity.notFound().build());
   }
 
+  /**
+   * Applies a batch of charges and payments submitted as a JSON array or as NDJSON, returning
+   * one result per movement in submission order.
+   */
+  @PostMapping(value = "/movements",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+      produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public Flux<CardMovementResultDTO> applyMovements(
+      @RequestBody Flux<CardMovementDTO> movements) {
+    return movementService.applyMovements(movements);
+  }
+
+  @GetMapping("/{creditcard_id}/transactions")
+  public Mono<ResponseEntity<TransactionPageDTO>> findTransactions(
+      @PathVariable("creditcard_id") String creditCardId,
+      @RequestParam(value = "from", required = false)
+      @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam(value = "to", required = false)
+      @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "size", defaultValue = "50") @Min(1) @Max(500) int size) {
+    return service.findTransactions(creditCardId, from, to, cursor, size)
+        .map(p -> ResponseEntity.ok().body(p));
+  }
+
+  @GetMapping("/{creditcard_id}/statements")
+  public Flux<CreditCardStatement> findStatements(
+      @PathVariable("creditcard_id") String creditCardId) {
+    return statementService.findByCreditCardId(creditCardId);
+  }
+
+  /**
+   * Pays into a card. With an {@code Idempotency-Key} header, retries of the same request return
+   * the outcome of the first one instead of paying again.
+   */
   @PostMapping("/{creditcard_id}/pay")
   public Mono<ResponseEntity<CreditCard>> pay(@PathVariable("creditcard_id") String creditCardId,
-      @QueryParam("amount") @NotNull BigDecimal amount) {
-    return service.payCreditCard(creditCardId, amount)
-        .map(e -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(e))
+      @QueryParam("amount") @NotNull BigDecimal amount,
+      @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+    Mono<CreditCard> payment = idempotencyKey == null
+        ? service.payCreditCard(creditCardId, amount)
+        : idempotencyService.execute(idempotencyKey, creditCardId, Constants.PAYMENT, amount,
+            () -> service.payCreditCard(creditCardId, amount, idempotencyKey));
+    return payment
+        .map(e -> ResponseEntity.ok().body(e))
+        .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+  /**
+   * Authorizes a hold reserving the amount on a card until it is captured, voided or expires.
+   */
+  @PostMapping("/{creditcard_id}/holds")
+  public Mono<ResponseEntity<CardHold>> authorize(
+      @PathVariable("creditcard_id") String creditCardId,
+      @RequestParam("amount") @NotNull BigDecimal amount) {
+    return service.authorize(creditCardId, amount)
+        .map(hold -> ResponseEntity.created(URI.create("/creditcards/holds/" + hold.getId()))
+            .body(hold))
         .defaultIfEmpty(ResponseEntity.notFound().build());
   }
 
+  @PostMapping("/holds/{hold_id}/capture")
+  public Mono<ResponseEntity<CreditCard>> capture(@PathVariable("hold_id") String holdId) {
+    return service.capture(holdId)
+        .map(e -> ResponseEntity.ok().body(e))
+        .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
 
+  @PostMapping("/holds/{hold_id}/void")
+  public Mono<ResponseEntity<CardHold>> voidHold(@PathVariable("hold_id") String holdId) {
+    return service.voidHold(holdId)
+        .map(e -> ResponseEntity.ok().body(e))
+        .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
 }
@@ -0,0 +1,50 @@
+package com.nttbank.microservices.creditcardservice.controller;
+
+import com.nttbank.microservices.creditcardservice.dto.LedgerBalanceDTO;
+import com.nttbank.microservices.creditcardservice.dto.LedgerVerificationDTO;
+import com.nttbank.microservices.creditcardservice.ledger.BalanceLedger;
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller class exposing the ledger-derived balances and their maintenance operations.
+ */
+@RestController
+@RequestMapping("/creditcards")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "creditcard.ledger.enabled", havingValue = "true")
+public class LedgerController {
+
+  private final BalanceLedger ledger;
+
+  @GetMapping("/{creditcard_id}/ledger/balance")
+  public Mono<ResponseEntity<LedgerBalanceDTO>> findLedgerBalance(
+      @PathVariable("creditcard_id") String creditCardId) {
+    return ledger.balance(creditCardId)
+        .map(b -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(b))
+        .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+  @PostMapping("/admin/ledger/compact")
+  public Mono<ResponseEntity<JobRun>> compactLedger() {
+    return ledger.compactAll()
+        .map(run -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(run))
+        .defaultIfEmpty(ResponseEntity.status(HttpStatus.CONFLICT).build());
+  }
+
+  @PostMapping("/admin/ledger/verify")
+  public Mono<ResponseEntity<LedgerVerificationDTO>> verifyLedger() {
+    return ledger.verify()
+        .map(report -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(report));
+  }
+}
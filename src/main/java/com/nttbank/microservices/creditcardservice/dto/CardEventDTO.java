@@ -0,0 +1,34 @@
+package com.nttbank.microservices.creditcardservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Change of a credit card pushed to its event subscribers. A {@code balance} event carries the
+ * card fields that changed; a {@code transaction} event carries the movement recorded.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CardEventDTO {
+
+  public static final String BALANCE = "balance";
+  public static final String TRANSACTION = "transaction";
+
+  private String type;
+  private String creditCardId;
+  private Money currentBalance;
+  private Money heldAmount;
+  private String status;
+  private CreditCardTransactions transaction;
+  private LocalDateTime occurredAt;
+
+}
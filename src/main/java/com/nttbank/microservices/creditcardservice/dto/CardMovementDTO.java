@@ -0,0 +1,22 @@
+package com.nttbank.microservices.creditcardservice.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A single charge or payment submitted through the batch movements endpoint.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CardMovementDTO {
+
+  private String creditCardId;
+  private String type;
+  private BigDecimal amount;
+
+}
@@ -0,0 +1,34 @@
+package com.nttbank.microservices.creditcardservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one movement of a batch. {@code index} is the position of the movement in the
+ * submitted batch.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CardMovementResultDTO {
+
+  public static final String APPLIED = "applied";
+  public static final String REJECTED = "rejected";
+  public static final String NOT_FOUND = "not_found";
+
+  private long index;
+  private String creditCardId;
+  private String type;
+  private BigDecimal amount;
+  private String result;
+  private String message;
+  private Money balanceAfterMovement;
+
+}
@@ -0,0 +1,28 @@
+package com.nttbank.microservices.creditcardservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Balance of a card derived from its ledger: the latest snapshot plus the movements folded after
+ * it. {@code snapshotAt} is absent when no snapshot exists yet.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LedgerBalanceDTO {
+
+  private String creditCardId;
+  private Money balance;
+  private Money storedBalance;
+  private LocalDateTime snapshotAt;
+  private long movementsFolded;
+
+}
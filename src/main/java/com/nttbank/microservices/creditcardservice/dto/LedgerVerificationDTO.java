@@ -0,0 +1,41 @@
+package com.nttbank.microservices.creditcardservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a ledger verification run. Only the first mismatches found are listed.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LedgerVerificationDTO {
+
+  public static final String SNAPSHOT = "snapshot";
+  public static final String CARD = "card";
+
+  private long cardsChecked;
+  private long cardsMismatched;
+  private List<Mismatch> mismatches;
+
+  /**
+   * A ledger entry whose balance does not follow from the movements before it.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param kind the entry kind: {@code snapshot} or {@code card}.
+   * @param entryId the snapshot or card identifier.
+   * @param expected the balance derived from the ledger.
+   * @param actual the balance stored on the entry.
+   */
+  public record Mismatch(String creditCardId, String kind, String entryId, Money expected,
+      Money actual) {
+
+  }
+}
@@ -0,0 +1,24 @@
+package com.nttbank.microservices.creditcardservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of a credit card transaction history. {@code nextCursor} is absent on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionPageDTO {
+
+  private List<CreditCardTransactions> transactions;
+  private String nextCursor;
+
+}
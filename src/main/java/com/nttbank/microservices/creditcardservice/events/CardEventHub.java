@@ -0,0 +1,252 @@
+package com.nttbank.microservices.creditcardservice.events;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import com.nttbank.microservices.creditcardservice.dto.CardEventDTO;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+/**
+ * Pushes credit card changes to subscribers of single cards. One change stream, opened on the
+ * database and filtered to the 'credit_cards' and 'creditcard_transactions' collections, feeds
+ * every subscriber of this instance: each change is routed to the multicast sink of its card, and
+ * a card has a sink only while someone subscribes to it. Every subscriber reads through its own
+ * bounded buffer that drops its oldest events when the client falls behind, so a slow client
+ * never holds back the stream or the other subscribers. Card updates are read from the update
+ * description, without looking up the full document. Requires MongoDB to run as a replica set.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "creditcard.events.enabled", havingValue = "true")
+public class CardEventHub implements DisposableBean {
+
+  private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final int bufferSize;
+  private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+  private final AtomicInteger subscribers = new AtomicInteger();
+  private final Counter dropped;
+  private volatile BsonValue resumeToken;
+  private Disposable subscription;
+
+  public CardEventHub(ReactiveMongoTemplate mongoTemplate, MeterRegistry registry,
+      @Value("${creditcard.events.buffer-size:32}") int bufferSize) {
+    this.mongoTemplate = mongoTemplate;
+    this.bufferSize = bufferSize;
+    this.dropped = Counter.builder("creditcard.events.dropped")
+        .description("Card events dropped for subscribers that fell behind")
+        .register(registry);
+    Gauge.builder("creditcard.events.subscribers", subscribers, AtomicInteger::get)
+        .description("Open card event subscriptions")
+        .register(registry);
+    Gauge.builder("creditcard.events.cards", channels, Map::size)
+        .description("Cards with at least one event subscriber")
+        .register(registry);
+  }
+
+  /**
+   * Subscribes to the changes of a card. The subscription is registered when the returned flux is
+   * subscribed and removed when it is cancelled.
+   *
+   * @param creditCardId the card identifier.
+   * @return the changes of the card, never completing.
+   */
+  public Flux<CardEventDTO> subscribe(String creditCardId) {
+    return Flux.defer(() -> {
+      Channel channel = channels.compute(creditCardId, (id, c) -> {
+        Channel current = c != null ? c : new Channel();
+        current.subscribers++;
+        return current;
+      });
+      subscribers.incrementAndGet();
+      return channel.sink.asFlux()
+          .onBackpressureBuffer(bufferSize, event -> dropped.increment(),
+              BufferOverflowStrategy.DROP_OLDEST)
+          .doFinally(signal -> {
+            subscribers.decrementAndGet();
+            channels.computeIfPresent(creditCardId,
+                (id, c) -> --c.subscribers == 0 ? null : c);
+          });
+    });
+  }
+
+  /**
+   * Routes an event to the subscribers of its card, if any. Called from the change stream only, so
+   * emissions into a sink are never concurrent.
+   *
+   * @param event the event.
+   */
+  void publish(CardEventDTO event) {
+    Channel channel = channels.get(event.getCreditCardId());
+    if (channel != null) {
+      channel.sink.tryEmitNext(event);
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    String cards = mongoTemplate.getCollectionName(CreditCard.class);
+    String transactions = mongoTemplate.getCollectionName(CreditCardTransactions.class);
+    Aggregation filter = Aggregation.newAggregation(Aggregation.match(
+        Criteria.where("ns.coll").in(cards, transactions)
+            .and("operationType").in("insert", "update", "replace")));
+    subscription = Flux.defer(() -> {
+          ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder()
+              .filter(filter);
+          if (resumeToken != null) {
+            options.resumeAfter(resumeToken);
+          }
+          return mongoTemplate.changeStream(null, options.build(), Document.class);
+        })
+        .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+            .maxBackoff(Duration.ofMinutes(1))
+            .doBeforeRetry(signal -> {
+              if (isHistoryLost(signal.failure())) {
+                resumeToken = null;
+              }
+              log.warn("Restarting card event change stream.", signal.failure());
+            }))
+        .subscribe(event -> {
+          resumeToken = event.getResumeToken();
+          CardEventDTO cardEvent = cards.equals(event.getCollectionName())
+              ? toBalanceEvent(event.getRaw())
+              : toTransactionEvent(event);
+          if (cardEvent != null) {
+            publish(cardEvent);
+          }
+        }, error -> log.error("Card event change stream terminated.", error));
+    log.info("Listening to '{}' and '{}' changes for card events.", cards, transactions);
+  }
+
+  @Override
+  public void destroy() {
+    if (subscription != null) {
+      subscription.dispose();
+    }
+    channels.values().forEach(c -> c.sink.tryEmitComplete());
+  }
+
+  private static CardEventDTO toBalanceEvent(ChangeStreamDocument<Document> change) {
+    BsonDocument key = change.getDocumentKey();
+    BsonValue id = key != null ? key.get("_id") : null;
+    if (id == null) {
+      return null;
+    }
+    CardEventDTO.CardEventDTOBuilder event = CardEventDTO.builder()
+        .type(CardEventDTO.BALANCE)
+        .creditCardId(id.isObjectId() ? id.asObjectId().getValue().toHexString()
+            : id.asString().getValue());
+    Document card = change.getFullDocument();
+    UpdateDescription update = change.getUpdateDescription();
+    if (card != null) {
+      return event.currentBalance(money(card.get("currentBalance")))
+          .heldAmount(money(card.get("heldAmount")))
+          .status(card.getString("status"))
+          .occurredAt(dateTime(card.get("updatedAt")))
+          .build();
+    }
+    BsonDocument fields = update != null ? update.getUpdatedFields() : null;
+    if (fields == null || !(fields.containsKey("currentBalance")
+        || fields.containsKey("heldAmount") || fields.containsKey("status"))) {
+      return null;
+    }
+    BsonValue status = fields.get("status");
+    return event.currentBalance(money(fields.get("currentBalance")))
+        .heldAmount(money(fields.get("heldAmount")))
+        .status(status != null && status.isString() ? status.asString().getValue() : null)
+        .occurredAt(dateTime(fields.get("updatedAt")))
+        .build();
+  }
+
+  private CardEventDTO toTransactionEvent(ChangeStreamEvent<Document> change) {
+    Document body = change.getBody();
+    if (body == null) {
+      return null;
+    }
+    CreditCardTransactions transaction = mongoTemplate.getConverter()
+        .read(CreditCardTransactions.class, body);
+    return CardEventDTO.builder()
+        .type(CardEventDTO.TRANSACTION)
+        .creditCardId(transaction.getCreditCardId())
+        .currentBalance(transaction.getBalanceAfterMovement())
+        .transaction(transaction)
+        .occurredAt(transaction.getCreatedAt())
+        .build();
+  }
+
+  private static Money money(Object value) {
+    if (value instanceof Decimal128 decimal) {
+      return Money.rounded(decimal.bigDecimalValue());
+    }
+    if (value instanceof BsonValue bson && bson.isNumber()) {
+      return Money.rounded(bson.asNumber().decimal128Value().bigDecimalValue());
+    }
+    return null;
+  }
+
+  private static LocalDateTime dateTime(Object value) {
+    Instant instant = null;
+    if (value instanceof Date date) {
+      instant = date.toInstant();
+    } else if (value instanceof BsonValue bson && bson.isDateTime()) {
+      instant = Instant.ofEpochMilli(bson.asDateTime().getValue());
+    }
+    return instant != null ? LocalDateTime.ofInstant(instant, ZoneId.systemDefault())
+        : LocalDateTime.now();
+  }
+
+  private static boolean isHistoryLost(Throwable failure) {
+    for (Throwable t = failure; t != null; t = t.getCause()) {
+      if (t instanceof MongoCommandException e
+          && e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Sink of one card and its subscriber count, which is only changed inside the map's compute
+   * functions.
+   */
+  private static final class Channel {
+
+    private final Sinks.Many<CardEventDTO> sink = Sinks.many().multicast().directBestEffort();
+    private int subscribers;
+  }
+}
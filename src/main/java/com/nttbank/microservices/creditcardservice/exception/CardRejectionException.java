@@ -0,0 +1,61 @@
+package com.nttbank.microservices.creditcardservice.exception;
+
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Business rejection of a card movement. Rejections are expected outcomes, not faults, so each
+ * kind is a shared instance without stack trace or suppressed exceptions, and carries its status,
+ * error code and the JSON response body serialized up to the request path, which
+ * {@link WebExceptionHandler} completes and writes without building an error map.
+ */
+public abstract class CardRejectionException extends RuntimeException {
+
+  private final HttpStatus status;
+  private final String code;
+  private final ErrorBody body;
+
+  protected CardRejectionException(HttpStatus status, String code, String reason) {
+    super(reason, null, false, false);
+    this.status = status;
+    this.code = code;
+    this.body = new ErrorBody(code, reason);
+  }
+
+  /**
+   * Returns the rejection with the given reason, used to replay stored outcomes.
+   *
+   * @param reason the rejection message.
+   * @return the rejection, or null if the reason is not a card rejection.
+   */
+  public static CardRejectionException forReason(String reason) {
+    if (Constants.INSUFFICIENT_FUNDS_MESSAGE.equals(reason)) {
+      return InsufficientFundsException.INSTANCE;
+    }
+    if (Constants.OVER_PAYMENT_MESSAGE.equals(reason)) {
+      return OverPaymentException.INSTANCE;
+    }
+    return null;
+  }
+
+  public HttpStatus getStatus() {
+    return status;
+  }
+
+  public String getCode() {
+    return code;
+  }
+
+  /**
+   * Writes the response body of this rejection for a request path.
+   *
+   * @param bufferFactory the response buffer factory.
+   * @param path the request path.
+   * @return the body.
+   */
+  public DataBuffer body(DataBufferFactory bufferFactory, String path) {
+    return body.write(bufferFactory, path);
+  }
+}
@@ -0,0 +1,46 @@
+package com.nttbank.microservices.creditcardservice.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import java.nio.charset.StandardCharsets;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+
+/**
+ * JSON error response body in the shape {@link WebExceptionHandler} renders, serialized once up to
+ * the request path, for errors answered on a hot path.
+ */
+public final class ErrorBody {
+
+  private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+  private final byte[] prefix;
+
+  /**
+   * Serializes a body.
+   *
+   * @param code the error code.
+   * @param reason the error message.
+   */
+  public ErrorBody(String code, String reason) {
+    this.prefix = ("{\"" + Constants.ERROR_KEY + "\":\"Invalid request\",\"code\":\"" + code
+        + "\",\"" + Constants.MESSAGE_KEY + "\":\""
+        + new String(JsonStringEncoder.getInstance().quoteAsString(reason)) + "\",\""
+        + Constants.PATH_KEY + "\":\"").getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes the body for a request path.
+   *
+   * @param bufferFactory the response buffer factory.
+   * @param path the request path.
+   * @return the body.
+   */
+  public DataBuffer write(DataBufferFactory bufferFactory, String path) {
+    byte[] quotedPath = JsonStringEncoder.getInstance().quoteAsUTF8(path);
+    return bufferFactory.allocateBuffer(prefix.length + quotedPath.length + SUFFIX.length)
+        .write(prefix)
+        .write(quotedPath)
+        .write(SUFFIX);
+  }
+}
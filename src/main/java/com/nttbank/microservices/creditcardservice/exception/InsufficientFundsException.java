@@ -0,0 +1,16 @@
+package com.nttbank.microservices.creditcardservice.exception;
+
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import org.springframework.http.HttpStatus;
+
+/**
+ * A charge rejected because the card's balance does not cover it.
+ */
+public final class InsufficientFundsException extends CardRejectionException {
+
+  public static final InsufficientFundsException INSTANCE = new InsufficientFundsException();
+
+  private InsufficientFundsException() {
+    super(HttpStatus.BAD_REQUEST, "insufficient_funds", Constants.INSUFFICIENT_FUNDS_MESSAGE);
+  }
+}
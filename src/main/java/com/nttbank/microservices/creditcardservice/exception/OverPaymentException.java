@@ -0,0 +1,16 @@
+package com.nttbank.microservices.creditcardservice.exception;
+
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import org.springframework.http.HttpStatus;
+
+/**
+ * A payment rejected because it would take the balance above the credit limit.
+ */
+public final class OverPaymentException extends CardRejectionException {
+
+  public static final OverPaymentException INSTANCE = new OverPaymentException();
+
+  private OverPaymentException() {
+    super(HttpStatus.BAD_REQUEST, "over_payment", Constants.OVER_PAYMENT_MESSAGE);
+  }
+}
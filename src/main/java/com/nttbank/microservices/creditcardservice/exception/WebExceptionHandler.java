@@ -16,6 +16,7 @@ import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.support.WebExchangeBindException;
 import org.springframework.web.reactive.function.server.RequestPredicates;
@@ -24,13 +25,15 @@ import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 /**
  * A custom exception handler for handling various types of errors in a reactive Spring WebFlux
  * application. It extends the {@link AbstractErrorWebExceptionHandler} to provide custom error
  * handling logic for validation errors, illegal arguments, and other exceptions, formatting the
- * errors in a consistent response format.
+ * errors in a consistent response format. Card rejections skip the routing and error attribute
+ * machinery and are written from their pre-serialized body.
  */
 @Component
 @Order(-1)
@@ -42,6 +45,18 @@ public class WebExceptionHandler extends AbstractErrorWebExceptionHandler {
     this.setMessageWriters(configure.getWriters());
   }
 
+  @Override
+  public Mono<Void> handle(ServerWebExchange exchange, Throwable throwable) {
+    ServerHttpResponse response = exchange.getResponse();
+    if (throwable instanceof CardRejectionException rejection && !response.isCommitted()) {
+      response.setStatusCode(rejection.getStatus());
+      response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+      return response.writeWith(Mono.just(rejection.body(response.bufferFactory(),
+          exchange.getRequest().getPath().pathWithinApplication().value())));
+    }
+    return super.handle(exchange, throwable);
+  }
+
   @Override
   protected RouterFunction<ServerResponse> getRoutingFunction(ErrorAttributes errorAttributes) {
     return RouterFunctions.route(RequestPredicates.all(),
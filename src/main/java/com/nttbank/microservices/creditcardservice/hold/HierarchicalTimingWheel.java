@@ -0,0 +1,199 @@
+package com.nttbank.microservices.creditcardservice.hold;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Each level is a ring of buckets one tick wide; deadlines beyond the
+ * span of a level go to a coarser overflow level whose tick is that whole span, created on
+ * demand. Scheduling and cancelling are O(1). Advancing visits one bucket per elapsed tick of each
+ * level, and an entry cascades at most once per level on its way to the finest one, so the cost
+ * per entry does not depend on how many are outstanding. Entries fire in the tick that contains
+ * their deadline, possibly before it within that tick. Not thread-safe.
+ *
+ * @param <T> the scheduled items.
+ */
+public final class HierarchicalTimingWheel<T> {
+
+  private final long tickMillis;
+  private final int wheelSize;
+  private final long intervalMillis;
+  private final Bucket<T>[] buckets;
+  private long currentTime;
+  private HierarchicalTimingWheel<T> overflow;
+  private int size;
+
+  /**
+   * Creates a wheel.
+   *
+   * @param tickMillis the width of a bucket of the finest level.
+   * @param wheelSize the number of buckets per level.
+   * @param startMillis the current time.
+   */
+  @SuppressWarnings("unchecked")
+  public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+    this.tickMillis = tickMillis;
+    this.wheelSize = wheelSize;
+    this.intervalMillis = tickMillis * wheelSize;
+    this.currentTime = startMillis - startMillis % tickMillis;
+    this.buckets = new Bucket[wheelSize];
+    for (int i = 0; i < wheelSize; i++) {
+      buckets[i] = new Bucket<>();
+    }
+  }
+
+  /**
+   * Schedules an item.
+   *
+   * @param item the item.
+   * @param deadlineMillis the time at which the item is due.
+   * @return the handle to cancel the item with, or null if it is already due.
+   */
+  public Timeout<T> schedule(T item, long deadlineMillis) {
+    Timeout<T> timeout = new Timeout<>(item, deadlineMillis);
+    if (!place(timeout)) {
+      return null;
+    }
+    size++;
+    return timeout;
+  }
+
+  /**
+   * Cancels a scheduled item.
+   *
+   * @param timeout the handle returned when scheduling it.
+   * @return true if the item was still scheduled.
+   */
+  public boolean cancel(Timeout<T> timeout) {
+    if (timeout.bucket == null) {
+      return false;
+    }
+    timeout.bucket.remove(timeout);
+    size--;
+    return true;
+  }
+
+  /**
+   * Moves the wheel to the given time and hands every item that became due to the consumer.
+   *
+   * @param nowMillis the current time.
+   * @param expired receives the due items.
+   */
+  public void advance(long nowMillis, Consumer<T> expired) {
+    List<Timeout<T>> drained = new ArrayList<>();
+    drain(nowMillis, drained);
+    for (Timeout<T> timeout : drained) {
+      if (!place(timeout)) {
+        size--;
+        expired.accept(timeout.item);
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private boolean place(Timeout<T> timeout) {
+    if (timeout.deadline < currentTime + tickMillis) {
+      return false;
+    }
+    if (timeout.deadline < currentTime + intervalMillis) {
+      buckets[(int) ((timeout.deadline / tickMillis) % wheelSize)].add(timeout);
+      return true;
+    }
+    if (overflow == null) {
+      overflow = new HierarchicalTimingWheel<>(intervalMillis, wheelSize, currentTime);
+    }
+    return overflow.place(timeout);
+  }
+
+  private void drain(long nowMillis, List<Timeout<T>> drained) {
+    long ticks = (nowMillis - currentTime) / tickMillis;
+    if (ticks >= wheelSize) {
+      for (Bucket<T> bucket : buckets) {
+        bucket.drainTo(drained);
+      }
+      currentTime += ticks * tickMillis;
+    } else {
+      for (long i = 0; i < ticks; i++) {
+        currentTime += tickMillis;
+        buckets[(int) ((currentTime / tickMillis) % wheelSize)].drainTo(drained);
+      }
+    }
+    if (overflow != null) {
+      overflow.drain(nowMillis, drained);
+    }
+  }
+
+  /**
+   * Handle of a scheduled item, linked into the bucket holding it.
+   *
+   * @param <T> the scheduled item.
+   */
+  public static final class Timeout<T> {
+
+    private final T item;
+    private final long deadline;
+    private Bucket<T> bucket;
+    private Timeout<T> prev;
+    private Timeout<T> next;
+
+    private Timeout(T item, long deadline) {
+      this.item = item;
+      this.deadline = deadline;
+    }
+
+    public T item() {
+      return item;
+    }
+
+    public long deadline() {
+      return deadline;
+    }
+  }
+
+  /**
+   * Doubly linked list of timeouts around a sentinel, so removal needs no search.
+   */
+  private static final class Bucket<T> {
+
+    private final Timeout<T> head = new Timeout<>(null, 0);
+
+    Bucket() {
+      head.prev = head;
+      head.next = head;
+    }
+
+    void add(Timeout<T> timeout) {
+      timeout.bucket = this;
+      timeout.prev = head.prev;
+      timeout.next = head;
+      head.prev.next = timeout;
+      head.prev = timeout;
+    }
+
+    void remove(Timeout<T> timeout) {
+      timeout.prev.next = timeout.next;
+      timeout.next.prev = timeout.prev;
+      timeout.prev = null;
+      timeout.next = null;
+      timeout.bucket = null;
+    }
+
+    void drainTo(List<Timeout<T>> drained) {
+      Timeout<T> timeout = head.next;
+      while (timeout != head) {
+        Timeout<T> next = timeout.next;
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = null;
+        drained.add(timeout);
+        timeout = next;
+      }
+      head.prev = head;
+      head.next = head;
+    }
+  }
+}
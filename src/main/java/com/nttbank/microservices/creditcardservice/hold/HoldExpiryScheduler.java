@@ -0,0 +1,183 @@
+package com.nttbank.microservices.creditcardservice.hold;
+
+import com.nttbank.microservices.creditcardservice.cache.CreditCardCache;
+import com.nttbank.microservices.creditcardservice.hold.HierarchicalTimingWheel.Timeout;
+import com.nttbank.microservices.creditcardservice.model.CardHold;
+import com.nttbank.microservices.creditcardservice.repo.ICardHoldRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.service.CreditCardService;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Expires authorization holds from an in-memory {@link HierarchicalTimingWheel} instead of
+ * polling MongoDB. Holds are scheduled when authorized and cancelled when captured or voided; on
+ * startup the wheel is rebuilt from the authorized holds in 'card_holds'. Every tick the due
+ * holds are expired in batches: one update moves a batch to expired and settling, one bulk write
+ * returns the held amounts to their cards and one update marks the batch settled. A rare sweep of
+ * the {@code (status, expiresAt)} index picks up holds scheduled by instances that stopped before
+ * expiring them, and finishes holds left pending or settling for longer than a grace period.
+ */
+@Slf4j
+@Component
+public class HoldExpiryScheduler implements DisposableBean {
+
+  private final ICardHoldRepo holdRepo;
+  private final ICreditCardRepo creditCardRepo;
+  private final CreditCardCache cache;
+  private final CreditCardService creditCardService;
+  private final Duration tick;
+  private final Duration sweepInterval;
+  private final Duration settleGrace;
+  private final int batchSize;
+  private final HierarchicalTimingWheel<String> wheel;
+  private final Map<String, Timeout<String>> timeouts = new ConcurrentHashMap<>();
+  private final Queue<String> due = new ConcurrentLinkedQueue<>();
+  private Disposable ticker;
+  private Disposable sweeper;
+
+  public HoldExpiryScheduler(ICardHoldRepo holdRepo, ICreditCardRepo creditCardRepo,
+      CreditCardCache cache, CreditCardService creditCardService,
+      @Value("${creditcard.holds.expiry.tick:1s}") Duration tick,
+      @Value("${creditcard.holds.expiry.wheel-size:512}") int wheelSize,
+      @Value("${creditcard.holds.expiry.sweep-interval:1h}") Duration sweepInterval,
+      @Value("${creditcard.holds.expiry.settle-grace:1m}") Duration settleGrace,
+      @Value("${creditcard.holds.expiry.batch-size:1000}") int batchSize) {
+    this.holdRepo = holdRepo;
+    this.creditCardRepo = creditCardRepo;
+    this.cache = cache;
+    this.creditCardService = creditCardService;
+    this.tick = tick;
+    this.sweepInterval = sweepInterval;
+    this.settleGrace = settleGrace;
+    this.batchSize = batchSize;
+    this.wheel = new HierarchicalTimingWheel<>(tick.toMillis(), wheelSize,
+        System.currentTimeMillis());
+  }
+
+  /**
+   * Schedules the expiry of an authorized hold. The deadline is rounded up by one tick, since the
+   * wheel may fire within the tick before it.
+   *
+   * @param hold the hold, with its identifier and expiry time.
+   */
+  public void schedule(CardHold hold) {
+    long deadline = hold.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+        + tick.toMillis();
+    synchronized (wheel) {
+      Timeout<String> timeout = wheel.schedule(hold.getId(), deadline);
+      if (timeout != null) {
+        timeouts.put(hold.getId(), timeout);
+      } else {
+        due.add(hold.getId());
+      }
+    }
+  }
+
+  /**
+   * Cancels the expiry of a hold that was captured or voided.
+   *
+   * @param holdId the hold identifier.
+   */
+  public void cancel(String holdId) {
+    synchronized (wheel) {
+      Timeout<String> timeout = timeouts.remove(holdId);
+      if (timeout != null) {
+        wheel.cancel(timeout);
+      }
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    holdRepo.streamAuthorized()
+        .doOnNext(this::schedule)
+        .count()
+        .subscribe(count -> log.info("Scheduled the expiry of {} authorized holds.", count),
+            error -> log.error("Rebuilding the hold expiry schedule failed.", error));
+    ticker = Flux.interval(tick, tick)
+        .onBackpressureDrop()
+        .concatMap(t -> expireDue())
+        .subscribe();
+    sweeper = Flux.interval(sweepInterval, sweepInterval)
+        .onBackpressureDrop()
+        .concatMap(t -> holdRepo.findOverdue(LocalDateTime.now().minus(tick), batchSize)
+            .doOnNext(hold -> {
+              cancel(hold.getId());
+              due.add(hold.getId());
+            })
+            .then(creditCardService.settleHolds(LocalDateTime.now().minus(settleGrace),
+                batchSize))
+            .then()
+            .onErrorResume(error -> {
+              log.warn("Sweeping overdue holds failed.", error);
+              return Mono.empty();
+            }))
+        .subscribe();
+  }
+
+  private Mono<Long> expireDue() {
+    List<String> holdIds = new ArrayList<>();
+    synchronized (wheel) {
+      wheel.advance(System.currentTimeMillis(), holdId -> {
+        timeouts.remove(holdId);
+        holdIds.add(holdId);
+      });
+    }
+    for (String holdId = due.poll(); holdId != null; holdId = due.poll()) {
+      holdIds.add(holdId);
+    }
+    if (holdIds.isEmpty()) {
+      return Mono.empty();
+    }
+    return Flux.fromIterable(holdIds)
+        .buffer(batchSize)
+        .concatMap(this::expireBatch)
+        .reduce(0L, Long::sum)
+        .doOnNext(count -> log.info("Expired {} of {} due holds.", count, holdIds.size()))
+        .onErrorResume(error -> {
+          // Holds left authorized or settling are picked up again by the sweep.
+          log.error("Expiring holds failed.", error);
+          return Mono.empty();
+        });
+  }
+
+  private Mono<Long> expireBatch(List<String> holdIds) {
+    return holdRepo.expire(holdIds, LocalDateTime.now())
+        .collectList()
+        .filter(expired -> !expired.isEmpty())
+        .flatMap(expired -> creditCardRepo.releaseHolds(expired)
+            .doOnSuccess(released -> expired.forEach(
+                hold -> cache.invalidate(hold.getCreditCardId())))
+            .then(holdRepo.markSettled(expired.stream().map(CardHold::getId).toList()))
+            .then(creditCardRepo.clearHoldMarkers(expired))
+            .thenReturn((long) expired.size()))
+        .defaultIfEmpty(0L);
+  }
+
+  @Override
+  public void destroy() {
+    if (ticker != null) {
+      ticker.dispose();
+    }
+    if (sweeper != null) {
+      sweeper.dispose();
+    }
+  }
+}
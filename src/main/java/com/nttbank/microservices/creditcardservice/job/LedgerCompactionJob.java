@@ -0,0 +1,29 @@
+package com.nttbank.microservices.creditcardservice.job;
+
+import com.nttbank.microservices.creditcardservice.ledger.BalanceLedger;
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Appends fresh balance snapshots so ledger lookups only fold the movements of the last day. The
+ * run is leased through {@link JobRun}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "creditcard.ledger.enabled", havingValue = "true")
+public class LedgerCompactionJob {
+
+  private final BalanceLedger ledger;
+
+  @Scheduled(cron = "${creditcard.ledger.compaction-cron:0 30 3 * * *}")
+  public void compact() {
+    ledger.compactAll()
+        .subscribe(run -> log.info("Ledger compaction run {} completed.", run.getId()),
+            error -> log.error("Ledger compaction run failed.", error));
+  }
+}
@@ -0,0 +1,30 @@
+package com.nttbank.microservices.creditcardservice.job;
+
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import com.nttbank.microservices.creditcardservice.service.MaintenanceFeeService;
+import java.time.YearMonth;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bills the monthly maintenance fee of the current period under a {@link JobRun} lease.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "creditcard.maintenance-fee.enabled", havingValue = "true",
+    matchIfMissing = true)
+public class MaintenanceFeeJob {
+
+  private final MaintenanceFeeService maintenanceFeeService;
+
+  @Scheduled(cron = "${creditcard.maintenance-fee.cron:0 0 2 1 * *}")
+  public void billCurrentPeriod() {
+    maintenanceFeeService.billMaintenanceFees(YearMonth.now())
+        .subscribe(run -> log.info("Maintenance fee run {} completed.", run.getId()),
+            error -> log.error("Maintenance fee run failed.", error));
+  }
+}
@@ -0,0 +1,29 @@
+package com.nttbank.microservices.creditcardservice.job;
+
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import com.nttbank.microservices.creditcardservice.service.ReconciliationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconciles the cards updated since the previous reconciliation run, under a {@link JobRun}
+ * lease.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "creditcard.reconciliation.enabled", havingValue = "true")
+public class ReconciliationJob {
+
+  private final ReconciliationService reconciliationService;
+
+  @Scheduled(cron = "${creditcard.reconciliation.cron:0 45 4 * * *}")
+  public void reconcileUpdatedCards() {
+    reconciliationService.reconcile(true)
+        .subscribe(run -> log.info("Reconciliation run {} completed.", run.getId()),
+            error -> log.error("Reconciliation run failed.", error));
+  }
+}
@@ -0,0 +1,44 @@
+package com.nttbank.microservices.creditcardservice.job;
+
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import com.nttbank.microservices.creditcardservice.service.StatementService;
+import java.time.LocalDate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates the statements of the cards whose statement day is today under a {@link JobRun}
+ * lease.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "creditcard.statements.enabled", havingValue = "true",
+    matchIfMissing = true)
+public class StatementJob {
+
+  private final StatementService statementService;
+
+  @Scheduled(cron = "${creditcard.statements.cron:0 15 0 * * *}")
+  public void generateTodayStatements() {
+    statementService.generateStatements(LocalDate.now())
+        .subscribe(run -> log.info("Statement run {} completed.", run.getId()),
+            error -> log.error("Statement run failed.", error));
+  }
+
+  /**
+   * Resumes the statement runs of past dates left unfinished by a stopped instance, without
+   * holding up startup; the schedule only ever starts the run of the current date.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void resumeUnfinishedRuns() {
+    statementService.resumeUnfinishedRuns()
+        .subscribe(run -> log.info("Statement run {} resumed and completed.", run.getId()),
+            error -> log.error("Resuming statement runs failed.", error));
+  }
+}
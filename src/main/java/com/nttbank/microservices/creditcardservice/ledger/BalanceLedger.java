@@ -0,0 +1,416 @@
+package com.nttbank.microservices.creditcardservice.ledger;
+
+import com.nttbank.microservices.creditcardservice.dto.LedgerBalanceDTO;
+import com.nttbank.microservices.creditcardservice.dto.LedgerVerificationDTO;
+import com.nttbank.microservices.creditcardservice.dto.LedgerVerificationDTO.Mismatch;
+import com.nttbank.microservices.creditcardservice.model.BalanceSnapshot;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.repo.IBalanceSnapshotRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.repo.IJobRunRepo;
+import com.nttbank.microservices.creditcardservice.repo.ITransactionArchiveRepo;
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import com.nttbank.microservices.creditcardservice.util.TransactionCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Append-only view of card balances. The transaction history is the ledger: every movement
+ * records its amount and the balance it left, and balance snapshots are appended to
+ * 'balance_snapshots' at ledger positions. The balance of a card is its latest snapshot plus the
+ * movements recorded after it, so a lookup reads only the movements since the last compaction.
+ * Compaction appends a new snapshot per card and runs daily under a run lease, and also in the
+ * background when a lookup folded more than {@code compaction-threshold} movements.
+ *
+ * <p>A movement's {@code createdAt} is set before it is inserted, and group commit or a slow
+ * insert can make it land after movements stamped later. A snapshot therefore only covers
+ * movements older than {@code snapshot-horizon}, by which time every insert stamped before them
+ * has landed; newer movements are folded on every lookup until a later compaction.</p>
+ *
+ * <p>The ledger of a card opens with the balance recorded when the card was opened. Cards opened
+ * before it was recorded, or whose oldest movements are archived, open with the balance their
+ * oldest live movement started from. Concurrent movements of a card may be stored in another
+ * order than they were applied in, so only sums of movements are trusted, never the balance a
+ * single movement recorded: the verifier walks each card's ledger in parallel and reports every
+ * snapshot whose balance is not the opening balance plus the movements up to its position, and
+ * every card whose stored {@code currentBalance} is not the opening balance plus all its
+ * movements.</p>
+ *
+ * <p>Enabled with {@code creditcard.ledger.enabled=true}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "creditcard.ledger.enabled", havingValue = "true")
+public class BalanceLedger {
+
+  private static final Set<String> CARD_FIELDS = Set.of("id", "currentBalance", "openingBalance",
+      "updatedAt");
+
+  private final ICreditCardRepo creditCardRepo;
+  private final ICreditCardTransactionRepo transactionRepo;
+  private final IBalanceSnapshotRepo snapshotRepo;
+  private final ITransactionArchiveRepo archiveRepo;
+  private final IJobRunRepo jobRunRepo;
+  private final String owner = UUID.randomUUID().toString();
+  private final int pageSize;
+  private final int compactionThreshold;
+  private final int batchSize;
+  private final int parallelism;
+  private final int maxReportedMismatches;
+  private final Duration leaseTimeout;
+  private final Duration snapshotHorizon;
+  private final Counter snapshots;
+  private final Counter mismatches;
+
+  public BalanceLedger(ICreditCardRepo creditCardRepo,
+      ICreditCardTransactionRepo transactionRepo, IBalanceSnapshotRepo snapshotRepo,
+      ITransactionArchiveRepo archiveRepo, IJobRunRepo jobRunRepo, MeterRegistry meterRegistry,
+      @Value("${creditcard.ledger.page-size:500}") int pageSize,
+      @Value("${creditcard.ledger.compaction-threshold:1000}") int compactionThreshold,
+      @Value("${creditcard.ledger.batch-size:500}") int batchSize,
+      @Value("${creditcard.ledger.parallelism:4}") int parallelism,
+      @Value("${creditcard.ledger.max-reported-mismatches:100}") int maxReportedMismatches,
+      @Value("${creditcard.ledger.lease-timeout:5m}") Duration leaseTimeout,
+      @Value("${creditcard.ledger.snapshot-horizon:5m}") Duration snapshotHorizon) {
+    this.creditCardRepo = creditCardRepo;
+    this.transactionRepo = transactionRepo;
+    this.snapshotRepo = snapshotRepo;
+    this.archiveRepo = archiveRepo;
+    this.jobRunRepo = jobRunRepo;
+    this.pageSize = pageSize;
+    this.compactionThreshold = compactionThreshold;
+    this.batchSize = batchSize;
+    this.parallelism = parallelism;
+    this.maxReportedMismatches = maxReportedMismatches;
+    this.leaseTimeout = leaseTimeout;
+    this.snapshotHorizon = snapshotHorizon;
+    this.snapshots = Counter.builder("creditcard.ledger.snapshots")
+        .description("Balance snapshots appended")
+        .register(meterRegistry);
+    this.mismatches = Counter.builder("creditcard.ledger.mismatches")
+        .description("Ledger entries found inconsistent by the verifier")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Derives the balance of a card from its latest snapshot and the movements after it.
+   *
+   * @param creditCardId the credit card identifier.
+   * @return the ledger balance, or empty if the card does not exist.
+   */
+  public Mono<LedgerBalanceDTO> balance(String creditCardId) {
+    return creditCardRepo.findById(creditCardId)
+        .flatMap(card -> fold(card)
+            .doOnNext(fold -> {
+              if (fold.settled.folded >= compactionThreshold) {
+                appendSnapshot(fold).subscribe(null,
+                    e -> log.warn("Background compaction of {} failed.", creditCardId, e));
+              }
+            })
+            .map(fold -> LedgerBalanceDTO.builder()
+                .creditCardId(creditCardId)
+                .balance(fold.balance != null ? fold.balance : card.getCurrentBalance())
+                .storedBalance(card.getCurrentBalance())
+                .snapshotAt(fold.snapshotAt)
+                .movementsFolded(fold.folded)
+                .build()));
+  }
+
+  /**
+   * Appends a snapshot for every card with movements after its latest snapshot, under a
+   * {@link JobRun} lease.
+   *
+   * @return the completed run, or empty if another instance owns it or it already completed.
+   */
+  public Mono<JobRun> compactAll() {
+    String runId = "ledger-compaction:" + LocalDate.now();
+    return jobRunRepo.claim(runId, owner, leaseTimeout)
+        .flatMap(run -> {
+          long started = System.nanoTime();
+          return creditCardRepo.streamAll(null, null, CARD_FIELDS, run.getCheckpoint())
+              .buffer(batchSize)
+              .flatMapSequential(batch -> Flux.fromIterable(batch)
+                  .concatMap(card -> fold(card)
+                      .filter(fold -> fold.settled.folded > 0)
+                      .flatMap(this::appendSnapshot))
+                  .then()
+                  .thenReturn(batch), parallelism)
+              .concatMap(batch -> jobRunRepo.checkpoint(runId, owner,
+                      batch.get(batch.size() - 1).getId(), batch.size())
+                  .thenReturn(batch.size()))
+              .reduce(0L, Long::sum)
+              .flatMap(cards -> {
+                double seconds = Math.max(1e-3, (System.nanoTime() - started) / 1e9);
+                log.info("Compacted the ledger of {} cards ({} cards/s).", cards,
+                    Math.round(cards / seconds));
+                return jobRunRepo.complete(runId, owner, cards / seconds);
+              });
+        });
+  }
+
+  /**
+   * Verifies the ledger of every card, several cards at a time. A card modified within
+   * {@code snapshot-horizon} of the run start, or after it, is not compared with its stored
+   * balance, since the movement of the change may not be inserted yet, or the ledger read may
+   * predate it.
+   *
+   * @return the verification report.
+   */
+  public Mono<LedgerVerificationDTO> verify() {
+    LocalDateTime started = LocalDateTime.now();
+    return creditCardRepo.streamAll(null, null, CARD_FIELDS, null)
+        .flatMap(card -> verify(card, started), parallelism)
+        .reduce(LedgerVerificationDTO.builder().mismatches(new ArrayList<>()).build(),
+            (report, found) -> {
+              report.setCardsChecked(report.getCardsChecked() + 1);
+              if (!found.isEmpty()) {
+                report.setCardsMismatched(report.getCardsMismatched() + 1);
+                mismatches.increment(found.size());
+                found.stream()
+                    .limit(Math.max(0, maxReportedMismatches - report.getMismatches().size()))
+                    .forEach(report.getMismatches()::add);
+              }
+              return report;
+            })
+        .doOnNext(report -> log.info("Verified the ledger of {} cards, {} inconsistent.",
+            report.getCardsChecked(), report.getCardsMismatched()));
+  }
+
+  private Mono<Fold> fold(CreditCard card) {
+    LocalDateTime horizon = LocalDateTime.now().minus(snapshotHorizon);
+    return snapshotRepo
+        .findFirstByCreditCardIdOrderByLastCreatedAtDescLastTransactionIdDesc(card.getId())
+        .map(snapshot -> new Fold(snapshot, horizon))
+        .switchIfEmpty(Mono.defer(() -> opening(card)
+            .map(opening -> new Fold(card.getId(), opening, horizon))
+            .defaultIfEmpty(new Fold(card.getId(), null, horizon))))
+        .flatMap(start -> {
+          TransactionCursor from = start.settled.lastCreatedAt != null
+              ? new TransactionCursor(start.settled.lastCreatedAt,
+                  new ObjectId(start.settled.lastTransactionId))
+              : TransactionCursor.startingAt(Constants.HISTORY_START);
+          return transactionsAfter(card.getId(), from).reduce(start, Fold::apply);
+        });
+  }
+
+  /**
+   * Returns the balance a card was opened with, unless some of its movements are archived and so
+   * missing from the ledger.
+   */
+  private Mono<Money> opening(CreditCard card) {
+    if (card.getOpeningBalance() == null) {
+      return Mono.empty();
+    }
+    return archiveRepo.existsByCreditCardId(card.getId())
+        .filter(archived -> !archived)
+        .map(archived -> card.getOpeningBalance());
+  }
+
+  /**
+   * Appends a snapshot at the last movement older than the horizon the fold was taken with.
+   */
+  private Mono<BalanceSnapshot> appendSnapshot(Fold fold) {
+    Position settled = fold.settled;
+    return snapshotRepo.save(BalanceSnapshot.builder()
+            .creditCardId(fold.creditCardId)
+            .balance(settled.balance)
+            .transactionCount(settled.count)
+            .lastCreatedAt(settled.lastCreatedAt)
+            .lastTransactionId(settled.lastTransactionId)
+            .takenAt(LocalDateTime.now())
+            .build())
+        .doOnNext(saved -> snapshots.increment());
+  }
+
+  private Mono<List<Mismatch>> verify(CreditCard card, LocalDateTime started) {
+    LocalDateTime settledBefore = started.minus(snapshotHorizon);
+    return snapshotRepo.findByCreditCardIdOrderByLastCreatedAtAscLastTransactionIdAsc(card.getId())
+        .collectList()
+        .zipWith(opening(card).map(Optional::of).defaultIfEmpty(Optional.empty()))
+        .flatMap(found -> transactionsAfter(card.getId(),
+                TransactionCursor.startingAt(Constants.HISTORY_START))
+            .reduce(new Verification(card.getId(), found.getT1(), found.getT2().orElse(null)),
+                Verification::apply))
+        .map(verification -> {
+          boolean settled = card.getUpdatedAt() == null
+              || card.getUpdatedAt().isBefore(settledBefore);
+          if (verification.balance != null && settled
+              && verification.balance.compareTo(card.getCurrentBalance()) != 0) {
+            verification.mismatch(LedgerVerificationDTO.CARD, card.getId(),
+                verification.balance, card.getCurrentBalance());
+          }
+          return verification.found;
+        });
+  }
+
+  /**
+   * Streams the movements of a card after a ledger position, page by page in
+   * {@code (createdAt, _id)} order.
+   */
+  private Flux<CreditCardTransactions> transactionsAfter(String creditCardId,
+      TransactionCursor from) {
+    return page(creditCardId, from)
+        .expand(page -> page.size() < pageSize ? Mono.empty()
+            : page(creditCardId, TransactionCursor.after(page.get(page.size() - 1))))
+        .flatMapIterable(Function.identity());
+  }
+
+  private Mono<List<CreditCardTransactions>> page(String creditCardId, TransactionCursor from) {
+    return transactionRepo.findPageByCreditCardId(creditCardId, Constants.HISTORY_END,
+        from.createdAt(), from.id(), pageSize).collectList();
+  }
+
+  /**
+   * Returns the balance a movement started from, by its own record; only trusted for the oldest
+   * movement of a ledger without a recorded opening balance.
+   */
+  private static Money before(CreditCardTransactions transaction) {
+    return transaction.getBalanceAfterMovement() != null
+        ? transaction.getBalanceAfterMovement().subtract(delta(transaction))
+        : Money.ZERO;
+  }
+
+  private static Money delta(CreditCardTransactions transaction) {
+    return Constants.PAYMENT.equals(transaction.getType())
+        ? transaction.getAmount()
+        : transaction.getAmount().negate();
+  }
+
+  private static int compare(BalanceSnapshot snapshot, CreditCardTransactions transaction) {
+    int byTime = snapshot.getLastCreatedAt().compareTo(transaction.getCreatedAt());
+    return byTime != 0 ? byTime
+        : snapshot.getLastTransactionId().compareTo(transaction.getId());
+  }
+
+  /**
+   * Running balance of a card's ledger, from its latest snapshot or its opening balance.
+   * {@code settled} stops at the last movement older than the horizon, the position a snapshot may
+   * be appended at.
+   */
+  private static final class Fold {
+
+    private final String creditCardId;
+    private final LocalDateTime snapshotAt;
+    private final LocalDateTime horizon;
+    private final Position settled;
+    private Money balance;
+    private long folded;
+
+    Fold(String creditCardId, Money opening, LocalDateTime horizon) {
+      this.creditCardId = creditCardId;
+      this.snapshotAt = null;
+      this.horizon = horizon;
+      this.balance = opening;
+      this.settled = new Position(opening, 0, null, null);
+    }
+
+    Fold(BalanceSnapshot snapshot, LocalDateTime horizon) {
+      this.creditCardId = snapshot.getCreditCardId();
+      this.snapshotAt = snapshot.getTakenAt();
+      this.horizon = horizon;
+      this.balance = snapshot.getBalance();
+      this.settled = new Position(snapshot.getBalance(), snapshot.getTransactionCount(),
+          snapshot.getLastCreatedAt(), snapshot.getLastTransactionId());
+    }
+
+    Fold apply(CreditCardTransactions transaction) {
+      if (balance == null) {
+        balance = before(transaction);
+      }
+      balance = balance.add(delta(transaction));
+      folded++;
+      if (transaction.getCreatedAt().isBefore(horizon)) {
+        settled.advance(balance, transaction);
+      }
+      return this;
+    }
+  }
+
+  /**
+   * Ledger position a snapshot can be taken at: the balance after a movement, the number of
+   * movements up to it and the movement's {@code (createdAt, _id)}.
+   */
+  private static final class Position {
+
+    private Money balance;
+    private long count;
+    private long folded;
+    private LocalDateTime lastCreatedAt;
+    private String lastTransactionId;
+
+    Position(Money balance, long count, LocalDateTime lastCreatedAt, String lastTransactionId) {
+      this.balance = balance;
+      this.count = count;
+      this.lastCreatedAt = lastCreatedAt;
+      this.lastTransactionId = lastTransactionId;
+    }
+
+    void advance(Money balance, CreditCardTransactions transaction) {
+      this.balance = balance;
+      count++;
+      folded++;
+      lastCreatedAt = transaction.getCreatedAt();
+      lastTransactionId = transaction.getId();
+    }
+  }
+
+  /**
+   * Walk of a card's ledger summing its movements from the opening balance, and checking each
+   * snapshot against the sum at its position.
+   */
+  private static final class Verification {
+
+    private final String creditCardId;
+    private final List<BalanceSnapshot> snapshots;
+    private final List<Mismatch> found = new ArrayList<>();
+    private int nextSnapshot;
+    private Money balance;
+
+    Verification(String creditCardId, List<BalanceSnapshot> snapshots, Money opening) {
+      this.creditCardId = creditCardId;
+      this.snapshots = snapshots;
+      this.balance = opening;
+    }
+
+    Verification apply(CreditCardTransactions transaction) {
+      if (balance == null) {
+        balance = before(transaction);
+      }
+      balance = balance.add(delta(transaction));
+      while (nextSnapshot < snapshots.size()
+          && compare(snapshots.get(nextSnapshot), transaction) <= 0) {
+        BalanceSnapshot snapshot = snapshots.get(nextSnapshot++);
+        if (compare(snapshot, transaction) == 0
+            && snapshot.getBalance().compareTo(balance) != 0) {
+          mismatch(LedgerVerificationDTO.SNAPSHOT, snapshot.getId(), balance,
+              snapshot.getBalance());
+        }
+      }
+      return this;
+    }
+
+    void mismatch(String kind, String entryId, Money expected, Money actual) {
+      found.add(new Mismatch(creditCardId, kind, entryId, expected, actual));
+    }
+  }
+}
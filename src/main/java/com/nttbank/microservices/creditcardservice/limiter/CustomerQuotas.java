@@ -0,0 +1,58 @@
+package com.nttbank.microservices.creditcardservice.limiter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+
+/**
+ * Per-customer token buckets. Each customer gets {@code burst} tokens that refill at
+ * {@code ratePerSecond}; a request takes one token. Buckets of customers idle for ten minutes
+ * are dropped and start full again.
+ */
+public class CustomerQuotas {
+
+  private final double ratePerNano;
+  private final double burst;
+  private final Cache<String, TokenBucket> buckets;
+
+  public CustomerQuotas(double ratePerSecond, int burst, long maximumCustomers) {
+    this.ratePerNano = ratePerSecond / 1_000_000_000d;
+    this.burst = burst;
+    this.buckets = Caffeine.newBuilder()
+        .maximumSize(maximumCustomers)
+        .expireAfterAccess(Duration.ofMinutes(10))
+        .build();
+  }
+
+  /**
+   * Takes a token from the customer's bucket.
+   *
+   * @param customerId the customer identifier.
+   * @return true if the customer is within its quota.
+   */
+  public boolean tryAcquire(String customerId) {
+    return buckets.get(customerId, id -> new TokenBucket(burst, System.nanoTime()))
+        .tryConsume(System.nanoTime(), ratePerNano, burst);
+  }
+
+  private static final class TokenBucket {
+
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double tokens, long now) {
+      this.tokens = tokens;
+      this.refilledAt = now;
+    }
+
+    synchronized boolean tryConsume(long now, double ratePerNano, double burst) {
+      tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerNano);
+      refilledAt = now;
+      if (tokens < 1) {
+        return false;
+      }
+      tokens -= 1;
+      return true;
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package com.nttbank.microservices.creditcardservice.limiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit driven by the gradient between the no-load latency, the lowest
+ * latency sampled over a recent window, and a short-term average of the request latency. The
+ * no-load latency is what a request costs when nothing queues, so it does not drift up with the
+ * load the way a long-term average does. While the short-term average stays within
+ * {@code tolerance} of it, the limit grows by about its square root per sample, as long as the
+ * estimated queue, {@code limit * (1 - noLoad / shortTerm)}, is below that square root; once
+ * requests queue beyond that the limit holds, and once latency exceeds the tolerance the limit
+ * shrinks in proportion to the gradient. The limit moves at most once per no-load latency, so it
+ * sees the effect of one change before making the next, and every target is smoothed into it.
+ */
+public class GradientConcurrencyLimit {
+
+  private static final double SHORT_SMOOTHING = 0.1;
+  private static final double SMOOTHING = 0.2;
+  private static final int NO_LOAD_WINDOW = 500;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private volatile int limit;
+  private double shortRtt;
+  private double noLoadRtt;
+  private double previousWindowMin = Double.MAX_VALUE;
+  private double windowMin = Double.MAX_VALUE;
+  private int windowSamples;
+  private long nextUpdate;
+
+  /**
+   * Creates a limit.
+   *
+   * @param initialLimit the limit before any latency is sampled.
+   * @param minLimit the lowest limit.
+   * @param maxLimit the highest limit.
+   * @param tolerance how much the short-term latency may exceed the no-load one before the
+   *     limit shrinks, e.g. 1.5.
+   */
+  public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+      double tolerance) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.tolerance = tolerance;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  /**
+   * Takes a permit if fewer requests than the limit are in flight.
+   *
+   * @return true if the request may proceed; it must then call one of the release methods.
+   */
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Returns a permit and feeds the request latency into the limit.
+   *
+   * @param rttNanos the request latency in nanoseconds.
+   */
+  public void release(long rttNanos) {
+    sample(rttNanos, inFlight.getAndDecrement(), System.nanoTime());
+  }
+
+  /**
+   * Returns a permit without sampling, for requests that did not reach the protected work.
+   */
+  public void release() {
+    inFlight.decrementAndGet();
+  }
+
+  private synchronized void sample(long rttNanos, int inFlightAtEnd, long now) {
+    updateNoLoad(rttNanos);
+    shortRtt = shortRtt == 0 ? rttNanos : shortRtt + (rttNanos - shortRtt) * SHORT_SMOOTHING;
+    if (now - nextUpdate < 0) {
+      return;
+    }
+    if (inFlightAtEnd < limit / 2) {
+      // The limit is not what bounds the load, so the sample says nothing about it.
+      return;
+    }
+    nextUpdate = now + (long) noLoadRtt;
+    double ratio = noLoadRtt / shortRtt;
+    double gradient = Math.max(0.5, Math.min(1.0, tolerance * ratio));
+    double headroom = Math.sqrt(limit);
+    double target;
+    if (gradient < 1.0) {
+      target = limit * gradient;
+    } else if (limit * (1 - ratio) < headroom) {
+      target = limit + headroom;
+    } else {
+      target = limit;
+    }
+    double smoothed = limit * (1 - SMOOTHING) + target * SMOOTHING;
+    limit = (int) Math.max(minLimit, Math.min(maxLimit, Math.round(smoothed)));
+  }
+
+  /**
+   * Tracks the lowest latency of the current and the previous window, so the no-load latency
+   * follows a dependency that got slower for good within two windows.
+   */
+  private void updateNoLoad(long rttNanos) {
+    windowMin = Math.min(windowMin, rttNanos);
+    if (++windowSamples == NO_LOAD_WINDOW) {
+      previousWindowMin = windowMin;
+      windowMin = Double.MAX_VALUE;
+      windowSamples = 0;
+    }
+    noLoadRtt = Math.min(previousWindowMin, windowMin);
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  /**
+   * Returns the estimated queueing delay: how far the short-term latency is above the no-load
+   * one.
+   *
+   * @param unit the time unit.
+   * @return the delay, zero before any latency is sampled.
+   */
+  public synchronized double getQueueTime(TimeUnit unit) {
+    return noLoadRtt == 0 ? 0 : Math.max(0, shortRtt - noLoadRtt) / unit.toNanos(1);
+  }
+}
@@ -0,0 +1,180 @@
+package com.nttbank.microservices.creditcardservice.limiter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nttbank.microservices.creditcardservice.exception.ErrorBody;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Sheds charge, payment and hold authorization requests the service cannot absorb. A request of a
+ * customer over its token-bucket quota fails with 429; a request beyond the adaptive concurrency
+ * limit fails at once with 503. Both are answered from a pre-serialized body, without an exception,
+ * so shedding stays much cheaper than serving. The customer of a card is remembered, since it
+ * never changes, and resolved before a permit is taken with a projection read bounded by
+ * {@code lookupTimeout}, at most {@code maxLookups} at a time. A request whose customer cannot be
+ * resolved that way skips the quota and only faces the concurrency limit, so a slow MongoDB never
+ * turns into quota rejections. Requests for cards that do not exist are charged to a small bucket
+ * of their caller's address. Other requests pass through untouched.
+ */
+public class LoadSheddingFilter implements WebFilter, Ordered {
+
+  private static final PathPattern MOVEMENT = PathPatternParser.defaultInstance
+      .parse("/creditcards/{creditcard_id}/{operation:charge|pay|holds}");
+
+  private static final ErrorBody OVER_QUOTA = new ErrorBody("customer_quota_exceeded",
+      "Customer request quota exceeded.");
+
+  private static final ErrorBody OVERLOADED = new ErrorBody("overloaded",
+      "Service overloaded, retry later.");
+
+  private final GradientConcurrencyLimit limit;
+  private final CustomerQuotas quotas;
+  private final CustomerQuotas unknownCardQuotas;
+  private final ICreditCardRepo creditCardRepo;
+  private final Duration lookupTimeout;
+  private final Semaphore lookups;
+  private final Cache<String, String> customers;
+  private final Counter shedByLimit;
+  private final Counter shedByQuota;
+  private final Counter quotaSkipped;
+
+  public LoadSheddingFilter(GradientConcurrencyLimit limit, CustomerQuotas quotas,
+      CustomerQuotas unknownCardQuotas, ICreditCardRepo creditCardRepo, Duration lookupTimeout,
+      int maxLookups, MeterRegistry meterRegistry, long maximumCards) {
+    this.limit = limit;
+    this.quotas = quotas;
+    this.unknownCardQuotas = unknownCardQuotas;
+    this.creditCardRepo = creditCardRepo;
+    this.lookupTimeout = lookupTimeout;
+    this.lookups = new Semaphore(maxLookups);
+    this.customers = Caffeine.newBuilder().maximumSize(maximumCards).build();
+    Gauge.builder("creditcard.limiter.limit", limit, GradientConcurrencyLimit::getLimit)
+        .description("Current adaptive concurrency limit of charges and payments")
+        .register(meterRegistry);
+    Gauge.builder("creditcard.limiter.in_flight", limit, GradientConcurrencyLimit::getInFlight)
+        .description("Charges and payments holding a concurrency permit")
+        .register(meterRegistry);
+    Gauge.builder("creditcard.limiter.queue_time", limit,
+            l -> l.getQueueTime(TimeUnit.SECONDS))
+        .baseUnit("seconds")
+        .description("Estimated queueing delay of charges and payments")
+        .register(meterRegistry);
+    this.shedByLimit = Counter.builder("creditcard.limiter.shed")
+        .tag("reason", "concurrency")
+        .description("Charges and payments rejected before reaching the service")
+        .register(meterRegistry);
+    this.shedByQuota = Counter.builder("creditcard.limiter.shed")
+        .tag("reason", "customer_quota")
+        .description("Charges and payments rejected before reaching the service")
+        .register(meterRegistry);
+    this.quotaSkipped = Counter.builder("creditcard.limiter.quota_skipped")
+        .description("Charges and payments admitted without a quota check because the customer "
+            + "of the card could not be resolved in time")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    if (exchange.getRequest().getMethod() != HttpMethod.POST) {
+      return chain.filter(exchange);
+    }
+    PathPattern.PathMatchInfo match = MOVEMENT.matchAndExtract(
+        exchange.getRequest().getPath().pathWithinApplication());
+    if (match == null) {
+      return chain.filter(exchange);
+    }
+    return withinQuota(exchange, match.getUriVariables().get("creditcard_id"))
+        .flatMap(within -> {
+          if (!within) {
+            shedByQuota.increment();
+            return shed(exchange, HttpStatus.TOO_MANY_REQUESTS, OVER_QUOTA);
+          }
+          return admit(exchange, chain);
+        });
+  }
+
+  private Mono<Void> admit(ServerWebExchange exchange, WebFilterChain chain) {
+    if (!limit.tryAcquire()) {
+      shedByLimit.increment();
+      return shed(exchange, HttpStatus.SERVICE_UNAVAILABLE, OVERLOADED);
+    }
+    long start = System.nanoTime();
+    return chain.filter(exchange)
+        .doFinally(signal -> {
+          if (signal != SignalType.CANCEL) {
+            limit.release(System.nanoTime() - start);
+          } else {
+            limit.release();
+          }
+        });
+  }
+
+  private static Mono<Void> shed(ServerWebExchange exchange, HttpStatus status, ErrorBody body) {
+    ServerHttpResponse response = exchange.getResponse();
+    response.setStatusCode(status);
+    response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+    return response.writeWith(Mono.just(body.write(response.bufferFactory(),
+        exchange.getRequest().getPath().pathWithinApplication().value())));
+  }
+
+  /**
+   * Takes a token from the quota of the card's customer, resolved from memory or with a projection
+   * read. A card that does not exist takes it from its caller's bucket; a card whose customer
+   * cannot be read within {@code lookupTimeout}, or while {@code maxLookups} reads are running,
+   * passes without a quota check.
+   */
+  private Mono<Boolean> withinQuota(ServerWebExchange exchange, String creditCardId) {
+    String customerId = customers.getIfPresent(creditCardId);
+    if (customerId != null) {
+      return Mono.just(quotas.tryAcquire(customerId));
+    }
+    if (!lookups.tryAcquire()) {
+      quotaSkipped.increment();
+      return Mono.just(true);
+    }
+    return creditCardRepo.findCustomerIdById(creditCardId)
+        .timeout(lookupTimeout)
+        .doFinally(signal -> lookups.release())
+        .map(id -> {
+          customers.put(creditCardId, id);
+          return quotas.tryAcquire(id);
+        })
+        .switchIfEmpty(Mono.fromSupplier(() -> unknownCardQuotas.tryAcquire(callerOf(exchange))))
+        .onErrorResume(e -> {
+          quotaSkipped.increment();
+          return Mono.just(true);
+        });
+  }
+
+  private static String callerOf(ServerWebExchange exchange) {
+    InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+    return remoteAddress == null ? "" : remoteAddress.getHostString();
+  }
+
+  /**
+   * Runs ahead of the other filters so shed requests cost as little as possible.
+   */
+  @Override
+  public int getOrder() {
+    return Ordered.HIGHEST_PRECEDENCE;
+  }
+}
@@ -2,7 +2,10 @@ package com.nttbank.microservices.creditcardservice.mapper;
 
 import com.nttbank.microservices.creditcardservice.dto.CreditCardDTO;
 import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import java.math.BigDecimal;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants.ComponentModel;
 import org.mapstruct.factory.Mappers;
 
@@ -11,5 +14,14 @@ public interface CreditCardMapper {
 
   CreditCardMapper INSTANCE = Mappers.getMapper(CreditCardMapper.class);
 
+  @Mapping(target = "lastMaintenanceFeePeriod", ignore = true)
+  @Mapping(target = "heldAmount", ignore = true)
+  @Mapping(target = "pendingHolds", ignore = true)
+  @Mapping(target = "appliedBatches", ignore = true)
+  @Mapping(target = "openingBalance", ignore = true)
   CreditCard creditCardDTOToCreditCard(CreditCardDTO creditCardDTO);
+
+  default Money toMoney(BigDecimal amount) {
+    return amount != null ? Money.of(amount) : null;
+  }
 }
@@ -0,0 +1,100 @@
+package com.nttbank.microservices.creditcardservice.metrics;
+
+import com.nttbank.microservices.creditcardservice.exception.CardRejectionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Micrometer instrumentation of the charge and payment hot paths: an end-to-end timer per
+ * operation and outcome, a timer per stage of each operation, rejection counters and a gauge of
+ * the operations in flight. Timers publish percentile histograms.
+ */
+@Component
+public class CreditCardMetrics {
+
+  public static final String BALANCE_UPDATE = "balance_update";
+  public static final String TRANSACTION_INSERT = "transaction_insert";
+  public static final String REJECTION_CHECK = "rejection_check";
+
+  private final MeterRegistry meterRegistry;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Counter insufficientFunds;
+  private final Counter overPayment;
+
+  public CreditCardMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    Gauge.builder("creditcard.operations.in_flight", inFlight, AtomicInteger::get)
+        .description("Charge and payment operations in progress")
+        .register(meterRegistry);
+    this.insufficientFunds = Counter.builder("creditcard.rejections")
+        .tag("reason", "insufficient_funds")
+        .description("Movements rejected by the business rules")
+        .register(meterRegistry);
+    this.overPayment = Counter.builder("creditcard.rejections")
+        .tag("reason", "over_payment")
+        .description("Movements rejected by the business rules")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Times a whole operation and tracks it as in flight while it runs.
+   *
+   * @param operation the operation name, {@code charge} or {@code payment}.
+   * @param mono the operation.
+   * @return the instrumented operation.
+   */
+  public <T> Mono<T> operation(String operation, Mono<T> mono) {
+    return Mono.defer(() -> {
+      inFlight.incrementAndGet();
+      Timer.Sample sample = Timer.start(meterRegistry);
+      AtomicReference<String> outcome = new AtomicReference<>("not_found");
+      return mono
+          .doOnNext(value -> outcome.set("success"))
+          .doOnError(e -> outcome.set(e instanceof CardRejectionException
+              || e instanceof ResponseStatusException ? "rejected" : "error"))
+          .doFinally(signal -> {
+            inFlight.decrementAndGet();
+            sample.stop(Timer.builder("creditcard.operation")
+                .tag("operation", operation)
+                .tag("outcome", signal == SignalType.CANCEL ? "cancelled" : outcome.get())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+          });
+    });
+  }
+
+  /**
+   * Times one stage of an operation.
+   *
+   * @param operation the operation name.
+   * @param stage the stage name.
+   * @param mono the stage.
+   * @return the instrumented stage.
+   */
+  public <T> Mono<T> stage(String operation, String stage, Mono<T> mono) {
+    return Mono.defer(() -> {
+      Timer.Sample sample = Timer.start(meterRegistry);
+      return mono.doFinally(signal -> sample.stop(Timer.builder("creditcard.operation.stage")
+          .tag("operation", operation)
+          .tag("stage", stage)
+          .publishPercentileHistogram()
+          .register(meterRegistry)));
+    });
+  }
+
+  public void insufficientFunds() {
+    insufficientFunds.increment();
+  }
+
+  public void overPayment() {
+    overPayment.increment();
+  }
+}
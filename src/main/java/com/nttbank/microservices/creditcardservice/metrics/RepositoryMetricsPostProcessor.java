@@ -0,0 +1,90 @@
+package com.nttbank.microservices.creditcardservice.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Wraps the reactive repositories of the service so every method call is timed from subscription
+ * to termination, not just while the publisher is assembled. Calls slower than
+ * {@code creditcard.metrics.slow-query-threshold} are logged.
+ */
+@Slf4j
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+  private static final String REPOSITORY_PACKAGE =
+      "com.nttbank.microservices.creditcardservice.repo";
+
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+  private final Duration slowQueryThreshold;
+
+  public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+      @Value("${creditcard.metrics.slow-query-threshold:200ms}") Duration slowQueryThreshold) {
+    this.meterRegistry = meterRegistry;
+    this.slowQueryThreshold = slowQueryThreshold;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (!(bean instanceof Repository<?, ?>)) {
+      return bean;
+    }
+    Class<?> repositoryInterface = findRepositoryInterface(bean.getClass());
+    if (repositoryInterface == null) {
+      return bean;
+    }
+    ProxyFactory proxyFactory = new ProxyFactory(bean);
+    proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+      Object result = invocation.proceed();
+      String method = invocation.getMethod().getName();
+      String repository = repositoryInterface.getSimpleName();
+      if (result instanceof Mono<?> mono) {
+        return Mono.defer(() -> {
+          long started = System.nanoTime();
+          return mono.doFinally(signal -> record(repository, method, started));
+        });
+      }
+      if (result instanceof Flux<?> flux) {
+        return Flux.defer(() -> {
+          long started = System.nanoTime();
+          return flux.doFinally(signal -> record(repository, method, started));
+        });
+      }
+      return result;
+    });
+    return proxyFactory.getProxy();
+  }
+
+  private void record(String repository, String method, long started) {
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+    Timer.builder("creditcard.repository")
+        .tag("repository", repository)
+        .tag("method", method)
+        .publishPercentileHistogram()
+        .register(meterRegistry.getObject())
+        .record(elapsed);
+    if (elapsed.compareTo(slowQueryThreshold) > 0) {
+      log.warn("Slow repository call {}.{} took {} ms.", repository, method, elapsed.toMillis());
+    }
+  }
+
+  private static Class<?> findRepositoryInterface(Class<?> type) {
+    for (Class<?> candidate : type.getInterfaces()) {
+      if (candidate.getPackageName().equals(REPOSITORY_PACKAGE)) {
+        return candidate;
+      }
+    }
+    return null;
+  }
+}
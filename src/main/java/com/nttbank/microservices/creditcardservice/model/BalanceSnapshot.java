@@ -0,0 +1,39 @@
+package com.nttbank.microservices.creditcardservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Balance of a card folded from its transaction ledger up to one transaction. This class is used
+ * to interact with the 'balance_snapshots' collection. Snapshots are only appended; the balance at
+ * any later point is the latest snapshot plus the movements recorded after its position.
+ */
+@Data
+@Document(collection = "balance_snapshots")
+@CompoundIndex(name = "card_position_idx",
+    def = "{'creditCardId': 1, 'lastCreatedAt': -1, 'lastTransactionId': -1}")
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder
+public class BalanceSnapshot {
+
+  @EqualsAndHashCode.Include
+  @Id
+  private String id;
+  private String creditCardId;
+  private Money balance;
+  private long transactionCount;
+  private LocalDateTime lastCreatedAt;
+  private String lastTransactionId;
+  private LocalDateTime takenAt;
+}
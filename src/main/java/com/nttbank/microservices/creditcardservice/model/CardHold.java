@@ -0,0 +1,69 @@
+package com.nttbank.microservices.creditcardservice.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Authorization hold reserving credit on a card until it is captured as a charge, voided or
+ * expires. This class is used to interact with the 'card_holds' collection. While a hold is
+ * authorized its amount is part of the card's {@code heldAmount}; every way out of the
+ * authorized status is a conditional update, so a hold is settled exactly once.
+ *
+ * <p>A hold is inserted as pending before its amount is reserved on the card, and stays
+ * {@code settling} after it is closed until its amount has been captured or released. Each card
+ * update records the hold's {@link #marker()} on the card and only applies if the marker is not
+ * there yet, so a pending or settling hold left behind by a failure can be finished by running
+ * the card update again.
+ */
+@Data
+@Document(collection = "card_holds")
+@CompoundIndex(name = "status_expires_at_idx", def = "{'status': 1, 'expiresAt': 1}")
+@CompoundIndex(name = "settling_closed_at_idx", def = "{'settling': 1, 'closedAt': 1}",
+    partialFilter = "{'settling': true}")
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder(toBuilder = true)
+public class CardHold {
+
+  public static final String PENDING = "pending";
+  public static final String AUTHORIZED = "authorized";
+  public static final String CAPTURED = "captured";
+  public static final String VOIDED = "voided";
+  public static final String EXPIRED = "expired";
+
+  @EqualsAndHashCode.Include
+  @Id
+  private String id;
+  private String creditCardId;
+  private String customerId;
+  private Money amount;
+  private String status;
+  private LocalDateTime createdAt;
+  private LocalDateTime expiresAt;
+  private LocalDateTime closedAt;
+  @JsonIgnore
+  private Boolean settling;
+  @JsonIgnore
+  private String expiryRun;
+
+  /**
+   * Identifies the card update of the hold's current status: the reservation while it is
+   * pending, the capture or release once it is closed.
+   *
+   * @return the marker recorded in the card's {@code pendingHolds}.
+   */
+  public String marker() {
+    return id + ":" + status;
+  }
+}
@@ -1,9 +1,9 @@
 package com.nttbank.microservices.creditcardservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import jakarta.validation.constraints.NotNull;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,6 +13,8 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -22,11 +24,14 @@ import org.springframework.data.mongodb.core.mapping.Document;
  */
 @Data
 @Document(collection = "credit_cards")
+@CompoundIndex(name = "updated_at_id_idx", def = "{'updatedAt': 1, '_id': 1}")
+@CompoundIndex(name = "statement_day_id_idx", def = "{'issueStatementDay': 1, '_id': 1}")
+@CompoundIndex(name = "status_id_idx", def = "{'status': 1, '_id': 1}")
 @AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @JsonInclude(JsonInclude.Include.NON_NULL)
-@Builder
+@Builder(toBuilder = true)
 public class CreditCard {
 
   @EqualsAndHashCode.Include
@@ -36,8 +41,12 @@ public class CreditCard {
   private String customerId;
   private String cardType;
   @NotNull(message = "Credit Limit cannot be null")
-  private BigDecimal creditLimit;
-  private BigDecimal currentBalance;
+  private Money creditLimit;
+  private Money currentBalance;
+  @JsonIgnore
+  private Money openingBalance;
+
+  private Money heldAmount;
   @NotNull(message = "Expiration Date cannot be null")
   private LocalDate expirationDate;
 
@@ -45,10 +54,16 @@ public class CreditCard {
   private String issueStatementDay;
 
   @NotNull(message = "Maintenance Fee cannot be null")
-  private BigDecimal maintenanceFee;
+  private Money maintenanceFee;
   private LocalDateTime createdAt;
   private LocalDateTime updatedAt;
   private String status;
+  private String lastMaintenanceFeePeriod;
+  @JsonIgnore
+  private List<String> pendingHolds;
+  @JsonIgnore
+  private List<String> appliedBatches;
+  @Transient
   private List<CreditCardTransactions> lstCreditCardTransactions;
 
 }
@@ -0,0 +1,55 @@
+package com.nttbank.microservices.creditcardservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Statement of a credit card for one billing period, from the previous statement date (inclusive)
+ * to the statement date (exclusive). This class is used to interact with the
+ * 'credit_card_statements' collection; its identifier is {@code creditCardId:periodEnd}, so
+ * regenerating a statement replaces it.
+ */
+@Data
+@Document(collection = "credit_card_statements")
+@CompoundIndex(name = "card_period_idx", def = "{'creditCardId': 1, 'periodEnd': -1}")
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder
+public class CreditCardStatement {
+
+  @EqualsAndHashCode.Include
+  @Id
+  private String id;
+  private String creditCardId;
+  private String customerId;
+  private LocalDate periodStart;
+  private LocalDate periodEnd;
+  private Money openingBalance;
+  private Money closingBalance;
+  private Money totalCharges;
+  private Money totalPayments;
+  private long transactionCount;
+  private LocalDateTime generatedAt;
+
+  /**
+   * Builds the identifier of the statement of a card for the period ending on a date.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param periodEnd the statement date.
+   * @return the statement identifier.
+   */
+  public static String key(String creditCardId, LocalDate periodEnd) {
+    return creditCardId + ":" + periodEnd;
+  }
+}
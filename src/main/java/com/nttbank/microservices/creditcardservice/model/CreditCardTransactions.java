@@ -1,10 +1,8 @@
 package com.nttbank.microservices.creditcardservice.model;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
-import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,10 +10,12 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Data
 @Document(collection = "creditcard_transactions")
+@CompoundIndex(name = "card_created_id_idx", def = "{'creditCardId': 1, 'createdAt': 1, '_id': 1}")
 @AllArgsConstructor
 @NoArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
@@ -33,15 +33,16 @@ public class CreditCardTransactions {
   @NotNull(message = "Transaction type cannot be null.")
   private String type;
 
-  @DecimalMin(value = "0.00", message = "Amount must be greater than 0.")
   @NotNull(message = "Amount cannot be null.")
-  private BigDecimal amount;
+  private Money amount;
 
-  private BigDecimal balanceAfterMovement;
+  private Money balanceAfterMovement;
 
   @NotNull(message = "Timestamp cannot be null.")
   private LocalDateTime createdAt;
 
   @Size(max = 255, message = "Description cannot exceed 255 characters.")
   private String description;
+
+  private String idempotencyKey;
 }
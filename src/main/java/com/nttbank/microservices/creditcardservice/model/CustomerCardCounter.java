@@ -0,0 +1,43 @@
+package com.nttbank.microservices.creditcardservice.model;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Materialized number of credit cards a customer holds in a given status. This class is used to
+ * interact with the 'customer_card_counters' collection, keyed by {@code customerId:status}.
+ * {@code rebuiltAt} is the last time the counter was created or recomputed from 'credit_cards'.
+ */
+@Data
+@Document(collection = "customer_card_counters")
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Builder
+public class CustomerCardCounter {
+
+  @EqualsAndHashCode.Include
+  @Id
+  private String id;
+  private String customerId;
+  private String status;
+  private long count;
+  private LocalDateTime rebuiltAt;
+
+  /**
+   * Builds the identifier of the counter of a customer and status.
+   *
+   * @param customerId the customer identifier.
+   * @param status the credit card status.
+   * @return the counter identifier.
+   */
+  public static String key(String customerId, String status) {
+    return customerId + ":" + status;
+  }
+}
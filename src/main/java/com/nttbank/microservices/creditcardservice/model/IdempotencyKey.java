@@ -0,0 +1,62 @@
+package com.nttbank.microservices.creditcardservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Outcome of a charge or payment submitted with an {@code Idempotency-Key} header. This class is
+ * used to interact with the 'idempotency_keys' collection. The key is the document identifier, so
+ * it is unique across instances; the request it was first used with is kept to reject reuse with
+ * a different request, and records expire one day after creation. {@code attempts} counts the
+ * claims, so a claim after the first is known to take over a request that may have run.
+ */
+@Data
+@Document(collection = "idempotency_keys")
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder(toBuilder = true)
+public class IdempotencyKey {
+
+  public static final String PENDING = "pending";
+  public static final String COMPLETED = "completed";
+
+  @EqualsAndHashCode.Include
+  @Id
+  private String id;
+  private String creditCardId;
+  private String operation;
+  private Money amount;
+  private String status;
+  private String owner;
+  private LocalDateTime claimedAt;
+  private int attempts;
+  private int responseStatus;
+  private String message;
+  private CreditCard response;
+  @Indexed(name = "created_at_ttl_idx", expireAfter = "24h")
+  private LocalDateTime createdAt;
+  private LocalDateTime completedAt;
+
+  /**
+   * Checks whether a request is the one this key was first used with.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param operation the operation name.
+   * @param amount the amount of the movement.
+   * @return true if the request matches.
+   */
+  public boolean matches(String creditCardId, String operation, Money amount) {
+    return this.creditCardId.equals(creditCardId) && this.operation.equals(operation)
+        && this.amount.equals(amount);
+  }
+}
@@ -0,0 +1,46 @@
+package com.nttbank.microservices.creditcardservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Progress of a batch job run over the credit cards. This class is used to interact with the
+ * 'job_runs' collection. The identifier names the job and its period, the checkpoint is the last
+ * card id whose work is durably done, and the heartbeat acts as the lease of the instance that
+ * owns the run.
+ *
+ * <p>Every replica schedules the batch jobs. Claiming the run of a period makes a single instance
+ * do the work; if the owner stops sending heartbeats, another instance claims the run and resumes
+ * it from the checkpoint.</p>
+ */
+@Data
+@Document(collection = "job_runs")
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder
+public class JobRun {
+
+  public static final String RUNNING = "running";
+  public static final String COMPLETED = "completed";
+
+  @EqualsAndHashCode.Include
+  @Id
+  private String id;
+  private String status;
+  private String owner;
+  private String checkpoint;
+  private long cardsProcessed;
+  private double cardsPerSecond;
+  private LocalDateTime startedAt;
+  private LocalDateTime heartbeatAt;
+  private LocalDateTime finishedAt;
+}
@@ -0,0 +1,171 @@
+package com.nttbank.microservices.creditcardservice.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import org.bson.types.Decimal128;
+
+/**
+ * Immutable monetary amount held as a count of cents in a {@code long}. Comparisons work on the
+ * primitive value and arithmetic fails with {@link ArithmeticException} instead of overflowing.
+ * Amounts are stored in MongoDB as {@code Decimal128} and written to JSON as plain numbers with
+ * two decimals, the same representation the {@link BigDecimal} fields had.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public final class Money implements Comparable<Money> {
+
+  public static final int SCALE = 2;
+  public static final Money ZERO = new Money(0);
+
+  private static final BigDecimal MAX = BigDecimal.valueOf(Long.MAX_VALUE, SCALE);
+  private static final BigDecimal MIN = BigDecimal.valueOf(Long.MIN_VALUE, SCALE);
+
+  private final long cents;
+
+  private Money(long cents) {
+    this.cents = cents;
+  }
+
+  public static Money ofCents(long cents) {
+    return cents == 0 ? ZERO : new Money(cents);
+  }
+
+  /**
+   * Converts a decimal amount exactly. Trailing zeros beyond two decimals are accepted, any other
+   * digit beyond the cents is rejected rather than rounded away.
+   *
+   * @param amount the amount.
+   * @return the amount as money.
+   * @throws IllegalArgumentException if the amount has more than two decimals or does not fit.
+   */
+  public static Money of(BigDecimal amount) {
+    if (amount.stripTrailingZeros().scale() > SCALE) {
+      throw new IllegalArgumentException("Amount cannot have more than two decimals: " + amount);
+    }
+    return rounded(amount);
+  }
+
+  /**
+   * Converts a stored decimal amount, rounding it half up to two decimals. Amounts written before
+   * they were kept in cents may carry more decimals and are still read.
+   *
+   * @param amount the amount.
+   * @return the amount as money.
+   * @throws IllegalArgumentException if the amount does not fit.
+   */
+  public static Money rounded(BigDecimal amount) {
+    if (!fits(amount)) {
+      throw new IllegalArgumentException("Amount out of range: " + amount);
+    }
+    return ofCents(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValue());
+  }
+
+  public static Money parse(String amount) {
+    return of(new BigDecimal(amount));
+  }
+
+  /**
+   * Checks whether a decimal amount is within the range of money once rounded to two decimals.
+   *
+   * @param amount the amount.
+   * @return true if {@link #rounded(BigDecimal)} accepts it.
+   */
+  public static boolean fits(BigDecimal amount) {
+    return amount.compareTo(MAX) <= 0 && amount.compareTo(MIN) >= 0;
+  }
+
+  public long cents() {
+    return cents;
+  }
+
+  public Money add(Money other) {
+    return ofCents(Math.addExact(cents, other.cents));
+  }
+
+  public Money subtract(Money other) {
+    return ofCents(Math.subtractExact(cents, other.cents));
+  }
+
+  public Money negate() {
+    return ofCents(Math.negateExact(cents));
+  }
+
+  public int signum() {
+    return Long.signum(cents);
+  }
+
+  public boolean isGreaterThanOrEqualTo(Money other) {
+    return cents >= other.cents;
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(cents, SCALE);
+  }
+
+  public Decimal128 toDecimal128() {
+    return new Decimal128(toBigDecimal());
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(cents, other.cents);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof Money other && cents == other.cents;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(cents);
+  }
+
+  @Override
+  public String toString() {
+    long units = cents / 100;
+    int fraction = (int) Math.abs(cents % 100);
+    return (cents < 0 && units == 0 ? "-" : "") + units + (fraction < 10 ? ".0" : ".") + fraction;
+  }
+
+  /**
+   * Writes the amount as a JSON number with two decimals. Binary formats get the same digits as a
+   * string, which all of them carry without loss.
+   */
+  public static class Serializer extends JsonSerializer<Money> {
+
+    @Override
+    public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers)
+        throws IOException {
+      if (gen.canWriteBinaryNatively()) {
+        gen.writeString(value.toString());
+      } else {
+        gen.writeNumber(value.toString());
+      }
+    }
+  }
+
+  /**
+   * Reads the amount from a JSON number or a numeric string.
+   */
+  public static class Deserializer extends JsonDeserializer<Money> {
+
+    @Override
+    public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+      if (p.currentToken() == JsonToken.VALUE_STRING) {
+        return Money.parse(p.getText().trim());
+      }
+      return Money.of(p.getDecimalValue());
+    }
+  }
+}
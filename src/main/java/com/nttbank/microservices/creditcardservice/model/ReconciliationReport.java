@@ -0,0 +1,50 @@
+package com.nttbank.microservices.creditcardservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Balance mismatch of one card found by a reconciliation run. This class is used to interact with
+ * the 'reconciliation_reports' collection; its identifier is {@code runId:creditCardId}, so a
+ * resumed run replaces the reports it already wrote.
+ */
+@Data
+@Document(collection = "reconciliation_reports")
+@CompoundIndex(name = "run_card_idx", def = "{'runId': 1, 'creditCardId': 1}")
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder
+public class ReconciliationReport {
+
+  public static final String MOVEMENT_TOTALS = "movement_totals";
+  public static final String OPENING_BALANCE = "opening_balance";
+
+  @EqualsAndHashCode.Include
+  @Id
+  private String id;
+  private String runId;
+  private String creditCardId;
+  private List<String> reasons;
+  private Money currentBalance;
+  private Money lastBalanceAfterMovement;
+  private Money openingBalance;
+  private Money totalCharges;
+  private Money totalPayments;
+  private long transactionCount;
+  private LocalDateTime detectedAt;
+
+  public static String key(String runId, String creditCardId) {
+    return runId + ":" + creditCardId;
+  }
+}
@@ -0,0 +1,43 @@
+package com.nttbank.microservices.creditcardservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Archived run of consecutive transactions of one card, stored compressed. This class is used to
+ * interact with the 'creditcard_transaction_archive' collection. The identifier is the id of the
+ * first transaction of the segment, so archiving the same transactions again replaces the
+ * segment instead of duplicating it. The payload is decoded by
+ * {@link com.nttbank.microservices.creditcardservice.util.TransactionArchiveCodec}.
+ */
+@Data
+@Document(collection = "creditcard_transaction_archive")
+@CompoundIndex(name = "card_first_last_idx",
+    def = "{'creditCardId': 1, 'firstCreatedAt': 1, 'lastCreatedAt': 1}")
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder
+public class TransactionArchiveSegment {
+
+  @EqualsAndHashCode.Include
+  @Id
+  private String id;
+  private String creditCardId;
+  private String customerId;
+  private LocalDateTime firstCreatedAt;
+  private LocalDateTime lastCreatedAt;
+  private int count;
+  private String encoding;
+  private byte[] payload;
+  private LocalDateTime archivedAt;
+}
@@ -0,0 +1,54 @@
+package com.nttbank.microservices.creditcardservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Transactions of one card in one calendar month, stored together with running totals. This
+ * class is used to interact with the 'creditcard_transaction_buckets' collection. A bucket holds
+ * a bounded number of transactions; once full, further transactions of the month go to an
+ * overflow bucket, so a month usually is one document and never more than a few.
+ */
+@Data
+@Document(collection = "creditcard_transaction_buckets")
+@CompoundIndex(name = "card_month_count_idx", def = "{'creditCardId': 1, 'month': 1, 'count': 1}")
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Builder
+public class TransactionBucket {
+
+  @EqualsAndHashCode.Include
+  @Id
+  private String id;
+  private String creditCardId;
+  private String customerId;
+  private String month;
+  private int count;
+  private Money totalCharges;
+  private Money totalPayments;
+  private LocalDateTime firstCreatedAt;
+  private LocalDateTime lastCreatedAt;
+  private List<CreditCardTransactions> transactions;
+
+  /**
+   * Builds the month key of the bucket holding a transaction created at the given time.
+   *
+   * @param createdAt the creation time of the transaction.
+   * @return the month in {@code yyyy-MM} format.
+   */
+  public static String month(LocalDateTime createdAt) {
+    return YearMonth.from(createdAt).toString();
+  }
+}
@@ -0,0 +1,16 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.BalanceSnapshot;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/** Repository interface for ledger balance snapshots. */
+public interface IBalanceSnapshotRepo extends ReactiveMongoRepository<BalanceSnapshot, String> {
+
+  Mono<BalanceSnapshot> findFirstByCreditCardIdOrderByLastCreatedAtDescLastTransactionIdDesc(
+      String creditCardId);
+
+  Flux<BalanceSnapshot> findByCreditCardIdOrderByLastCreatedAtAscLastTransactionIdAsc(
+      String creditCardId);
+}
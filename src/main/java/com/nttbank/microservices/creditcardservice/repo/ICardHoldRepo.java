@@ -0,0 +1,9 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.CardHold;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ICardHoldRepo extends ReactiveMongoRepository<CardHold, String>,
+    ICardHoldRepoCustom {
+
+}
@@ -0,0 +1,89 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.CardHold;
+import java.time.LocalDateTime;
+import java.util.List;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment with the status transitions of card holds. A hold only leaves the
+ * authorized status through one of these conditional updates, so concurrent captures, voids and
+ * expiries of the same hold settle it once.
+ */
+public interface ICardHoldRepoCustom {
+
+  /**
+   * Moves a pending hold, whose amount is reserved on its card, to authorized.
+   *
+   * @param holdId the hold identifier.
+   * @param customerId the customer of the card.
+   * @return the authorized hold, or empty if the hold is no longer pending.
+   */
+  Mono<CardHold> activate(String holdId, String customerId);
+
+  /**
+   * Deletes a hold that is still pending.
+   *
+   * @param holdId the hold identifier.
+   * @return whether a hold was deleted.
+   */
+  Mono<Boolean> deletePending(String holdId);
+
+  /**
+   * Moves an authorized, unexpired hold to a closing status and marks it settling.
+   *
+   * @param holdId the hold identifier.
+   * @param status the new status, {@code captured} or {@code voided}.
+   * @param now the current time.
+   * @return the closed hold, or empty if the hold does not exist, is no longer authorized or has
+   *     expired.
+   */
+  Mono<CardHold> close(String holdId, String status, LocalDateTime now);
+
+  /**
+   * Expires the given holds that are still authorized and past their expiry time, in one update,
+   * and marks them settling.
+   *
+   * @param holdIds the hold identifiers.
+   * @param now the current time.
+   * @return the holds this call expired.
+   */
+  Flux<CardHold> expire(List<String> holdIds, LocalDateTime now);
+
+  /**
+   * Streams the identifier and expiry time of every authorized hold, to rebuild the expiry
+   * schedule.
+   *
+   * @return the authorized holds.
+   */
+  Flux<CardHold> streamAuthorized();
+
+  /**
+   * Finds authorized holds past their expiry time, served by the {@code (status, expiresAt)}
+   * index.
+   *
+   * @param now the current time.
+   * @param limit the maximum number of holds.
+   * @return the overdue holds, identifier and expiry time only.
+   */
+  Flux<CardHold> findOverdue(LocalDateTime now, int limit);
+
+  /**
+   * Marks closed holds as settled once their card updates are applied.
+   *
+   * @param holdIds the hold identifiers.
+   * @return the number of holds updated.
+   */
+  Mono<Long> markSettled(List<String> holdIds);
+
+  /**
+   * Finds holds left in doubt by a failure: pending holds created and settling holds closed
+   * before the given time.
+   *
+   * @param before the time before which the holds were created or closed.
+   * @param limit the maximum number of holds of each kind.
+   * @return the pending and settling holds.
+   */
+  Flux<CardHold> findInDoubt(LocalDateTime before, int limit);
+}
@@ -0,0 +1,108 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.CardHold;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveMongoTemplate} based implementation of {@link ICardHoldRepoCustom}. A batch
+ * expiry tags the holds it moves with a run id and reads them back by it, so each expired hold is
+ * released by exactly one caller even when several instances expire the same holds.
+ */
+@RequiredArgsConstructor
+public class ICardHoldRepoCustomImpl implements ICardHoldRepoCustom {
+
+  private static final String STATUS = "status";
+  private static final String EXPIRES_AT = "expiresAt";
+  private static final String CLOSED_AT = "closedAt";
+  private static final String EXPIRY_RUN = "expiryRun";
+  private static final String SETTLING = "settling";
+  private static final int STREAM_BATCH_SIZE = 1000;
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  @Override
+  public Mono<CardHold> activate(String holdId, String customerId) {
+    Query query = Query.query(Criteria.where("id").is(holdId).and(STATUS).is(CardHold.PENDING));
+    Update update = new Update().set(STATUS, CardHold.AUTHORIZED).set("customerId", customerId);
+    return mongoTemplate.findAndModify(query, update,
+        FindAndModifyOptions.options().returnNew(true), CardHold.class);
+  }
+
+  @Override
+  public Mono<Boolean> deletePending(String holdId) {
+    return mongoTemplate.remove(Query.query(Criteria.where("id").is(holdId)
+            .and(STATUS).is(CardHold.PENDING)), CardHold.class)
+        .map(result -> result.getDeletedCount() > 0);
+  }
+
+  @Override
+  public Mono<CardHold> close(String holdId, String status, LocalDateTime now) {
+    Query query = Query.query(Criteria.where("id").is(holdId)
+        .and(STATUS).is(CardHold.AUTHORIZED)
+        .and(EXPIRES_AT).gt(now));
+    Update update = new Update().set(STATUS, status).set(CLOSED_AT, now).set(SETTLING, true);
+    return mongoTemplate.findAndModify(query, update,
+        FindAndModifyOptions.options().returnNew(true), CardHold.class);
+  }
+
+  @Override
+  public Flux<CardHold> expire(List<String> holdIds, LocalDateTime now) {
+    String run = UUID.randomUUID().toString();
+    Query query = Query.query(Criteria.where("id").in(holdIds)
+        .and(STATUS).is(CardHold.AUTHORIZED)
+        .and(EXPIRES_AT).lte(now));
+    Update update = new Update().set(STATUS, CardHold.EXPIRED).set(CLOSED_AT, now)
+        .set(SETTLING, true).set(EXPIRY_RUN, run);
+    return mongoTemplate.updateMulti(query, update, CardHold.class)
+        .flatMapMany(result -> result.getModifiedCount() == 0 ? Flux.empty()
+            : mongoTemplate.find(Query.query(Criteria.where("id").in(holdIds)
+                .and(EXPIRY_RUN).is(run)), CardHold.class));
+  }
+
+  @Override
+  public Flux<CardHold> streamAuthorized() {
+    Query query = Query.query(Criteria.where(STATUS).is(CardHold.AUTHORIZED))
+        .cursorBatchSize(STREAM_BATCH_SIZE);
+    query.fields().include("id", EXPIRES_AT);
+    return mongoTemplate.find(query, CardHold.class);
+  }
+
+  @Override
+  public Flux<CardHold> findOverdue(LocalDateTime now, int limit) {
+    Query query = Query.query(Criteria.where(STATUS).is(CardHold.AUTHORIZED)
+            .and(EXPIRES_AT).lte(now))
+        .with(Sort.by(EXPIRES_AT))
+        .limit(limit);
+    query.fields().include("id", EXPIRES_AT);
+    return mongoTemplate.find(query, CardHold.class);
+  }
+
+  @Override
+  public Mono<Long> markSettled(List<String> holdIds) {
+    return mongoTemplate.updateMulti(Query.query(Criteria.where("id").in(holdIds)
+            .and(SETTLING).is(true)), new Update().unset(SETTLING), CardHold.class)
+        .map(result -> result.getModifiedCount());
+  }
+
+  @Override
+  public Flux<CardHold> findInDoubt(LocalDateTime before, int limit) {
+    Query pending = Query.query(Criteria.where(STATUS).is(CardHold.PENDING)
+            .and("createdAt").lte(before))
+        .limit(limit);
+    Query settling = Query.query(Criteria.where(SETTLING).is(true).and(CLOSED_AT).lte(before))
+        .limit(limit);
+    return Flux.concat(mongoTemplate.find(pending, CardHold.class),
+        mongoTemplate.find(settling, CardHold.class));
+  }
+}
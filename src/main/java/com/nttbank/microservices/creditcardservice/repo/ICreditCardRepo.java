@@ -1,13 +1,26 @@
 package com.nttbank.microservices.creditcardservice.repo;
 
 import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /** Repository interface for credit card operations. */
-public interface ICreditCardRepo extends ReactiveMongoRepository<CreditCard, String> {
+public interface ICreditCardRepo extends ReactiveMongoRepository<CreditCard, String>,
+    ICreditCardRepoCustom {
 
   Mono<Long> countByCustomerIdAndStatus(String customerId, String status);
+
+  Flux<CreditCard> findByIssueStatementDayInAndIdGreaterThanOrderByIdAsc(
+      Collection<String> issueStatementDays, String afterId);
+
+  Flux<CreditCard> findByStatusAndLastMaintenanceFeePeriodNotAndIdGreaterThanOrderByIdAsc(
+      String status, String period, String afterId);
+
+  Flux<CreditCard> findByUpdatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+      LocalDateTime since, String afterId);
 }
 
 
@@ -0,0 +1,220 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.CardHold;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment with atomic balance operations for credit cards. Each operation is a
+ * single conditional {@code findAndModify} against the 'credit_cards' collection, so the balance
+ * check and the update can never interleave with a concurrent movement on the same card.
+ */
+public interface ICreditCardRepoCustom {
+
+  /**
+   * Decrements the current balance by the given amount only if the card has enough funds not
+   * reserved by holds.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param amount the amount to charge.
+   * @return the updated credit card, or empty if the card does not exist or lacks funds.
+   */
+  Mono<CreditCard> chargeIfFundsAvailable(String creditCardId, Money amount);
+
+  /**
+   * Increments the current balance by the given amount only if the result stays within the
+   * credit limit.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param amount the amount paid.
+   * @return the updated credit card, or empty if the card does not exist or the payment exceeds
+   *     the credit limit.
+   */
+  Mono<CreditCard> payIfWithinLimit(String creditCardId, Money amount);
+
+  /**
+   * Reserves the amount of a pending hold in {@code heldAmount} only if the card has enough funds
+   * not already reserved, and records the hold's marker in {@code pendingHolds}.
+   *
+   * @param hold the pending hold.
+   * @return the updated credit card, or empty if the card does not exist, lacks funds or already
+   *     holds the amount.
+   */
+  Mono<CreditCard> holdIfFundsAvailable(CardHold hold);
+
+  /**
+   * Undoes the reservation of a pending hold, if the card records it, and removes its marker.
+   *
+   * @param hold the pending hold.
+   * @return the updated credit card, or empty if the amount was never reserved.
+   */
+  Mono<CreditCard> cancelHold(CardHold hold);
+
+  /**
+   * Turns the amount of a captured hold into a charge: decrements both the current balance and
+   * the held amount, unless the card already records the capture.
+   *
+   * @param hold the captured hold.
+   * @return the updated credit card, or empty if the card does not exist or was already charged.
+   */
+  Mono<CreditCard> captureHold(CardHold hold);
+
+  /**
+   * Returns the amount of a voided or expired hold to the available funds, unless the card already
+   * records the release.
+   *
+   * @param hold the voided or expired hold.
+   * @return the updated credit card, or empty if the card does not exist or was already released.
+   */
+  Mono<CreditCard> releaseHold(CardHold hold);
+
+  /**
+   * Returns the amounts of several expired holds to their cards in one unordered bulk write, one
+   * update per hold so that each is released at most once.
+   *
+   * @param holds the expired holds.
+   * @return the number of holds released.
+   */
+  Mono<Integer> releaseHolds(List<CardHold> holds);
+
+  /**
+   * Removes the markers of holds whose status change has been recorded, in one update restricted
+   * to the cards of the holds.
+   *
+   * @param holds the holds, with the status their card update was made in.
+   * @return the number of cards updated.
+   */
+  Mono<Long> clearHoldMarkers(List<CardHold> holds);
+
+  /**
+   * Sets the fields a client may edit on an existing card: credit limit, current balance,
+   * expiration date, statement day, maintenance fee and status, along with the update time. Fields
+   * owned by the service, such as {@code heldAmount} and {@code pendingHolds}, are left untouched,
+   * so holds and movements applied concurrently are never overwritten.
+   *
+   * @param details the card identifier, the new values of the editable fields and the update
+   *     time.
+   * @return the version of the card before the update, or empty if it does not exist.
+   */
+  Mono<CreditCard> updateDetails(CreditCard details);
+
+  /**
+   * Replaces a card, inserting it if it does not exist, and returns the version it replaced.
+   *
+   * @param creditCard the new version of the card.
+   * @return the previous version, or empty if the card was inserted.
+   */
+  Mono<CreditCard> replaceReturningPrevious(CreditCard creditCard);
+
+  /**
+   * Reads only the customer of a card.
+   *
+   * @param creditCardId the credit card identifier.
+   * @return the customer identifier, or empty if the card does not exist.
+   */
+  Mono<String> findCustomerIdById(String creditCardId);
+
+  /**
+   * Removes a card and returns the removed document.
+   *
+   * @param creditCardId the credit card identifier.
+   * @return the removed card, or empty if it did not exist.
+   */
+  Mono<CreditCard> findAndRemoveById(String creditCardId);
+
+  /**
+   * Streams credit cards in {@code _id} order straight from a Mongo cursor, so the stream honors
+   * downstream demand and never buffers the whole result.
+   *
+   * @param customerId optional customer filter.
+   * @param status optional status filter.
+   * @param fields optional projection; when empty the full document is returned.
+   * @param afterId optional identifier of the last card already received, to resume a stream.
+   * @return the matching credit cards.
+   */
+  Flux<CreditCard> streamAll(String customerId, String status, Set<String> fields,
+      String afterId);
+
+  /**
+   * Applies several balance swaps in one ordered bulk write. Each swap only matches if the card
+   * still holds the balance and update time it was read with, and records the batch token in the
+   * card's recent {@code appliedBatches}.
+   *
+   * @param swaps the balance swaps to apply.
+   * @param batchToken a token unique to the batch.
+   * @return the number of swaps that matched.
+   */
+  Mono<Integer> compareAndSetBalances(List<BalanceSwap> swaps, String batchToken);
+
+  /**
+   * Finds which of the given cards a batch of swaps was applied to, from the batch token the
+   * swaps recorded. Unlike the balance or update time, the token is only written by the swap
+   * itself, so later movements on the card cannot hide a committed swap.
+   *
+   * @param creditCardIds the cards the batch sent swaps for.
+   * @param batchToken the token of the batch.
+   * @return the identifiers of the cards the swaps were applied to.
+   */
+  Flux<String> findAppliedBatch(Collection<String> creditCardIds, String batchToken);
+
+  /**
+   * Applies the maintenance fee of a billing period to several cards in one ordered bulk write.
+   * Each swap only matches if the card still holds the balance and update time it was read with
+   * and has not been billed for the period yet, and records the batch token like
+   * {@link #compareAndSetBalances}.
+   *
+   * @param swaps the balance swaps, already net of the fee.
+   * @param period the billing period, stored in {@code lastMaintenanceFeePeriod}.
+   * @param batchToken a token unique to the batch.
+   * @return the number of swaps that matched.
+   */
+  Mono<Integer> compareAndSetMaintenanceFees(List<BalanceSwap> swaps, String period,
+      String batchToken);
+
+  /**
+   * Applies the maintenance fee of a billing period to one card if it has enough funds not
+   * reserved by holds and has not been billed for the period yet.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param fee the fee to charge.
+   * @param period the billing period.
+   * @return the updated credit card, or empty if the fee was not applied.
+   */
+  Mono<CreditCard> chargeMaintenanceFee(String creditCardId, Money fee, String period);
+
+  /**
+   * Converts the amounts of cards written before amounts were stored as {@code Decimal128}; the
+   * conditional updates neither match nor increment amounts stored as strings.
+   *
+   * @return the number of fields converted; zero once every card is converted.
+   */
+  Mono<Long> convertStringAmounts();
+
+  /**
+   * Converts the amounts of one card written before amounts were stored as {@code Decimal128}.
+   *
+   * @param creditCardId the credit card identifier.
+   * @return whether the card held amounts stored as strings.
+   */
+  Mono<Boolean> convertStringAmounts(String creditCardId);
+
+  /**
+   * Conditional replacement of a card balance used by batch processing.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param expectedBalance the balance the card was read with.
+   * @param expectedUpdatedAt the update time the card was read with.
+   * @param newBalance the balance to set.
+   * @param updatedAt the update time to set.
+   */
+  record BalanceSwap(String creditCardId, Money expectedBalance,
+      LocalDateTime expectedUpdatedAt, Money newBalance, LocalDateTime updatedAt) {
+
+  }
+}
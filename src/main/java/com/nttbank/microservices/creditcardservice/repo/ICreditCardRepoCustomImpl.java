@@ -0,0 +1,303 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.CardHold;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveMongoTemplate} based implementation of {@link ICreditCardRepoCustom}. The balance
+ * predicate is part of the query, so a movement is applied in one round trip and returns the
+ * post-image of the document.
+ */
+@RequiredArgsConstructor
+public class ICreditCardRepoCustomImpl implements ICreditCardRepoCustom {
+
+  private static final String CURRENT_BALANCE = "currentBalance";
+  private static final String CREDIT_LIMIT = "creditLimit";
+  private static final String HELD_AMOUNT = "heldAmount";
+  private static final String PENDING_HOLDS = "pendingHolds";
+  private static final String UPDATED_AT = "updatedAt";
+  private static final String LAST_MAINTENANCE_FEE_PERIOD = "lastMaintenanceFeePeriod";
+  private static final String APPLIED_BATCHES = "appliedBatches";
+  /**
+   * Number of batch tokens kept per card. A token is only looked up right after its own bulk
+   * write, so it only needs to outlive the few batches that could commit on the card meanwhile.
+   */
+  private static final int RECENT_BATCHES = 16;
+  private static final int STREAM_BATCH_SIZE = 500;
+  private static final Set<String> PROJECTABLE_FIELDS = Set.of("id", "customerId", "cardType",
+      CREDIT_LIMIT, CURRENT_BALANCE, "openingBalance", HELD_AMOUNT, "expirationDate",
+      "issueStatementDay", "maintenanceFee", "createdAt", UPDATED_AT, "status");
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  @Override
+  public Mono<CreditCard> chargeIfFundsAvailable(String creditCardId, Money amount) {
+    Query query = Query.query(Criteria.where("id").is(creditCardId))
+        .addCriteria(availableAtLeast(amount));
+    Update update = new Update().inc(CURRENT_BALANCE, amount.negate().toDecimal128())
+        .set(UPDATED_AT, LocalDateTime.now());
+    return mongoTemplate.findAndModify(query, update,
+        FindAndModifyOptions.options().returnNew(true), CreditCard.class);
+  }
+
+  @Override
+  public Mono<CreditCard> holdIfFundsAvailable(CardHold hold) {
+    Query query = withoutMarker(hold).addCriteria(availableAtLeast(hold.getAmount()));
+    Update update = new Update().inc(HELD_AMOUNT, hold.getAmount().toDecimal128())
+        .push(PENDING_HOLDS, hold.marker())
+        .set(UPDATED_AT, LocalDateTime.now());
+    return mongoTemplate.findAndModify(query, update,
+        FindAndModifyOptions.options().returnNew(true), CreditCard.class);
+  }
+
+  @Override
+  public Mono<CreditCard> cancelHold(CardHold hold) {
+    Query query = Query.query(Criteria.where("id").is(hold.getCreditCardId())
+        .and(PENDING_HOLDS).is(hold.marker()));
+    Update update = new Update().inc(HELD_AMOUNT, hold.getAmount().negate().toDecimal128())
+        .pull(PENDING_HOLDS, hold.marker())
+        .set(UPDATED_AT, LocalDateTime.now());
+    return mongoTemplate.findAndModify(query, update,
+        FindAndModifyOptions.options().returnNew(true), CreditCard.class);
+  }
+
+  @Override
+  public Mono<CreditCard> captureHold(CardHold hold) {
+    Decimal128 delta = hold.getAmount().negate().toDecimal128();
+    Update update = new Update().inc(CURRENT_BALANCE, delta).inc(HELD_AMOUNT, delta)
+        .push(PENDING_HOLDS, hold.marker())
+        .set(UPDATED_AT, LocalDateTime.now());
+    return mongoTemplate.findAndModify(withoutMarker(hold), update,
+        FindAndModifyOptions.options().returnNew(true), CreditCard.class);
+  }
+
+  @Override
+  public Mono<CreditCard> releaseHold(CardHold hold) {
+    return mongoTemplate.findAndModify(withoutMarker(hold),
+        releaseUpdate(hold, LocalDateTime.now()),
+        FindAndModifyOptions.options().returnNew(true), CreditCard.class);
+  }
+
+  @Override
+  public Mono<Integer> releaseHolds(List<CardHold> holds) {
+    if (holds.isEmpty()) {
+      return Mono.just(0);
+    }
+    LocalDateTime now = LocalDateTime.now();
+    ReactiveBulkOperations bulkOps = mongoTemplate.bulkOps(BulkMode.UNORDERED, CreditCard.class);
+    holds.forEach(hold -> bulkOps.updateOne(withoutMarker(hold), releaseUpdate(hold, now)));
+    return bulkOps.execute().map(result -> result.getModifiedCount());
+  }
+
+  @Override
+  public Mono<Long> clearHoldMarkers(List<CardHold> holds) {
+    if (holds.isEmpty()) {
+      return Mono.just(0L);
+    }
+    Object[] markers = holds.stream().map(CardHold::marker).toArray();
+    Query query = Query.query(Criteria.where("id")
+        .in(holds.stream().map(CardHold::getCreditCardId).distinct().toList())
+        .and(PENDING_HOLDS).in(markers));
+    return mongoTemplate.updateMulti(query,
+            new Update().pullAll(PENDING_HOLDS, markers), CreditCard.class)
+        .map(result -> result.getModifiedCount());
+  }
+
+  @Override
+  public Mono<CreditCard> payIfWithinLimit(String creditCardId, Money amount) {
+    Decimal128 value = amount.toDecimal128();
+    Query query = Query.query(Criteria.where("id").is(creditCardId))
+        .addCriteria(Criteria.expr(ComparisonOperators
+            .valueOf(ArithmeticOperators.valueOf(CURRENT_BALANCE).add(value))
+            .lessThanEqualTo(CREDIT_LIMIT)));
+    Update update = new Update().inc(CURRENT_BALANCE, value)
+        .set(UPDATED_AT, LocalDateTime.now());
+    return mongoTemplate.findAndModify(query, update,
+        FindAndModifyOptions.options().returnNew(true), CreditCard.class);
+  }
+
+  @Override
+  public Mono<CreditCard> updateDetails(CreditCard details) {
+    Update update = new Update().set(CREDIT_LIMIT, toDecimal128(details.getCreditLimit()))
+        .set(CURRENT_BALANCE, toDecimal128(details.getCurrentBalance()))
+        .set("expirationDate", details.getExpirationDate())
+        .set("issueStatementDay", details.getIssueStatementDay())
+        .set("maintenanceFee", toDecimal128(details.getMaintenanceFee()))
+        .set("status", details.getStatus())
+        .set(UPDATED_AT, details.getUpdatedAt());
+    return mongoTemplate.findAndModify(Query.query(Criteria.where("id").is(details.getId())),
+        update, CreditCard.class);
+  }
+
+  @Override
+  public Mono<CreditCard> replaceReturningPrevious(CreditCard creditCard) {
+    return mongoTemplate.findAndReplace(Query.query(Criteria.where("id").is(creditCard.getId())),
+        creditCard, FindAndReplaceOptions.options().upsert());
+  }
+
+  @Override
+  public Mono<String> findCustomerIdById(String creditCardId) {
+    Query query = Query.query(Criteria.where("id").is(creditCardId));
+    query.fields().include("customerId");
+    return mongoTemplate.findOne(query, CreditCard.class).mapNotNull(CreditCard::getCustomerId);
+  }
+
+  @Override
+  public Mono<CreditCard> findAndRemoveById(String creditCardId) {
+    return mongoTemplate.findAndRemove(Query.query(Criteria.where("id").is(creditCardId)),
+        CreditCard.class);
+  }
+
+  @Override
+  public Flux<CreditCard> streamAll(String customerId, String status, Set<String> fields,
+      String afterId) {
+    Query query = new Query().with(Sort.by("id")).cursorBatchSize(STREAM_BATCH_SIZE);
+    if (customerId != null) {
+      query.addCriteria(Criteria.where("customerId").is(customerId));
+    }
+    if (status != null) {
+      query.addCriteria(Criteria.where("status").is(status));
+    }
+    if (afterId != null) {
+      if (!ObjectId.isValid(afterId)) {
+        throw new IllegalArgumentException("Invalid resume cursor: " + afterId);
+      }
+      query.addCriteria(Criteria.where("id").gt(new ObjectId(afterId)));
+    }
+    if (fields != null && !fields.isEmpty()) {
+      fields.stream().filter(f -> !PROJECTABLE_FIELDS.contains(f)).findAny().ifPresent(f -> {
+        throw new IllegalArgumentException("Unknown credit card field: " + f);
+      });
+      query.fields().include(fields.toArray(String[]::new));
+    }
+    return mongoTemplate.find(query, CreditCard.class);
+  }
+
+  @Override
+  public Mono<Integer> compareAndSetBalances(List<BalanceSwap> swaps, String batchToken) {
+    return executeSwaps(swaps, ICreditCardRepoCustomImpl::compareAndSetQuery,
+        swap -> recordBatch(compareAndSetUpdate(swap), batchToken));
+  }
+
+  @Override
+  public Flux<String> findAppliedBatch(Collection<String> creditCardIds, String batchToken) {
+    Query query = Query.query(Criteria.where("id").in(creditCardIds)
+        .and(APPLIED_BATCHES).is(batchToken));
+    query.fields().include("id");
+    return mongoTemplate.find(query, CreditCard.class).map(CreditCard::getId);
+  }
+
+  @Override
+  public Mono<Integer> compareAndSetMaintenanceFees(List<BalanceSwap> swaps, String period,
+      String batchToken) {
+    return executeSwaps(swaps,
+        swap -> compareAndSetQuery(swap)
+            .addCriteria(Criteria.where(LAST_MAINTENANCE_FEE_PERIOD).ne(period)),
+        swap -> recordBatch(compareAndSetUpdate(swap), batchToken)
+            .set(LAST_MAINTENANCE_FEE_PERIOD, period));
+  }
+
+  @Override
+  public Mono<CreditCard> chargeMaintenanceFee(String creditCardId, Money fee,
+      String period) {
+    Query query = Query.query(Criteria.where("id").is(creditCardId)
+        .and(LAST_MAINTENANCE_FEE_PERIOD).ne(period))
+        .addCriteria(availableAtLeast(fee));
+    Update update = new Update().inc(CURRENT_BALANCE, fee.negate().toDecimal128())
+        .set(LAST_MAINTENANCE_FEE_PERIOD, period)
+        .set(UPDATED_AT, LocalDateTime.now());
+    return mongoTemplate.findAndModify(query, update,
+        FindAndModifyOptions.options().returnNew(true), CreditCard.class);
+  }
+
+  private Mono<Integer> executeSwaps(List<BalanceSwap> swaps,
+      Function<BalanceSwap, Query> query, Function<BalanceSwap, Update> update) {
+    if (swaps.isEmpty()) {
+      return Mono.just(0);
+    }
+    ReactiveBulkOperations bulkOps = mongoTemplate.bulkOps(BulkMode.ORDERED, CreditCard.class);
+    swaps.forEach(swap -> bulkOps.updateOne(query.apply(swap), update.apply(swap)));
+    return bulkOps.execute().map(result -> result.getMatchedCount());
+  }
+
+  @Override
+  public Mono<Long> convertStringAmounts() {
+    return StringAmounts.convert(mongoTemplate, CreditCard.class, CREDIT_LIMIT, CURRENT_BALANCE,
+        "maintenanceFee");
+  }
+
+  @Override
+  public Mono<Boolean> convertStringAmounts(String creditCardId) {
+    return StringAmounts.convertOne(mongoTemplate, CreditCard.class, creditCardId, CREDIT_LIMIT,
+        CURRENT_BALANCE, "maintenanceFee");
+  }
+
+  private static Decimal128 toDecimal128(Money amount) {
+    return amount != null ? amount.toDecimal128() : null;
+  }
+
+  /**
+   * Matches cards whose balance minus the amount held covers the given amount. Cards without
+   * holds have no {@code heldAmount} field.
+   */
+  private static Criteria availableAtLeast(Money amount) {
+    return Criteria.expr(ComparisonOperators
+        .valueOf(ArithmeticOperators.valueOf(CURRENT_BALANCE)
+            .subtract(ConditionalOperators.ifNull(HELD_AMOUNT).then(Decimal128.POSITIVE_ZERO)))
+        .greaterThanEqualToValue(amount.toDecimal128()));
+  }
+
+  /**
+   * Matches the card of a hold unless the card update of the hold's current status was already
+   * applied.
+   */
+  private static Query withoutMarker(CardHold hold) {
+    return Query.query(Criteria.where("id").is(hold.getCreditCardId())
+        .and(PENDING_HOLDS).ne(hold.marker()));
+  }
+
+  private static Update releaseUpdate(CardHold hold, LocalDateTime now) {
+    return new Update().inc(HELD_AMOUNT, hold.getAmount().negate().toDecimal128())
+        .push(PENDING_HOLDS, hold.marker())
+        .set(UPDATED_AT, now);
+  }
+
+  private static Query compareAndSetQuery(BalanceSwap swap) {
+    return Query.query(Criteria.where("id").is(swap.creditCardId())
+        .and(CURRENT_BALANCE).is(swap.expectedBalance().toDecimal128())
+        .and(UPDATED_AT).is(swap.expectedUpdatedAt()));
+  }
+
+  private static Update compareAndSetUpdate(BalanceSwap swap) {
+    return new Update().set(CURRENT_BALANCE, swap.newBalance().toDecimal128())
+        .set(UPDATED_AT, swap.updatedAt());
+  }
+
+  private static Update recordBatch(Update update, String batchToken) {
+    update.push(APPLIED_BATCHES).slice(-RECENT_BATCHES).each(batchToken);
+    return update;
+  }
+}
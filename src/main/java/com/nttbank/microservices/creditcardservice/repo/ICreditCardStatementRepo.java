@@ -0,0 +1,12 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCardStatement;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+/** Repository interface for credit card statements. */
+public interface ICreditCardStatementRepo extends
+    ReactiveMongoRepository<CreditCardStatement, String>, ICreditCardStatementRepoCustom {
+
+  Flux<CreditCardStatement> findAllByCreditCardIdOrderByPeriodEndDesc(String creditCardId);
+}
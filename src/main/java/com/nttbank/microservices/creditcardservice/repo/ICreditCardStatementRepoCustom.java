@@ -0,0 +1,19 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCardStatement;
+import java.util.List;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment for writing credit card statements in bulk.
+ */
+public interface ICreditCardStatementRepoCustom {
+
+  /**
+   * Inserts or replaces the given statements with one unordered bulk write.
+   *
+   * @param statements the statements, with their identifiers set.
+   * @return the number of statements written.
+   */
+  Mono<Integer> upsertAll(List<CreditCardStatement> statements);
+}
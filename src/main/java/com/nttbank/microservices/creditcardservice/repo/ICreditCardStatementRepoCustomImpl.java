@@ -0,0 +1,34 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCardStatement;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveMongoTemplate} based implementation of {@link ICreditCardStatementRepoCustom}.
+ */
+@RequiredArgsConstructor
+public class ICreditCardStatementRepoCustomImpl implements ICreditCardStatementRepoCustom {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  @Override
+  public Mono<Integer> upsertAll(List<CreditCardStatement> statements) {
+    if (statements.isEmpty()) {
+      return Mono.just(0);
+    }
+    ReactiveBulkOperations bulkOps = mongoTemplate.bulkOps(BulkMode.UNORDERED,
+        CreditCardStatement.class);
+    statements.forEach(statement -> bulkOps.replaceOne(
+        Query.query(Criteria.where("id").is(statement.getId())), statement,
+        FindAndReplaceOptions.options().upsert()));
+    return bulkOps.execute().map(result -> statements.size());
+  }
+}
@@ -2,11 +2,13 @@ package com.nttbank.microservices.creditcardservice.repo;
 
 import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
-import reactor.core.publisher.Flux;
 
+/**
+ * Repository interface for credit card transactions. Writes and reads of a card's history go
+ * through the {@link ICreditCardTransactionRepoCustom} methods, which follow the storage layout
+ * selected with {@code creditcard.transactions.layout}.
+ */
 public interface ICreditCardTransactionRepo extends
-    ReactiveMongoRepository<CreditCardTransactions, String> {
-
-  Flux<CreditCardTransactions> findAllByCreditCardId(String creditCardId);
+    ReactiveMongoRepository<CreditCardTransactions, String>, ICreditCardTransactionRepoCustom {
 
 }
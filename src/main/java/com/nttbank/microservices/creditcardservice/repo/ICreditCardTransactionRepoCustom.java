@@ -0,0 +1,144 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.bson.types.ObjectId;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment with the writes, reads and aggregations of a card's transaction
+ * history. With {@code creditcard.transactions.layout=documents} (the default) every transaction
+ * is a document of 'creditcard_transactions'. With {@code buckets} new transactions are appended
+ * to per-card, per-month documents of 'creditcard_transaction_buckets', and reads combine the
+ * buckets with the documents not migrated yet.
+ */
+public interface ICreditCardTransactionRepoCustom {
+
+  /**
+   * Stores transactions in the configured layout.
+   *
+   * @param transactions the transactions to store.
+   * @return completion signal.
+   */
+  Mono<Void> append(List<CreditCardTransactions> transactions);
+
+  /**
+   * Streams the whole history of a card in creation order.
+   *
+   * @param creditCardId the credit card identifier.
+   * @return the transactions of the card.
+   */
+  Flux<CreditCardTransactions> findAllByCreditCardId(String creditCardId);
+
+  /**
+   * Streams one keyset page of a card's transactions created before {@code to}, strictly after
+   * the {@code (afterCreatedAt, afterId)} position, in {@code (createdAt, _id)} order.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param to the end of the window (exclusive).
+   * @param afterCreatedAt the creation time of the last transaction already read.
+   * @param afterId the identifier of the last transaction already read.
+   * @param size the page size.
+   * @return the transactions of the page.
+   */
+  Flux<CreditCardTransactions> findPageByCreditCardId(String creditCardId, LocalDateTime to,
+      LocalDateTime afterCreatedAt, ObjectId afterId, int size);
+
+  /**
+   * Finds the transaction a charge or payment recorded for an idempotency key. Only transactions
+   * created from {@code since} on are searched, so the lookup reads the card's recent history
+   * rather than all of it.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param idempotencyKey the idempotency key of the request.
+   * @param since the time the key was first claimed.
+   * @return the transaction, or empty if the request recorded none.
+   */
+  Mono<CreditCardTransactions> findByIdempotencyKey(String creditCardId, String idempotencyKey,
+      LocalDateTime since);
+
+  /**
+   * Summarizes the transactions of a set of cards inside a time window with one aggregation
+   * pipeline, served by the {@code (creditCardId, createdAt, _id)} index. Cards without
+   * transactions in the window are not returned.
+   *
+   * @param creditCardIds the credit card identifiers.
+   * @param from the start of the window (inclusive).
+   * @param to the end of the window (exclusive).
+   * @return one summary per card with transactions.
+   */
+  Flux<TransactionSummary> summarize(Collection<String> creditCardIds, LocalDateTime from,
+      LocalDateTime to);
+
+  /**
+   * Moves the oldest transaction documents into buckets. A transaction is appended to its bucket
+   * before its document is deleted and is never appended twice, so an interrupted migration can
+   * simply be run again.
+   *
+   * @param limit the maximum number of documents to move.
+   * @return the number of documents moved; zero once the migration is complete.
+   * @throws IllegalStateException if the bucket layout is not enabled.
+   */
+  Mono<Integer> migrateToBuckets(int limit);
+
+  /**
+   * Converts the amounts of transaction documents written before amounts were stored as
+   * {@code Decimal128}. Buckets and archive segments never held string amounts.
+   *
+   * @return the number of fields converted; zero once every document is converted.
+   */
+  Mono<Long> convertStringAmounts();
+
+  /**
+   * Streams the transactions created before {@code cutoff} in segments to archive, ordered by
+   * card. A segment holds transactions of one card and month in {@code (createdAt, _id)} order;
+   * in the bucket layout a whole bucket is one segment.
+   *
+   * @param cutoff the creation time (exclusive) before which transactions are archived.
+   * @param segmentSize the maximum number of transactions of a segment outside buckets.
+   * @return the segments to archive.
+   */
+  Flux<ArchivableSegment> findArchivable(LocalDateTime cutoff, int segmentSize);
+
+  /**
+   * Deletes the transactions of an archived segment.
+   *
+   * @param segment the segment, as returned by {@link #findArchivable(LocalDateTime, int)}.
+   * @return completion signal.
+   */
+  Mono<Void> removeArchived(ArchivableSegment segment);
+
+  /**
+   * Transactions of one card to archive together.
+   *
+   * @param bucketId the bucket holding them, or null if they are documents.
+   * @param transactions the transactions, in {@code (createdAt, _id)} order.
+   */
+  record ArchivableSegment(String bucketId, List<CreditCardTransactions> transactions) {
+
+    public String creditCardId() {
+      return transactions.get(0).getCreditCardId();
+    }
+  }
+
+  /**
+   * Totals of the transactions of one card inside a time window. Payments credit the balance;
+   * every other movement type debits it.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param openingBalance the balance before the first transaction of the window.
+   * @param closingBalance the balance after the last transaction of the window.
+   * @param totalCharges the sum of the debit movements.
+   * @param totalPayments the sum of the payments.
+   * @param transactionCount the number of transactions.
+   */
+  record TransactionSummary(String creditCardId, Money openingBalance,
+      Money closingBalance, Money totalCharges, Money totalPayments,
+      long transactionCount) {
+
+  }
+}
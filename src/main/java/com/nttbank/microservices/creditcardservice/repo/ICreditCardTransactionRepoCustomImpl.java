@@ -0,0 +1,452 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.model.TransactionBucket;
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveMongoTemplate} based implementation of {@link ICreditCardTransactionRepoCustom}.
+ *
+ * <p>In the bucket layout a transaction is appended with one upsert per card and month: the
+ * update pushes the transactions and increments the bucket's count and totals, and only matches a
+ * bucket with room left, so a full bucket makes the upsert insert an overflow bucket. Reads unwind
+ * the buckets of the requested months and union them with the documents of the original
+ * collection; a transaction caught mid-migration may appear in both and is read once. Keyset pages
+ * read one month at a time, jumping to the next month with transactions, and stop once full, so a
+ * page costs at most the months it spans rather than the rest of the history.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ICreditCardTransactionRepoCustomImpl implements ICreditCardTransactionRepoCustom {
+
+  static final String BUCKETS = "buckets";
+
+  private static final String CREDIT_CARD_ID = "creditCardId";
+  private static final String CUSTOMER_ID = "customerId";
+  private static final String CREATED_AT = "createdAt";
+  private static final String AMOUNT = "amount";
+  private static final String TYPE = "type";
+  private static final String BALANCE_AFTER_MOVEMENT = "balanceAfterMovement";
+  private static final String MONTH = "month";
+  private static final String COUNT = "count";
+  private static final String TRANSACTIONS = "transactions";
+  private static final String IDEMPOTENCY_KEY = "idempotencyKey";
+
+  /**
+   * Extra rows read per page in the bucket layout so that a duplicate caught mid-migration does
+   * not shorten the page.
+   */
+  private static final int PAGE_SLACK = 16;
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  @Value("${creditcard.transactions.layout:documents}")
+  private String layout;
+
+  @Value("${creditcard.transactions.bucket.max-size:500}")
+  private int bucketMaxSize;
+
+  @Override
+  public Mono<Void> append(List<CreditCardTransactions> transactions) {
+    if (transactions.isEmpty()) {
+      return Mono.empty();
+    }
+    if (!isBucketLayout()) {
+      return mongoTemplate.insert(transactions, CreditCardTransactions.class).then();
+    }
+    transactions.stream().filter(t -> t.getId() == null)
+        .forEach(t -> t.setId(new ObjectId().toHexString()));
+    return Flux.fromIterable(byBucket(transactions).values())
+        .flatMap(this::push)
+        .then();
+  }
+
+  @Override
+  public Flux<CreditCardTransactions> findAllByCreditCardId(String creditCardId) {
+    if (!isBucketLayout()) {
+      return mongoTemplate.find(Query.query(Criteria.where(CREDIT_CARD_ID).is(creditCardId))
+          .with(Sort.by(CREATED_AT, "id")), CreditCardTransactions.class);
+    }
+    Criteria card = Criteria.where(CREDIT_CARD_ID).is(creditCardId);
+    return history(card, card, new Criteria())
+        .distinctUntilChanged(CreditCardTransactions::getId);
+  }
+
+  @Override
+  public Flux<CreditCardTransactions> findPageByCreditCardId(String creditCardId,
+      LocalDateTime to, LocalDateTime afterCreatedAt, ObjectId afterId, int size) {
+    if (!isBucketLayout()) {
+      Query page = Query.query(new Criteria().andOperator(
+              Criteria.where(CREDIT_CARD_ID).is(creditCardId),
+              Criteria.where(CREATED_AT).lt(to),
+              after("id", afterCreatedAt, afterId)))
+          .with(Sort.by(CREATED_AT, "id"))
+          .limit(size);
+      return mongoTemplate.find(page, CreditCardTransactions.class);
+    }
+    return pageFrom(creditCardId, YearMonth.from(afterCreatedAt), to, afterCreatedAt, afterId,
+        size);
+  }
+
+  @Override
+  public Mono<CreditCardTransactions> findByIdempotencyKey(String creditCardId,
+      String idempotencyKey, LocalDateTime since) {
+    Criteria recent = Criteria.where(CREDIT_CARD_ID).is(creditCardId)
+        .and(CREATED_AT).gte(since);
+    Criteria keyed = Criteria.where(IDEMPOTENCY_KEY).is(idempotencyKey);
+    if (!isBucketLayout()) {
+      return mongoTemplate.findOne(Query.query(new Criteria().andOperator(recent, keyed)),
+          CreditCardTransactions.class);
+    }
+    Criteria buckets = Criteria.where(CREDIT_CARD_ID).is(creditCardId)
+        .and(MONTH).gte(TransactionBucket.month(since))
+        .and(TRANSACTIONS + "." + IDEMPOTENCY_KEY).is(idempotencyKey);
+    return history(buckets, recent, keyed).next();
+  }
+
+  @Override
+  public Flux<TransactionSummary> summarize(Collection<String> creditCardIds,
+      LocalDateTime from, LocalDateTime to) {
+    if (!isBucketLayout()) {
+      Aggregation pipeline = Aggregation.newAggregation(
+          Aggregation.match(Criteria.where(CREDIT_CARD_ID).in(creditCardIds)
+              .and(CREATED_AT).gte(from).lt(to)),
+          Aggregation.sort(Sort.by(CREDIT_CARD_ID, CREATED_AT, "id")),
+          summaryGroup());
+      return mongoTemplate.aggregate(pipeline, CreditCardTransactions.class, Document.class)
+          .map(ICreditCardTransactionRepoCustomImpl::toSummary);
+    }
+    Object fromValue = toMongo(from);
+    Object toValue = toMongo(to);
+    Criteria buckets = Criteria.where(CREDIT_CARD_ID).in(creditCardIds)
+        .and(MONTH).gte(TransactionBucket.month(from)).lte(TransactionBucket.month(to))
+        .and("lastCreatedAt").gte(fromValue)
+        .and("firstCreatedAt").lt(toValue);
+    Criteria window = Criteria.where(CREDIT_CARD_ID).in(creditCardIds)
+        .and(CREATED_AT).gte(fromValue).lt(toValue);
+    List<AggregationOperation> stages = new ArrayList<>(historyStages(buckets, window, window));
+    stages.add(Aggregation.group("_id").first(Aggregation.ROOT).as("transaction"));
+    stages.add(Aggregation.replaceRoot("transaction"));
+    stages.add(Aggregation.sort(Sort.by(CREDIT_CARD_ID, CREATED_AT, "_id")));
+    stages.add(summaryGroup());
+    return mongoTemplate.aggregate(Aggregation.newAggregation(stages)
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build()),
+            mongoTemplate.getCollectionName(TransactionBucket.class), Document.class)
+        .map(ICreditCardTransactionRepoCustomImpl::toSummary);
+  }
+
+  @Override
+  public Mono<Long> convertStringAmounts() {
+    return StringAmounts.convert(mongoTemplate, CreditCardTransactions.class, AMOUNT,
+        BALANCE_AFTER_MOVEMENT);
+  }
+
+  @Override
+  public Mono<Integer> migrateToBuckets(int limit) {
+    if (!isBucketLayout()) {
+      return Mono.error(new IllegalStateException(
+          "Transactions can only be migrated with creditcard.transactions.layout=buckets."));
+    }
+    Query oldest = new Query().with(Sort.by(CREDIT_CARD_ID, CREATED_AT, "id")).limit(limit);
+    return mongoTemplate.find(oldest, CreditCardTransactions.class)
+        .collectList()
+        .flatMap(batch -> batch.isEmpty() ? Mono.just(0) : Flux
+            .fromIterable(byBucket(batch).values())
+            .flatMap(this::pushMissing)
+            .then(mongoTemplate.remove(Query.query(Criteria.where("id")
+                .in(batch.stream().map(CreditCardTransactions::getId).toList())),
+                CreditCardTransactions.class))
+            .doOnNext(result -> log.debug("Moved {} transactions into buckets.",
+                result.getDeletedCount()))
+            .thenReturn(batch.size()));
+  }
+
+  @Override
+  public Flux<ArchivableSegment> findArchivable(LocalDateTime cutoff, int segmentSize) {
+    Query old = Query.query(Criteria.where(CREATED_AT).lt(cutoff))
+        .with(Sort.by(CREDIT_CARD_ID, CREATED_AT, "id"));
+    Flux<ArchivableSegment> documents = mongoTemplate.find(old, CreditCardTransactions.class)
+        .windowUntilChanged(t -> t.getCreditCardId() + '/'
+            + TransactionBucket.month(t.getCreatedAt()))
+        .concatMap(month -> month.buffer(segmentSize))
+        .map(transactions -> new ArchivableSegment(null, transactions));
+    if (!isBucketLayout()) {
+      return documents;
+    }
+    Query oldBuckets = Query.query(Criteria.where("lastCreatedAt").lt(cutoff))
+        .with(Sort.by(CREDIT_CARD_ID, MONTH));
+    Comparator<CreditCardTransactions> order = Comparator
+        .comparing(CreditCardTransactions::getCreatedAt)
+        .thenComparing(CreditCardTransactions::getId);
+    return documents.concatWith(mongoTemplate.find(oldBuckets, TransactionBucket.class)
+        .map(bucket -> new ArchivableSegment(bucket.getId(),
+            bucket.getTransactions().stream().sorted(order).toList())));
+  }
+
+  @Override
+  public Mono<Void> removeArchived(ArchivableSegment segment) {
+    if (segment.bucketId() != null) {
+      return mongoTemplate.remove(Query.query(Criteria.where("id").is(segment.bucketId())
+              .and(COUNT).is(segment.transactions().size())), TransactionBucket.class)
+          .then();
+    }
+    return mongoTemplate.remove(Query.query(Criteria.where("id").in(segment.transactions()
+            .stream().map(CreditCardTransactions::getId).toList())),
+        CreditCardTransactions.class).then();
+  }
+
+  private boolean isBucketLayout() {
+    return BUCKETS.equals(layout);
+  }
+
+  /**
+   * Groups transactions by card and month, keeping their order within each group.
+   */
+  private static Map<String, List<CreditCardTransactions>> byBucket(
+      List<CreditCardTransactions> transactions) {
+    return transactions.stream().collect(Collectors.groupingBy(
+        t -> t.getCreditCardId() + '/' + TransactionBucket.month(t.getCreatedAt()),
+        LinkedHashMap::new, Collectors.toList()));
+  }
+
+  /**
+   * Appends the transactions of one card and month, skipping those already in a bucket.
+   */
+  private Mono<Void> pushMissing(List<CreditCardTransactions> transactions) {
+    CreditCardTransactions first = transactions.get(0);
+    Query existing = Query.query(Criteria.where(CREDIT_CARD_ID).is(first.getCreditCardId())
+        .and(MONTH).is(TransactionBucket.month(first.getCreatedAt()))
+        .and("transactions._id").in(transactions.stream()
+            .map(t -> new ObjectId(t.getId())).toList()));
+    existing.fields().include("transactions._id");
+    return mongoTemplate.find(existing, Document.class,
+            mongoTemplate.getCollectionName(TransactionBucket.class))
+        .flatMapIterable(bucket -> bucket.getList(TRANSACTIONS, Document.class))
+        .map(transaction -> transaction.getObjectId("_id").toHexString())
+        .collect(Collectors.toSet())
+        .flatMap(present -> push(transactions.stream()
+            .filter(t -> !present.contains(t.getId())).toList()));
+  }
+
+  /**
+   * Appends the transactions of one card and month in chunks that each fit in one bucket.
+   */
+  private Mono<Void> push(List<CreditCardTransactions> transactions) {
+    List<List<CreditCardTransactions>> chunks = new ArrayList<>();
+    for (int i = 0; i < transactions.size(); i += bucketMaxSize) {
+      chunks.add(transactions.subList(i, Math.min(i + bucketMaxSize, transactions.size())));
+    }
+    return Flux.fromIterable(chunks).concatMap(this::pushChunk).then();
+  }
+
+  private Mono<Void> pushChunk(List<CreditCardTransactions> chunk) {
+    CreditCardTransactions first = chunk.get(0);
+    Money charges = Money.ZERO;
+    Money payments = Money.ZERO;
+    for (CreditCardTransactions transaction : chunk) {
+      if (Constants.PAYMENT.equals(transaction.getType())) {
+        payments = payments.add(transaction.getAmount());
+      } else {
+        charges = charges.add(transaction.getAmount());
+      }
+    }
+    Query withRoom = Query.query(Criteria.where(CREDIT_CARD_ID).is(first.getCreditCardId())
+        .and(MONTH).is(TransactionBucket.month(first.getCreatedAt()))
+        .and(COUNT).lte(bucketMaxSize - chunk.size()));
+    Update update = new Update()
+        .push(TRANSACTIONS).each(chunk.toArray())
+        .inc(COUNT, chunk.size())
+        .inc("totalCharges", charges.toDecimal128())
+        .inc("totalPayments", payments.toDecimal128())
+        .min("firstCreatedAt", chunk.stream().map(CreditCardTransactions::getCreatedAt)
+            .min(Comparator.naturalOrder()).orElseThrow())
+        .max("lastCreatedAt", chunk.stream().map(CreditCardTransactions::getCreatedAt)
+            .max(Comparator.naturalOrder()).orElseThrow())
+        .setOnInsert(CUSTOMER_ID, first.getCustomerId());
+    return mongoTemplate.upsert(withRoom, update, TransactionBucket.class).then();
+  }
+
+  /**
+   * Reads transactions from the buckets matching {@code buckets} and the documents matching
+   * {@code documents}, filtered by {@code transactions} and sorted by {@code (createdAt, _id)}.
+   * Duplicates are adjacent in the result.
+   */
+  private Flux<CreditCardTransactions> history(Criteria buckets, Criteria documents,
+      Criteria transactions) {
+    List<AggregationOperation> stages = new ArrayList<>(
+        historyStages(buckets, documents, transactions));
+    stages.add(Aggregation.sort(Sort.by(CREATED_AT, "_id")));
+    return mongoTemplate.aggregate(Aggregation.newAggregation(stages),
+        mongoTemplate.getCollectionName(TransactionBucket.class), CreditCardTransactions.class);
+  }
+
+  private List<AggregationOperation> historyStages(Criteria buckets, Criteria documents,
+      Criteria transactions) {
+    return List.of(
+        Aggregation.match(buckets),
+        Aggregation.unwind(TRANSACTIONS),
+        Aggregation.replaceRoot(TRANSACTIONS),
+        UnionWithOperation.unionWith(mongoTemplate.getCollectionName(CreditCardTransactions.class))
+            .pipeline(Aggregation.match(documents)),
+        Aggregation.match(transactions));
+  }
+
+  /**
+   * Reads a keyset page month by month from {@code month} on, skipping the months without
+   * transactions, until the page is full or the window ends.
+   */
+  private Flux<CreditCardTransactions> pageFrom(String creditCardId, YearMonth month,
+      LocalDateTime to, LocalDateTime afterCreatedAt, ObjectId afterId, int size) {
+    return nextMonth(creditCardId, month, to, afterCreatedAt)
+        .flatMapMany(found -> monthPage(creditCardId, found, to, afterCreatedAt, afterId, size)
+            .distinctUntilChanged(CreditCardTransactions::getId)
+            .take(size)
+            .collectList()
+            .flatMapMany(read -> read.size() == size
+                ? Flux.fromIterable(read)
+                : Flux.fromIterable(read).concatWith(Flux.defer(() -> pageFrom(creditCardId,
+                    found.plusMonths(1), to, afterCreatedAt, afterId, size - read.size())))));
+  }
+
+  /**
+   * Finds the first month from {@code from} on with transactions of the card after
+   * {@code afterCreatedAt} and before {@code to}, in a bucket or a document, with one indexed
+   * lookup each.
+   */
+  private Mono<YearMonth> nextMonth(String creditCardId, YearMonth from, LocalDateTime to,
+      LocalDateTime afterCreatedAt) {
+    LocalDateTime monthStart = from.atDay(1).atStartOfDay();
+    LocalDateTime start = afterCreatedAt.isAfter(monthStart) ? afterCreatedAt : monthStart;
+    if (!start.isBefore(to)) {
+      return Mono.empty();
+    }
+    Query bucket = Query.query(Criteria.where(CREDIT_CARD_ID).is(creditCardId)
+            .and(MONTH).gte(from.toString()).lte(TransactionBucket.month(to))
+            .and("lastCreatedAt").gte(start)
+            .and("firstCreatedAt").lt(to))
+        .with(Sort.by(MONTH));
+    bucket.fields().include(MONTH);
+    Query document = Query.query(Criteria.where(CREDIT_CARD_ID).is(creditCardId)
+            .and(CREATED_AT).gte(start).lt(to))
+        .with(Sort.by(CREATED_AT, "id"));
+    document.fields().include(CREATED_AT);
+    return Flux.merge(
+            mongoTemplate.findOne(bucket, TransactionBucket.class)
+                .map(found -> YearMonth.parse(found.getMonth())),
+            mongoTemplate.findOne(document, CreditCardTransactions.class)
+                .map(found -> YearMonth.from(found.getCreatedAt())))
+        .reduce((a, b) -> a.isBefore(b) ? a : b);
+  }
+
+  /**
+   * Reads up to a page of one month's transactions after the keyset position, from its buckets
+   * and from the documents, each side sorted and limited before they are merged.
+   */
+  private Flux<CreditCardTransactions> monthPage(String creditCardId, YearMonth month,
+      LocalDateTime to, LocalDateTime afterCreatedAt, ObjectId afterId, int size) {
+    LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+    Criteria page = new Criteria().andOperator(
+        Criteria.where(CREATED_AT).gte(toMongo(month.atDay(1).atStartOfDay()))
+            .lt(toMongo(monthEnd.isBefore(to) ? monthEnd : to)),
+        after("_id", toMongo(afterCreatedAt), afterId));
+    Sort order = Sort.by(CREATED_AT, "_id");
+    long limit = (long) size + PAGE_SLACK;
+    return mongoTemplate.aggregate(Aggregation.newAggregation(
+            Aggregation.match(Criteria.where(CREDIT_CARD_ID).is(creditCardId)
+                .and(MONTH).is(month.toString())),
+            Aggregation.unwind(TRANSACTIONS),
+            Aggregation.replaceRoot(TRANSACTIONS),
+            Aggregation.match(page),
+            UnionWithOperation.unionWith(
+                    mongoTemplate.getCollectionName(CreditCardTransactions.class))
+                .pipeline(
+                    Aggregation.match(Criteria.where(CREDIT_CARD_ID).is(creditCardId)),
+                    Aggregation.match(page),
+                    Aggregation.sort(order),
+                    Aggregation.limit(limit)),
+            Aggregation.sort(order),
+            Aggregation.limit(limit)),
+        mongoTemplate.getCollectionName(TransactionBucket.class), CreditCardTransactions.class);
+  }
+
+  /**
+   * Keyset condition selecting the transactions strictly after {@code (createdAt, id)}.
+   */
+  private static Criteria after(String idField, Object createdAt, ObjectId id) {
+    return new Criteria().orOperator(
+        Criteria.where(CREATED_AT).gt(createdAt),
+        Criteria.where(CREATED_AT).is(createdAt).and(idField).gt(id));
+  }
+
+  /**
+   * Converts a value the way mapped queries do, for the untyped bucket pipelines whose stages
+   * are not mapped against an entity.
+   */
+  private Object toMongo(Object value) {
+    return mongoTemplate.getConverter().convertToMongoType(value);
+  }
+
+  private static AggregationOperation summaryGroup() {
+    Criteria isPayment = Criteria.where(TYPE).is(Constants.PAYMENT);
+    return Aggregation.group(CREDIT_CARD_ID)
+        .first(BALANCE_AFTER_MOVEMENT).as("firstBalance")
+        .first(AMOUNT).as("firstAmount")
+        .first(TYPE).as("firstType")
+        .last(BALANCE_AFTER_MOVEMENT).as("closingBalance")
+        .sum(ConditionalOperators.when(isPayment).then(0).otherwiseValueOf(AMOUNT))
+        .as("totalCharges")
+        .sum(ConditionalOperators.when(isPayment).thenValueOf(AMOUNT).otherwise(0))
+        .as("totalPayments")
+        .count().as("transactionCount");
+  }
+
+  private static TransactionSummary toSummary(Document group) {
+    Money firstBalance = toMoney(group.get("firstBalance"));
+    Money firstAmount = toMoney(group.get("firstAmount"));
+    Money openingBalance = Constants.PAYMENT.equals(group.getString("firstType"))
+        ? firstBalance.subtract(firstAmount)
+        : firstBalance.add(firstAmount);
+    return new TransactionSummary(group.getString("_id"), openingBalance,
+        toMoney(group.get("closingBalance")), toMoney(group.get("totalCharges")),
+        toMoney(group.get("totalPayments")),
+        ((Number) group.get("transactionCount")).longValue());
+  }
+
+  private static Money toMoney(Object value) {
+    if (value instanceof Decimal128 decimal) {
+      return Money.rounded(decimal.bigDecimalValue());
+    }
+    if (value instanceof Number number) {
+      return Money.rounded(new BigDecimal(number.toString()));
+    }
+    return Money.ZERO;
+  }
+}
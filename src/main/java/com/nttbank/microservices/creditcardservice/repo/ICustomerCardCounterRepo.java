@@ -0,0 +1,10 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.CustomerCardCounter;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/** Repository interface for the materialized customer card counters. */
+public interface ICustomerCardCounterRepo extends
+    ReactiveMongoRepository<CustomerCardCounter, String>, ICustomerCardCounterRepoCustom {
+
+}
@@ -0,0 +1,37 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import java.time.LocalDateTime;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment with the atomic operations on the customer card counters.
+ */
+public interface ICustomerCardCounterRepoCustom {
+
+  /**
+   * Atomically adds a delta to a counter, creating it if it does not exist.
+   *
+   * @param customerId the customer identifier.
+   * @param status the credit card status.
+   * @param delta the value to add.
+   * @return completion signal.
+   */
+  Mono<Void> increment(String customerId, String status, long delta);
+
+  /**
+   * Recomputes every counter from the 'credit_cards' collection with an aggregation pipeline and
+   * removes the counters left at zero. The counters are read before the aggregation, and each one
+   * is corrected by the difference between its aggregated and its read value with {@code $inc}, so
+   * increments made after the aggregation read a card are kept on top of the correction.
+   *
+   * <p>The rebuild is not exact under concurrent writes. A card created between the read of the
+   * counters and the aggregation reaching it is counted twice, by its increment and by the
+   * aggregation; a card deleted in that window is subtracted twice and lost. The error is bounded
+   * by the cards written during one rebuild, and a rebuild run while no cards are written
+   * recomputes every counter exactly.</p>
+   *
+   * @param rebuiltAt the time stamped on every recomputed counter.
+   * @return the number of counters recomputed.
+   */
+  Mono<Long> rebuild(LocalDateTime rebuiltAt);
+}
@@ -0,0 +1,84 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.CustomerCardCounter;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveMongoTemplate} based implementation of {@link ICustomerCardCounterRepoCustom}.
+ * Every write to a counter is an {@code $inc}, including the rebuild, so no increment is ever
+ * overwritten.
+ */
+@RequiredArgsConstructor
+public class ICustomerCardCounterRepoCustomImpl implements ICustomerCardCounterRepoCustom {
+
+  private static final String CUSTOMER_ID = "customerId";
+  private static final String STATUS = "status";
+  private static final String COUNT = "count";
+  private static final String REBUILT_AT = "rebuiltAt";
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  @Override
+  public Mono<Void> increment(String customerId, String status, long delta) {
+    return mongoTemplate.upsert(
+            Query.query(Criteria.where("id").is(CustomerCardCounter.key(customerId, status))),
+            new Update().inc(COUNT, delta)
+                .setOnInsert(CUSTOMER_ID, customerId)
+                .setOnInsert(STATUS, status)
+                .setOnInsert(REBUILT_AT, LocalDateTime.now()),
+            CustomerCardCounter.class)
+        .then();
+  }
+
+  @Override
+  public Mono<Long> rebuild(LocalDateTime rebuiltAt) {
+    Query counted = new Query();
+    counted.fields().include(COUNT);
+    Aggregation pipeline = Aggregation.newAggregation(
+        Aggregation.match(Criteria.where(CUSTOMER_ID).ne(null).and(STATUS).ne(null)),
+        Aggregation.group(CUSTOMER_ID, STATUS).count().as(COUNT));
+    return mongoTemplate.find(counted, CustomerCardCounter.class)
+        .collectMap(CustomerCardCounter::getId, CustomerCardCounter::getCount)
+        .flatMap(before -> {
+          Set<String> recomputed = ConcurrentHashMap.newKeySet();
+          return mongoTemplate.aggregate(pipeline, CreditCard.class, Document.class)
+              .flatMap(group -> {
+                Document key = group.get("_id", Document.class);
+                String customerId = key.getString(CUSTOMER_ID);
+                String status = key.getString(STATUS);
+                String id = CustomerCardCounter.key(customerId, status);
+                recomputed.add(id);
+                long count = ((Number) group.get(COUNT)).longValue();
+                return mongoTemplate.upsert(Query.query(Criteria.where("id").is(id)),
+                    new Update().inc(COUNT, count - before.getOrDefault(id, 0L))
+                        .setOnInsert(CUSTOMER_ID, customerId)
+                        .setOnInsert(STATUS, status)
+                        .set(REBUILT_AT, rebuiltAt),
+                    CustomerCardCounter.class);
+              }, 16)
+              .count()
+              .flatMap(rebuilt -> Flux.fromIterable(before.entrySet())
+                  .filter(counter -> !recomputed.contains(counter.getKey())
+                      && counter.getValue() != 0)
+                  .flatMap(counter -> mongoTemplate.updateFirst(
+                      Query.query(Criteria.where("id").is(counter.getKey())),
+                      new Update().inc(COUNT, -counter.getValue()).set(REBUILT_AT, rebuiltAt),
+                      CustomerCardCounter.class), 16)
+                  .then(mongoTemplate.remove(Query.query(Criteria.where(COUNT).is(0L)),
+                      CustomerCardCounter.class))
+                  .thenReturn(rebuilt));
+        });
+  }
+}
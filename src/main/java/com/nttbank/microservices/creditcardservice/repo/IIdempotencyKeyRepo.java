@@ -0,0 +1,10 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.IdempotencyKey;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/** Repository interface for the idempotency keys of charges and payments. */
+public interface IIdempotencyKeyRepo extends ReactiveMongoRepository<IdempotencyKey, String>,
+    IIdempotencyKeyRepoCustom {
+
+}
@@ -0,0 +1,30 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.IdempotencyKey;
+import java.time.Duration;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment with the claim and completion operations of idempotency keys.
+ */
+public interface IIdempotencyKeyRepoCustom {
+
+  /**
+   * Claims a key for executing its request. The claim succeeds if the key does not exist yet, or
+   * if it is still pending and its owner has not completed it within the lease. Every claim
+   * increments the key's attempts.
+   *
+   * @param key the key with the request and the identifier of the claiming owner.
+   * @param lease the time after which a pending key can be taken over.
+   * @return the claimed key, or empty if the key is completed or pending under another owner.
+   */
+  Mono<IdempotencyKey> claim(IdempotencyKey key, Duration lease);
+
+  /**
+   * Stores the outcome of the request of a claimed key.
+   *
+   * @param key the key with its owner and outcome.
+   * @return completion signal.
+   */
+  Mono<Void> complete(IdempotencyKey key);
+}
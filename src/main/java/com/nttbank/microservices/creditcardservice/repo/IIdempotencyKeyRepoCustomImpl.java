@@ -0,0 +1,58 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.IdempotencyKey;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveMongoTemplate} based implementation of {@link IIdempotencyKeyRepoCustom}.
+ */
+@RequiredArgsConstructor
+public class IIdempotencyKeyRepoCustomImpl implements IIdempotencyKeyRepoCustom {
+
+  private static final String STATUS = "status";
+  private static final String OWNER = "owner";
+  private static final String CLAIMED_AT = "claimedAt";
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  @Override
+  public Mono<IdempotencyKey> claim(IdempotencyKey key, Duration lease) {
+    LocalDateTime now = LocalDateTime.now();
+    Query query = Query.query(Criteria.where("id").is(key.getId())
+        .and(STATUS).is(IdempotencyKey.PENDING)
+        .and(CLAIMED_AT).lt(now.minus(lease)));
+    Update update = new Update()
+        .set(OWNER, key.getOwner())
+        .set(CLAIMED_AT, now)
+        .inc("attempts", 1)
+        .setOnInsert("creditCardId", key.getCreditCardId())
+        .setOnInsert("operation", key.getOperation())
+        .setOnInsert("amount", key.getAmount())
+        .setOnInsert("createdAt", now);
+    return mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().upsert(true).returnNew(true), IdempotencyKey.class)
+        .onErrorResume(DuplicateKeyException.class, e -> Mono.empty());
+  }
+
+  @Override
+  public Mono<Void> complete(IdempotencyKey key) {
+    return mongoTemplate.updateFirst(
+            Query.query(Criteria.where("id").is(key.getId()).and(OWNER).is(key.getOwner())),
+            new Update().set(STATUS, IdempotencyKey.COMPLETED)
+                .set("responseStatus", key.getResponseStatus())
+                .set("message", key.getMessage())
+                .set("response", key.getResponse())
+                .set("completedAt", key.getCompletedAt()),
+            IdempotencyKey.class)
+        .then();
+  }
+}
@@ -0,0 +1,16 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/** Repository interface for batch job runs. */
+public interface IJobRunRepo extends ReactiveMongoRepository<JobRun, String>,
+    IJobRunRepoCustom {
+
+  Mono<JobRun> findFirstByIdStartingWithAndStatusOrderByStartedAtDesc(String prefix,
+      String status);
+
+  Flux<JobRun> findByIdStartingWithAndStatusOrderByStartedAtAsc(String prefix, String status);
+}
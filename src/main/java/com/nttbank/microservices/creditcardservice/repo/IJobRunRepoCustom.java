@@ -0,0 +1,43 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import java.time.Duration;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment with the lease and checkpoint operations of batch job runs.
+ */
+public interface IJobRunRepoCustom {
+
+  /**
+   * Claims a run for an instance. The claim succeeds if the run does not exist yet, already
+   * belongs to the instance, or its owner stopped sending heartbeats.
+   *
+   * @param runId the run identifier.
+   * @param owner the identifier of the claiming instance.
+   * @param leaseTimeout the time after which a silent owner loses the run.
+   * @return the claimed run, or empty if the run is completed or owned by another instance.
+   */
+  Mono<JobRun> claim(String runId, String owner, Duration leaseTimeout);
+
+  /**
+   * Records the progress of a run and renews its lease.
+   *
+   * @param runId the run identifier.
+   * @param owner the identifier of the owning instance.
+   * @param checkpoint the last card id whose work is durably done.
+   * @param cards the number of cards processed since the previous checkpoint.
+   * @return completion signal.
+   */
+  Mono<Void> checkpoint(String runId, String owner, String checkpoint, long cards);
+
+  /**
+   * Marks a run as completed.
+   *
+   * @param runId the run identifier.
+   * @param owner the identifier of the owning instance.
+   * @param cardsPerSecond the throughput of the run.
+   * @return the completed run.
+   */
+  Mono<JobRun> complete(String runId, String owner, double cardsPerSecond);
+}
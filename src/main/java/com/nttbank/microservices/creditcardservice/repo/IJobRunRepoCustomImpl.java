@@ -0,0 +1,67 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReactiveMongoTemplate} based implementation of {@link IJobRunRepoCustom}. A claim is an
+ * upsert guarded by the lease predicate: when the run exists but cannot be claimed, the upsert
+ * collides with the existing identifier and the claim resolves to empty.
+ */
+@RequiredArgsConstructor
+public class IJobRunRepoCustomImpl implements IJobRunRepoCustom {
+
+  private static final String STATUS = "status";
+  private static final String OWNER = "owner";
+  private static final String HEARTBEAT_AT = "heartbeatAt";
+
+  private final ReactiveMongoTemplate mongoTemplate;
+
+  @Override
+  public Mono<JobRun> claim(String runId, String owner, Duration leaseTimeout) {
+    LocalDateTime now = LocalDateTime.now();
+    Query query = Query.query(Criteria.where("id").is(runId)
+        .and(STATUS).ne(JobRun.COMPLETED)
+        .orOperator(Criteria.where(OWNER).is(owner),
+            Criteria.where(HEARTBEAT_AT).lt(now.minus(leaseTimeout))));
+    Update update = new Update()
+        .set(STATUS, JobRun.RUNNING)
+        .set(OWNER, owner)
+        .set(HEARTBEAT_AT, now)
+        .setOnInsert("startedAt", now)
+        .setOnInsert("cardsProcessed", 0L);
+    return mongoTemplate.findAndModify(query, update,
+            FindAndModifyOptions.options().upsert(true).returnNew(true), JobRun.class)
+        .onErrorResume(DuplicateKeyException.class, e -> Mono.empty());
+  }
+
+  @Override
+  public Mono<Void> checkpoint(String runId, String owner, String checkpoint, long cards) {
+    return mongoTemplate.updateFirst(
+            Query.query(Criteria.where("id").is(runId).and(OWNER).is(owner)),
+            new Update().set("checkpoint", checkpoint)
+                .inc("cardsProcessed", cards)
+                .set(HEARTBEAT_AT, LocalDateTime.now()),
+            JobRun.class)
+        .then();
+  }
+
+  @Override
+  public Mono<JobRun> complete(String runId, String owner, double cardsPerSecond) {
+    return mongoTemplate.findAndModify(
+        Query.query(Criteria.where("id").is(runId).and(OWNER).is(owner)),
+        new Update().set(STATUS, JobRun.COMPLETED)
+            .set("cardsPerSecond", cardsPerSecond)
+            .set("finishedAt", LocalDateTime.now()),
+        FindAndModifyOptions.options().returnNew(true), JobRun.class);
+  }
+}
@@ -0,0 +1,12 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.ReconciliationReport;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+/** Repository interface for reconciliation reports. */
+public interface IReconciliationReportRepo extends
+    ReactiveMongoRepository<ReconciliationReport, String> {
+
+  Flux<ReconciliationReport> findByRunIdOrderByCreditCardIdAsc(String runId);
+}
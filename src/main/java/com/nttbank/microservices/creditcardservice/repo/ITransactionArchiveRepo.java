@@ -0,0 +1,35 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import com.nttbank.microservices.creditcardservice.model.TransactionArchiveSegment;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ITransactionArchiveRepo extends
+    ReactiveMongoRepository<TransactionArchiveSegment, String> {
+
+  /**
+   * Streams the archived segments of a card holding transactions created inside
+   * {@code [from, to)}. Served by the {@code (creditCardId, firstCreatedAt, lastCreatedAt)} index.
+   */
+  @Query("{ 'creditCardId': ?0, 'lastCreatedAt': { $gte: ?1 }, 'firstCreatedAt': { $lt: ?2 } }")
+  Flux<TransactionArchiveSegment> findOverlapping(String creditCardId, LocalDateTime from,
+      LocalDateTime to, Sort sort);
+
+  /**
+   * Streams the card of every archived segment of a set of cards, without the segment payloads.
+   * Served by the {@code (creditCardId, firstCreatedAt, lastCreatedAt)} index.
+   */
+  @Query(value = "{ 'creditCardId': { $in: ?0 } }", fields = "{ 'creditCardId': 1 }")
+  Flux<TransactionArchiveSegment> findCardsByCreditCardIdIn(Collection<String> creditCardIds);
+
+  /**
+   * Tells whether a card has archived transactions. Served by the
+   * {@code (creditCardId, firstCreatedAt, lastCreatedAt)} index.
+   */
+  Mono<Boolean> existsByCreditCardId(String creditCardId);
+}
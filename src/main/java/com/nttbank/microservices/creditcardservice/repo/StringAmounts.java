@@ -0,0 +1,47 @@
+package com.nttbank.microservices.creditcardservice.repo;
+
+import java.util.Arrays;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Converts amounts written as strings, the default mapping of {@code BigDecimal} before amounts
+ * were stored as {@code Decimal128}. Each field is converted with one pipeline update that only
+ * matches string values, so a conversion can be repeated and run by several replicas at once.
+ * None of the amount fields is indexed, so converting a whole collection scans it once per field;
+ * a single document is converted with one update by {@code _id}.
+ */
+final class StringAmounts {
+
+  private StringAmounts() {
+  }
+
+  static Mono<Long> convert(ReactiveMongoTemplate mongoTemplate, Class<?> entityClass,
+      String... fields) {
+    return Flux.fromArray(fields)
+        .concatMap(field -> mongoTemplate.updateMulti(
+            Query.query(Criteria.where(field).type(2)),
+            AggregationUpdate.update().set(field)
+                .toValue(ConvertOperators.valueOf(field).convertToDecimal()),
+            entityClass))
+        .reduce(0L, (total, result) -> total + result.getModifiedCount());
+  }
+
+  static Mono<Boolean> convertOne(ReactiveMongoTemplate mongoTemplate, Class<?> entityClass,
+      String id, String... fields) {
+    AggregationUpdate update = AggregationUpdate.update();
+    for (String field : fields) {
+      update.set(field).toValue(ConvertOperators.valueOf(field).convertToDecimal());
+    }
+    Query query = Query.query(Criteria.where("id").is(id)
+        .orOperator(Arrays.stream(fields).map(field -> Criteria.where(field).type(2))
+            .toArray(Criteria[]::new)));
+    return mongoTemplate.updateFirst(query, update, entityClass)
+        .map(result -> result.getModifiedCount() > 0);
+  }
+}
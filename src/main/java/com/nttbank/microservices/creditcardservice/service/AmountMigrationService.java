@@ -0,0 +1,10 @@
+package com.nttbank.microservices.creditcardservice.service;
+
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import reactor.core.publisher.Mono;
+
+/** Service interface for converting amounts stored as strings to {@code Decimal128}. */
+public interface AmountMigrationService {
+
+  Mono<JobRun> convertStringAmounts();
+}
@@ -0,0 +1,11 @@
+package com.nttbank.microservices.creditcardservice.service;
+
+import com.nttbank.microservices.creditcardservice.dto.CardMovementDTO;
+import com.nttbank.microservices.creditcardservice.dto.CardMovementResultDTO;
+import reactor.core.publisher.Flux;
+
+/** Service interface for batched credit card movements. */
+public interface CardMovementService {
+
+  Flux<CardMovementResultDTO> applyMovements(Flux<CardMovementDTO> movements);
+}
@@ -1,7 +1,11 @@
 package com.nttbank.microservices.creditcardservice.service;
 
+import com.nttbank.microservices.creditcardservice.dto.TransactionPageDTO;
+import com.nttbank.microservices.creditcardservice.model.CardHold;
 import com.nttbank.microservices.creditcardservice.model.CreditCard;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -14,13 +18,83 @@ public interface CreditCardService {
 
   Flux<CreditCard> findAll();
 
+  Flux<CreditCard> streamAll(String customerId, String status, Set<String> fields,
+      String afterId);
+
   Mono<CreditCard> findById(String creditCardId);
 
   Mono<Void> delete(String creditCardId);
 
   Mono<Long> totalCreditCardsByCustomer(String customerId, String status);
 
-  Mono<CreditCard> chargeCreditCard(String creditCardId, BigDecimal amount);
+  default Mono<CreditCard> chargeCreditCard(String creditCardId, BigDecimal amount) {
+    return chargeCreditCard(creditCardId, amount, null);
+  }
+
+  /**
+   * Charges a card.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param amount the amount to charge.
+   * @param idempotencyKey the key recorded on the transaction, or null.
+   * @return the card after the charge, empty if the card does not exist, or an
+   *     insufficient-funds rejection.
+   */
+  Mono<CreditCard> chargeCreditCard(String creditCardId, BigDecimal amount,
+      String idempotencyKey);
+
+  default Mono<CreditCard> payCreditCard(String creditCardId, BigDecimal amount) {
+    return payCreditCard(creditCardId, amount, null);
+  }
+
+  /**
+   * Pays into a card.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param amount the amount to pay.
+   * @param idempotencyKey the key recorded on the transaction, or null.
+   * @return the card after the payment, empty if the card does not exist, or an over-payment
+   *     rejection.
+   */
+  Mono<CreditCard> payCreditCard(String creditCardId, BigDecimal amount, String idempotencyKey);
+
+  /**
+   * Reserves credit on a card until the hold is captured, voided or expires.
+   *
+   * @param creditCardId the credit card identifier.
+   * @param amount the amount to hold.
+   * @return the authorized hold, empty if the card does not exist, or an insufficient-funds
+   *     rejection.
+   */
+  Mono<CardHold> authorize(String creditCardId, BigDecimal amount);
+
+  /**
+   * Charges the amount of an authorized hold to its card.
+   *
+   * @param holdId the hold identifier.
+   * @return the card after the charge, or empty if the hold does not exist.
+   */
+  Mono<CreditCard> capture(String holdId);
+
+  /**
+   * Releases the amount of an authorized hold without charging it.
+   *
+   * @param holdId the hold identifier.
+   * @return the voided hold, or empty if the hold does not exist.
+   */
+  Mono<CardHold> voidHold(String holdId);
+
+  /**
+   * Finishes holds left in doubt by a failure between a hold update and its card update: pending
+   * holds have their reservation undone and are deleted, settling holds have their capture or
+   * release applied if the card does not record it yet.
+   *
+   * @param before the time before which the holds were created or closed.
+   * @param limit the maximum number of holds of each kind.
+   * @return the number of holds finished.
+   */
+  Mono<Long> settleHolds(LocalDateTime before, int limit);
 
-  Mono<CreditCard> payCreditCard(String creditCardId, BigDecimal amount);
+  Mono<TransactionPageDTO> findTransactions(String creditCardId, LocalDateTime from,
+      LocalDateTime to, String cursor, int size);
 }
@@ -0,0 +1,14 @@
+package com.nttbank.microservices.creditcardservice.service;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import reactor.core.publisher.Mono;
+
+/** Service interface for the materialized customer card counters. */
+public interface CustomerCardCounterService {
+
+  Mono<Long> count(String customerId, String status);
+
+  Mono<Void> onCardChanged(CreditCard previous, CreditCard current);
+
+  Mono<Long> rebuild();
+}
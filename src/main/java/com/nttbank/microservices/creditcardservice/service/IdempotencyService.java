@@ -0,0 +1,23 @@
+package com.nttbank.microservices.creditcardservice.service;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+import reactor.core.publisher.Mono;
+
+/** Service interface for executing charges and payments at most once per idempotency key. */
+public interface IdempotencyService {
+
+  /**
+   * Executes a charge or payment once per idempotency key and replays its outcome to retries.
+   *
+   * @param idempotencyKey the idempotency key of the request.
+   * @param creditCardId the credit card identifier.
+   * @param operation the operation name.
+   * @param amount the amount of the movement.
+   * @param action applies the movement, recording the idempotency key on its transaction.
+   * @return the card after the movement, as returned the first time.
+   */
+  Mono<CreditCard> execute(String idempotencyKey, String creditCardId, String operation,
+      BigDecimal amount, Supplier<Mono<CreditCard>> action);
+}
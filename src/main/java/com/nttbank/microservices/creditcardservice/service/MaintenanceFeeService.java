@@ -0,0 +1,11 @@
+package com.nttbank.microservices.creditcardservice.service;
+
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import java.time.YearMonth;
+import reactor.core.publisher.Mono;
+
+/** Service interface for maintenance fee billing. */
+public interface MaintenanceFeeService {
+
+  Mono<JobRun> billMaintenanceFees(YearMonth period);
+}
@@ -0,0 +1,14 @@
+package com.nttbank.microservices.creditcardservice.service;
+
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import com.nttbank.microservices.creditcardservice.model.ReconciliationReport;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/** Service interface for the reconciliation of card balances with their transactions. */
+public interface ReconciliationService {
+
+  Mono<JobRun> reconcile(boolean incremental);
+
+  Flux<ReconciliationReport> findReports(String runId);
+}
@@ -0,0 +1,23 @@
+package com.nttbank.microservices.creditcardservice.service;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCardStatement;
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import java.time.LocalDate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/** Service interface for credit card statements. */
+public interface StatementService {
+
+  Mono<JobRun> generateStatements(LocalDate statementDate);
+
+  /**
+   * Resumes the statement runs left running by an instance that stopped, from their checkpoints.
+   * A run whose lease has not expired yet is claimed again once it has.
+   *
+   * @return the runs completed by this instance.
+   */
+  Flux<JobRun> resumeUnfinishedRuns();
+
+  Flux<CreditCardStatement> findByCreditCardId(String creditCardId);
+}
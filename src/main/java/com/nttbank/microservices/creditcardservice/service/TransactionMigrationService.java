@@ -0,0 +1,9 @@
+package com.nttbank.microservices.creditcardservice.service;
+
+import reactor.core.publisher.Mono;
+
+/** Service interface for moving the transaction history between storage layouts. */
+public interface TransactionMigrationService {
+
+  Mono<Long> migrateToBuckets();
+}
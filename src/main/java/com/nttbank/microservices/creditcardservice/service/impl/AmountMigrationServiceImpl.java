@@ -0,0 +1,74 @@
+package com.nttbank.microservices.creditcardservice.service.impl;
+
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.repo.IJobRunRepo;
+import com.nttbank.microservices.creditcardservice.service.AmountMigrationService;
+import java.time.Duration;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of {@link AmountMigrationService}. Cards and transactions written before amounts
+ * were stored as {@code Decimal128} hold them as strings, which the conditional charge and payment
+ * updates never match. The conversion scans both collections, so it runs once per database under
+ * the run lease, in the background after startup or from the admin endpoint, and stays completed
+ * in 'job_runs' afterwards. Until it is done, and for cards written later by instances still on an
+ * older version, a charge or payment that does not match converts its own card and is retried.
+ */
+@Slf4j
+@Service
+public class AmountMigrationServiceImpl implements AmountMigrationService {
+
+  private static final String RUN_ID = "amount-migration";
+
+  private final ICreditCardRepo creditCardRepo;
+  private final ICreditCardTransactionRepo transactionRepo;
+  private final IJobRunRepo jobRunRepo;
+  private final String owner = UUID.randomUUID().toString();
+  private final boolean enabled;
+  private final Duration leaseTimeout;
+
+  public AmountMigrationServiceImpl(ICreditCardRepo creditCardRepo,
+      ICreditCardTransactionRepo transactionRepo, IJobRunRepo jobRunRepo,
+      @Value("${creditcard.migration.amounts.enabled:true}") boolean enabled,
+      @Value("${creditcard.migration.amounts.lease-timeout:30m}") Duration leaseTimeout) {
+    this.creditCardRepo = creditCardRepo;
+    this.transactionRepo = transactionRepo;
+    this.jobRunRepo = jobRunRepo;
+    this.enabled = enabled;
+    this.leaseTimeout = leaseTimeout;
+  }
+
+  @Override
+  public Mono<JobRun> convertStringAmounts() {
+    return jobRunRepo.claim(RUN_ID, owner, leaseTimeout)
+        .flatMap(run -> creditCardRepo.convertStringAmounts()
+            .zipWith(transactionRepo.convertStringAmounts(), Long::sum))
+        .flatMap(total -> {
+          log.info("Converted {} amounts stored as strings to Decimal128.", total);
+          return jobRunRepo.complete(RUN_ID, owner, 0);
+        });
+  }
+
+  /**
+   * Starts the conversion without holding up startup. The updates only match string values, so an
+   * instance that takes the run over after a lost lease repeats them safely.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void convertOnStartup() {
+    if (!enabled) {
+      return;
+    }
+    convertStringAmounts()
+        .subscribe(run -> log.info("Finished converting amounts stored as strings."),
+            error -> log.error("Converting amounts stored as strings failed; it is retried on"
+                + " the next start or from the admin endpoint.", error));
+  }
+}
@@ -0,0 +1,267 @@
+package com.nttbank.microservices.creditcardservice.service.impl;
+
+import com.nttbank.microservices.creditcardservice.cache.CreditCardCache;
+import com.nttbank.microservices.creditcardservice.dto.CardMovementDTO;
+import com.nttbank.microservices.creditcardservice.dto.CardMovementResultDTO;
+import com.nttbank.microservices.creditcardservice.exception.CardRejectionException;
+import com.nttbank.microservices.creditcardservice.metrics.CreditCardMetrics;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepoCustom.BalanceSwap;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.service.CardMovementService;
+import com.nttbank.microservices.creditcardservice.service.CreditCardService;
+import com.nttbank.microservices.creditcardservice.util.BalanceRules;
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+/**
+ * Implementation of {@link CardMovementService}. Movements are processed in batches: the cards of
+ * a batch are read with one query, each card's movements are folded in submission order with the
+ * same rules as the single-call path, the resulting balances are written with one ordered bulk
+ * write of compare-and-set updates, and the transactions are inserted with one bulk insert. Each
+ * update also records a token unique to the batch on the card, so when only part of the bulk write
+ * matches, the committed cards are told from the token rather than from values other writers may
+ * have changed since. Cards modified concurrently while the batch was folded are replayed through
+ * the atomic single-call path.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CardMovementServiceImpl implements CardMovementService {
+
+  private final ICreditCardRepo creditCardRepo;
+  private final ICreditCardTransactionRepo transactionRepo;
+  private final CreditCardService creditCardService;
+  private final CreditCardCache cache;
+  private final CreditCardMetrics metrics;
+
+  @Value("${creditcard.movements.batch-size:1000}")
+  private int batchSize;
+
+  @Override
+  public Flux<CardMovementResultDTO> applyMovements(Flux<CardMovementDTO> movements) {
+    return movements.index()
+        .buffer(batchSize)
+        .concatMap(this::applyBatch);
+  }
+
+  private Flux<CardMovementResultDTO> applyBatch(List<Tuple2<Long, CardMovementDTO>> batch) {
+    List<CardMovementResultDTO> invalid = new ArrayList<>();
+    Map<String, List<IndexedMovement>> byCard = new LinkedHashMap<>();
+    for (Tuple2<Long, CardMovementDTO> item : batch) {
+      IndexedMovement movement = new IndexedMovement(item.getT1(), item.getT2());
+      String error = validate(item.getT2());
+      if (error != null) {
+        invalid.add(result(movement, CardMovementResultDTO.REJECTED, error, null));
+      } else {
+        byCard.computeIfAbsent(item.getT2().getCreditCardId(), id -> new ArrayList<>())
+            .add(movement);
+      }
+    }
+    log.debug("Applying a batch of {} movements over {} cards.", batch.size(), byCard.size());
+    return creditCardRepo.findAllById(byCard.keySet())
+        .collectMap(CreditCard::getId)
+        .flatMapMany(cards -> applyFolds(byCard, cards))
+        .concatWith(Flux.fromIterable(invalid))
+        .sort(Comparator.comparingLong(CardMovementResultDTO::getIndex));
+  }
+
+  private Flux<CardMovementResultDTO> applyFolds(Map<String, List<IndexedMovement>> byCard,
+      Map<String, CreditCard> cards) {
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    List<CardMovementResultDTO> notFound = new ArrayList<>();
+    List<CardFold> changed = new ArrayList<>();
+    List<CardFold> unchanged = new ArrayList<>();
+    byCard.forEach((creditCardId, movements) -> {
+      CreditCard card = cards.get(creditCardId);
+      if (card == null) {
+        movements.forEach(m -> notFound.add(result(m, CardMovementResultDTO.NOT_FOUND,
+            "Credit card not found.", null)));
+        return;
+      }
+      CardFold fold = new CardFold(card, movements, now);
+      (fold.transactions.isEmpty() ? unchanged : changed).add(fold);
+    });
+
+    String batchToken = new ObjectId().toHexString();
+    return creditCardRepo.compareAndSetBalances(changed.stream().map(CardFold::toSwap).toList(),
+            batchToken)
+        .flatMap(matched -> matched == changed.size()
+            ? Mono.just(changed.stream().map(CardFold::creditCardId).collect(Collectors.toSet()))
+            : findCommitted(changed, batchToken))
+        .flatMapMany(committedIds -> {
+          List<CardFold> committed = changed.stream()
+              .filter(f -> committedIds.contains(f.creditCardId())).toList();
+          List<CardFold> conflicted = changed.stream()
+              .filter(f -> !committedIds.contains(f.creditCardId())).toList();
+          if (!conflicted.isEmpty()) {
+            log.debug("Replaying {} cards modified concurrently.", conflicted.size());
+          }
+          return Flux.concat(
+              insertTransactions(committed)
+                  .thenMany(Flux.fromIterable(committed).flatMapIterable(f -> f.results))
+                  .doOnNext(this::countRejection),
+              Flux.fromIterable(conflicted).flatMap(f -> replay(f.movements)),
+              Flux.fromIterable(unchanged).flatMapIterable(f -> f.results)
+                  .doOnNext(this::countRejection),
+              Flux.fromIterable(notFound));
+        });
+  }
+
+  /**
+   * Resolves which balance swaps of a partially matched bulk write were applied, from the cards
+   * that record the batch token.
+   */
+  private Mono<Set<String>> findCommitted(List<CardFold> folds, String batchToken) {
+    return creditCardRepo.findAppliedBatch(folds.stream().map(CardFold::creditCardId).toList(),
+            batchToken)
+        .collect(Collectors.toSet());
+  }
+
+  private Mono<Void> insertTransactions(List<CardFold> folds) {
+    List<CreditCardTransactions> transactions = folds.stream()
+        .flatMap(f -> f.transactions.stream()).toList();
+    folds.forEach(f -> cache.invalidate(f.creditCardId()));
+    return transactions.isEmpty() ? Mono.empty() : transactionRepo.append(transactions);
+  }
+
+  /**
+   * Counts the business-rule rejections of folded movements; replayed movements are counted by the
+   * single-call path.
+   */
+  private void countRejection(CardMovementResultDTO result) {
+    if (Constants.INSUFFICIENT_FUNDS_MESSAGE.equals(result.getMessage())) {
+      metrics.insufficientFunds();
+    } else if (Constants.OVER_PAYMENT_MESSAGE.equals(result.getMessage())) {
+      metrics.overPayment();
+    }
+  }
+
+  private Flux<CardMovementResultDTO> replay(List<IndexedMovement> movements) {
+    return Flux.fromIterable(movements).concatMap(m -> applySingle(m.movement())
+        .map(cc -> result(m, CardMovementResultDTO.APPLIED, null, cc.getCurrentBalance()))
+        .onErrorResume(CardRejectionException.class, e -> Mono.just(
+            result(m, CardMovementResultDTO.REJECTED, e.getMessage(), null)))
+        .defaultIfEmpty(result(m, CardMovementResultDTO.NOT_FOUND, "Credit card not found.",
+            null)));
+  }
+
+  private Mono<CreditCard> applySingle(CardMovementDTO movement) {
+    return Constants.CHARGE.equals(movement.getType())
+        ? creditCardService.chargeCreditCard(movement.getCreditCardId(), movement.getAmount())
+        : creditCardService.payCreditCard(movement.getCreditCardId(), movement.getAmount());
+  }
+
+  private static String validate(CardMovementDTO movement) {
+    if (movement.getCreditCardId() == null) {
+      return "Credit card identifier cannot be null.";
+    }
+    if (!Constants.CHARGE.equals(movement.getType())
+        && !Constants.PAYMENT.equals(movement.getType())) {
+      return "Movement type must be either 'charge' or 'payment'.";
+    }
+    if (movement.getAmount() == null || movement.getAmount().signum() <= 0) {
+      return "Amount must be greater than 0.";
+    }
+    if (movement.getAmount().stripTrailingZeros().scale() > Money.SCALE) {
+      return "Amount cannot have more than two decimals.";
+    }
+    if (!Money.fits(movement.getAmount())) {
+      return "Amount is out of range.";
+    }
+    return null;
+  }
+
+  private static CardMovementResultDTO result(IndexedMovement movement, String result,
+      String message, Money balanceAfterMovement) {
+    return CardMovementResultDTO.builder()
+        .index(movement.index())
+        .creditCardId(movement.movement().getCreditCardId())
+        .type(movement.movement().getType())
+        .amount(movement.movement().getAmount())
+        .result(result)
+        .message(message)
+        .balanceAfterMovement(balanceAfterMovement)
+        .build();
+  }
+
+  private record IndexedMovement(long index, CardMovementDTO movement) {
+
+  }
+
+  /**
+   * In-memory fold of one card's movements, in submission order, starting from the balance the
+   * card was read with.
+   */
+  private static final class CardFold {
+
+    private final CreditCard card;
+    private final List<IndexedMovement> movements;
+    private final LocalDateTime updatedAt;
+    private final List<CardMovementResultDTO> results = new ArrayList<>();
+    private final List<CreditCardTransactions> transactions = new ArrayList<>();
+    private Money balance;
+
+    CardFold(CreditCard card, List<IndexedMovement> movements, LocalDateTime updatedAt) {
+      this.card = card;
+      this.movements = movements;
+      this.updatedAt = updatedAt;
+      this.balance = card.getCurrentBalance();
+      movements.forEach(this::apply);
+    }
+
+    private void apply(IndexedMovement movement) {
+      Money amount = Money.of(movement.movement().getAmount());
+      boolean charge = Constants.CHARGE.equals(movement.movement().getType());
+      if (charge && !BalanceRules.canCharge(
+          BalanceRules.available(balance, card.getHeldAmount()), amount)) {
+        results.add(result(movement, CardMovementResultDTO.REJECTED,
+            Constants.INSUFFICIENT_FUNDS_MESSAGE, null));
+        return;
+      }
+      if (!charge && !BalanceRules.canPay(balance, card.getCreditLimit(), amount)) {
+        results.add(result(movement, CardMovementResultDTO.REJECTED,
+            Constants.OVER_PAYMENT_MESSAGE, null));
+        return;
+      }
+      balance = charge ? balance.subtract(amount) : balance.add(amount);
+      results.add(result(movement, CardMovementResultDTO.APPLIED, null, balance));
+      transactions.add(CreditCardTransactions.builder()
+          .customerId(card.getCustomerId())
+          .creditCardId(card.getId())
+          .balanceAfterMovement(balance)
+          .amount(amount)
+          .type(movement.movement().getType())
+          .createdAt(updatedAt)
+          .build());
+    }
+
+    String creditCardId() {
+      return card.getId();
+    }
+
+    BalanceSwap toSwap() {
+      return new BalanceSwap(card.getId(), card.getCurrentBalance(), card.getUpdatedAt(),
+          balance, updatedAt);
+    }
+  }
+}
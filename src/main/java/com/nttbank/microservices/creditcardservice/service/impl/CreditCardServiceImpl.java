@@ -1,16 +1,37 @@
 package com.nttbank.microservices.creditcardservice.service.impl;
 
+import com.nttbank.microservices.creditcardservice.archive.TransactionArchiver;
+import com.nttbank.microservices.creditcardservice.cache.CreditCardCache;
+import com.nttbank.microservices.creditcardservice.command.CardCommandExecutor;
+import com.nttbank.microservices.creditcardservice.dto.TransactionPageDTO;
+import com.nttbank.microservices.creditcardservice.exception.CardRejectionException;
+import com.nttbank.microservices.creditcardservice.exception.InsufficientFundsException;
+import com.nttbank.microservices.creditcardservice.exception.OverPaymentException;
+import com.nttbank.microservices.creditcardservice.hold.HoldExpiryScheduler;
+import com.nttbank.microservices.creditcardservice.metrics.CreditCardMetrics;
+import com.nttbank.microservices.creditcardservice.model.CardHold;
 import com.nttbank.microservices.creditcardservice.model.CreditCard;
 import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.repo.ICardHoldRepo;
 import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
 import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
 import com.nttbank.microservices.creditcardservice.service.CreditCardService;
+import com.nttbank.microservices.creditcardservice.service.CustomerCardCounterService;
 import com.nttbank.microservices.creditcardservice.util.Constants;
+import com.nttbank.microservices.creditcardservice.util.TransactionCursor;
+import com.nttbank.microservices.creditcardservice.writer.TransactionGroupCommitter;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -26,23 +47,46 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class CreditCardServiceImpl implements CreditCardService {
 
+
   private final ICreditCardRepo creditCardRepo;
   private final ICreditCardTransactionRepo transactionRepo;
+  private final ICardHoldRepo holdRepo;
+  private final CreditCardCache cache;
+  private final CustomerCardCounterService counterService;
+  private final ObjectProvider<CardCommandExecutor> commandExecutor;
+  private final ObjectProvider<TransactionGroupCommitter> groupCommitter;
+  private final ObjectProvider<TransactionArchiver> transactionArchiver;
+  private final ObjectProvider<HoldExpiryScheduler> holdExpiry;
+  private final CreditCardMetrics metrics;
+
+  @Value("${creditcard.holds.ttl:7d}")
+  private Duration holdTtl;
 
   @Override
   public Mono<CreditCard> save(CreditCard t) {
-    return creditCardRepo.save(t);
+    LocalDateTime now = LocalDateTime.now();
+    t.setUpdatedAt(now);
+    if (t.getId() == null) {
+      t.setCreatedAt(now);
+      t.setOpeningBalance(t.getCurrentBalance());
+      return creditCardRepo.save(t)
+          .flatMap(saved -> counterService.onCardChanged(null, saved).thenReturn(saved));
+    }
+    return replace(t);
   }
 
   @Override
   public Mono<CreditCard> update(CreditCard c) {
-    return creditCardRepo.findById(c.getId()).flatMap(creditCardBd -> {
-      CreditCard updatedCreditCard = CreditCard.builder().id(creditCardBd.getId())
-          .customerId(creditCardBd.getCustomerId()).cardType(creditCardBd.getCardType())
+    c.setUpdatedAt(LocalDateTime.now());
+    return creditCardRepo.updateDetails(c).flatMap(previous -> {
+      CreditCard updatedCreditCard = previous.toBuilder()
           .creditLimit(c.getCreditLimit()).currentBalance(c.getCurrentBalance())
           .expirationDate(c.getExpirationDate()).issueStatementDay(c.getIssueStatementDay())
-          .maintenanceFee(c.getMaintenanceFee()).status(c.getStatus()).build();
-      return creditCardRepo.save(updatedCreditCard);
+          .maintenanceFee(c.getMaintenanceFee()).status(c.getStatus())
+          .updatedAt(c.getUpdatedAt()).build();
+      return counterService.onCardChanged(previous, updatedCreditCard)
+          .doOnSuccess(v -> cache.invalidate(c.getId()))
+          .thenReturn(updatedCreditCard);
     });
   }
 
@@ -51,99 +95,277 @@ public class CreditCardServiceImpl implements CreditCardService {
     return creditCardRepo.findAll();
   }
 
+  @Override
+  public Flux<CreditCard> streamAll(String customerId, String status, Set<String> fields,
+      String afterId) {
+    return Flux.defer(() -> creditCardRepo.streamAll(customerId, status, fields, afterId));
+  }
+
   @Override
   public Mono<CreditCard> findById(String creditCardId) {
-    return creditCardRepo.findById(creditCardId).flatMap(creditCard ->
-        transactionRepo.findAllByCreditCardId(creditCardId)
-            .collectList()
-            .map(transactions -> {
-              creditCard.setLstCreditCardTransactions(transactions);
-              return creditCard;
-            })
-    );
+    return cache.get(creditCardId, creditCardRepo::findById);
   }
 
   @Override
   public Mono<Void> delete(String creditCardId) {
-    return creditCardRepo.deleteById(creditCardId);
+    return creditCardRepo.findAndRemoveById(creditCardId)
+        .flatMap(removed -> counterService.onCardChanged(removed, null))
+        .doOnSuccess(v -> cache.invalidate(creditCardId));
   }
 
   @Override
   public Mono<Long> totalCreditCardsByCustomer(String customerId, String status) {
-    return creditCardRepo.countByCustomerIdAndStatus(customerId, status);
+    return counterService.count(customerId, status);
   }
 
   @Override
-  public Mono<CreditCard> chargeCreditCard(String creditCardId, BigDecimal amount) {
-    return findById(creditCardId)
-        .flatMap(creditCard -> {
-          return validateCreditCardFunds(creditCard, amount)
-              .flatMap(this::save)
-              .flatMap(cc -> saveTransaction(cc, amount, Constants.CHARGE))
-              .flatMap(cc -> {
-                cc.setLstCreditCardTransactions(null);
-                return Mono.just(cc);
-              });
-        });
+  public Mono<CreditCard> chargeCreditCard(String creditCardId, BigDecimal amount,
+      String idempotencyKey) {
+    Money scaledAmount = Money.of(amount);
+    return metrics.operation(Constants.CHARGE, sequence(creditCardId, Constants.CHARGE,
+        scaledAmount, idempotencyKey,
+        () -> applyCharge(creditCardId, scaledAmount, idempotencyKey)));
+  }
+
+  @Override
+  public Mono<CreditCard> payCreditCard(String creditCardId, BigDecimal amountPaid,
+      String idempotencyKey) {
+    Money scaledAmount = Money.of(amountPaid);
+    return metrics.operation(Constants.PAYMENT, sequence(creditCardId, Constants.PAYMENT,
+        scaledAmount, idempotencyKey,
+        () -> applyPayment(creditCardId, scaledAmount, idempotencyKey)));
+  }
+
+  /**
+   * Routes a movement through the per-card mailboxes when command sequencing is enabled, or
+   * applies it directly otherwise.
+   */
+  private Mono<CreditCard> sequence(String creditCardId, String type, Money amount,
+      String idempotencyKey, Supplier<Mono<CreditCard>> single) {
+    CardCommandExecutor executor = commandExecutor.getIfAvailable();
+    return executor != null
+        ? executor.submit(creditCardId, type, amount, idempotencyKey, single) : single.get();
+  }
+
+  private Mono<CreditCard> applyCharge(String creditCardId, Money amount,
+      String idempotencyKey) {
+    String operation = Constants.CHARGE;
+    return metrics.stage(operation, CreditCardMetrics.BALANCE_UPDATE,
+            creditCardRepo.chargeIfFundsAvailable(creditCardId, amount)
+                .switchIfEmpty(retryConverted(creditCardId,
+                    () -> creditCardRepo.chargeIfFundsAvailable(creditCardId, amount))))
+        .doOnNext(cc -> cache.invalidate(creditCardId))
+        .flatMap(cc -> metrics.stage(operation, CreditCardMetrics.TRANSACTION_INSERT,
+            saveTransaction(cc, amount, operation, idempotencyKey)))
+        .switchIfEmpty(metrics.stage(operation, CreditCardMetrics.REJECTION_CHECK,
+            rejectIfExists(creditCardId, InsufficientFundsException.INSTANCE,
+                metrics::insufficientFunds)));
+  }
+
+  private Mono<CreditCard> applyPayment(String creditCardId, Money amount,
+      String idempotencyKey) {
+    String operation = Constants.PAYMENT;
+    return metrics.stage(operation, CreditCardMetrics.BALANCE_UPDATE,
+            creditCardRepo.payIfWithinLimit(creditCardId, amount)
+                .switchIfEmpty(retryConverted(creditCardId,
+                    () -> creditCardRepo.payIfWithinLimit(creditCardId, amount))))
+        .doOnNext(cc -> cache.invalidate(creditCardId))
+        .flatMap(cc -> metrics.stage(operation, CreditCardMetrics.TRANSACTION_INSERT,
+            saveTransaction(cc, amount, operation, idempotencyKey)))
+        .switchIfEmpty(metrics.stage(operation, CreditCardMetrics.REJECTION_CHECK,
+            rejectIfExists(creditCardId, OverPaymentException.INSTANCE, metrics::overPayment)));
   }
 
   @Override
-  public Mono<CreditCard> payCreditCard(String creditCardId, BigDecimal amountPaid) {
-    return findById(creditCardId)
-        .flatMap(creditCard -> {
-          return validateAmountToPay(creditCard, amountPaid)
-              .flatMap(this::save)
-              .flatMap(cc -> saveTransaction(cc, amountPaid, Constants.PAYMENT))
-              .flatMap(cc -> {
-                cc.setLstCreditCardTransactions(null);
-                return Mono.just(cc);
-              });
+  public Mono<CardHold> authorize(String creditCardId, BigDecimal amount) {
+    Money scaledAmount = Money.of(amount);
+    if (scaledAmount.signum() <= 0) {
+      return Mono.error(new IllegalArgumentException("Amount must be greater than 0."));
+    }
+    LocalDateTime now = LocalDateTime.now();
+    return holdRepo.insert(CardHold.builder()
+            .creditCardId(creditCardId)
+            .amount(scaledAmount)
+            .status(CardHold.PENDING)
+            .createdAt(now)
+            .expiresAt(now.plus(holdTtl))
+            .build())
+        .flatMap(pending -> creditCardRepo.holdIfFundsAvailable(pending)
+            .doOnNext(cc -> cache.invalidate(creditCardId))
+            .flatMap(cc -> holdRepo.activate(pending.getId(), cc.getCustomerId())
+                .switchIfEmpty(creditCardRepo.cancelHold(pending)
+                    .then(Mono.error(new IllegalStateException(
+                        "The hold was cancelled before it was authorized.")))))
+            .flatMap(hold -> creditCardRepo.clearHoldMarkers(List.of(pending)).thenReturn(hold))
+            .switchIfEmpty(holdRepo.deletePending(pending.getId())
+                .then(rejectIfExists(creditCardId, InsufficientFundsException.INSTANCE,
+                    metrics::insufficientFunds))))
+        .doOnNext(hold -> holdExpiry.ifAvailable(scheduler -> scheduler.schedule(hold)));
+  }
+
+  @Override
+  public Mono<CreditCard> capture(String holdId) {
+    return holdRepo.close(holdId, CardHold.CAPTURED, LocalDateTime.now())
+        .switchIfEmpty(rejectIfHoldExists(holdId))
+        .doOnNext(hold -> holdExpiry.ifAvailable(scheduler -> scheduler.cancel(holdId)))
+        .flatMap(hold -> applyCapture(hold)
+            .flatMap(cc -> markSettled(hold).thenReturn(cc)));
+  }
+
+  @Override
+  public Mono<CardHold> voidHold(String holdId) {
+    return holdRepo.close(holdId, CardHold.VOIDED, LocalDateTime.now())
+        .switchIfEmpty(rejectIfHoldExists(holdId))
+        .doOnNext(hold -> holdExpiry.ifAvailable(scheduler -> scheduler.cancel(holdId)))
+        .flatMap(hold -> applyRelease(hold)
+            .then(markSettled(hold))
+            .thenReturn(hold));
+  }
+
+  @Override
+  public Mono<Long> settleHolds(LocalDateTime before, int limit) {
+    return holdRepo.findInDoubt(before, limit)
+        .concatMap(hold -> finish(hold).thenReturn(hold))
+        .count()
+        .doOnNext(count -> {
+          if (count > 0) {
+            log.warn("Finished {} holds left pending or settling.", count);
+          }
         });
   }
 
-  private Mono<CreditCard> validateAmountToPay(CreditCard creditCard, BigDecimal amountPaid) {
-    BigDecimal totalPaid = creditCard.getCurrentBalance()
-        .add(amountPaid)
-        .setScale(2, RoundingMode.HALF_UP);
-    return Mono.just(creditCard)
-        .filter(cc -> cc.getCreditLimit().compareTo(totalPaid) >= 0)
-        .flatMap(filteredCreditCard -> {
-          BigDecimal newBalance = filteredCreditCard.getCurrentBalance()
-              .add(amountPaid)
-              .setScale(2, RoundingMode.HALF_UP);
-          filteredCreditCard.setCurrentBalance(newBalance);
-          return Mono.just(filteredCreditCard);
-        })
-        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
-            "Cannot pay more than the total amount owed (including credit limit).")));
-  }
-
-  private Mono<CreditCard> validateCreditCardFunds(CreditCard creditCard, BigDecimal amount) {
-    return Mono.just(creditCard)
-        .filter(cc -> cc.getCurrentBalance().compareTo(amount) >= 0)
-        .flatMap(cc -> {
-          BigDecimal newBalance = cc.getCurrentBalance()
-              .subtract(amount)
-              .setScale(2, RoundingMode.HALF_UP);
-          cc.setCurrentBalance(newBalance);
-          return Mono.just(cc);
-        })
-        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
-            "Insufficient funds in the credit card.")));
-  }
-
-  private Mono<CreditCard> saveTransaction(CreditCard creditCard, BigDecimal amount,
-      String action) {
-    log.info("Saving the {} transaction.", action);
-    return transactionRepo.save(CreditCardTransactions.builder()
+  @Override
+  public Mono<TransactionPageDTO> findTransactions(String creditCardId, LocalDateTime from,
+      LocalDateTime to, String cursor, int size) {
+    TransactionCursor position = cursor != null
+        ? TransactionCursor.decode(cursor)
+        : TransactionCursor.startingAt(from != null ? from : Constants.HISTORY_START);
+    if (from != null && position.createdAt().isBefore(from)) {
+      position = TransactionCursor.startingAt(from);
+    }
+    LocalDateTime end = to != null ? to : Constants.HISTORY_END;
+    Flux<CreditCardTransactions> page = transactionRepo.findPageByCreditCardId(creditCardId, end,
+        position.createdAt(), position.id(), size);
+    TransactionArchiver archiver = transactionArchiver.getIfAvailable();
+    if (archiver != null) {
+      page = archiver.withArchived(page, creditCardId, end, position.createdAt(), position.id())
+          .take(size);
+    }
+    return page.collectList()
+        .map(transactions -> TransactionPageDTO.builder()
+            .transactions(transactions)
+            .nextCursor(transactions.size() < size ? null
+                : TransactionCursor.after(transactions.get(transactions.size() - 1)).encode())
+            .build());
+  }
+
+  /**
+   * Replaces a card and moves it between the customer counters when its status changed.
+   */
+  private Mono<CreditCard> replace(CreditCard creditCard) {
+    return creditCardRepo.replaceReturningPrevious(creditCard)
+        .map(Optional::of)
+        .defaultIfEmpty(Optional.empty())
+        .flatMap(previous -> counterService.onCardChanged(previous.orElse(null), creditCard))
+        .doOnSuccess(v -> cache.invalidate(creditCard.getId()))
+        .thenReturn(creditCard);
+  }
+
+  /**
+   * Retries a conditional update that did not match because the card still holds amounts stored
+   * as strings, once its amounts are converted. Cards already converted are left to the rejection
+   * check.
+   */
+  private Mono<CreditCard> retryConverted(String creditCardId,
+      Supplier<Mono<CreditCard>> update) {
+    return Mono.defer(() -> creditCardRepo.convertStringAmounts(creditCardId))
+        .filter(Boolean::booleanValue)
+        .flatMap(converted -> update.get());
+  }
+
+  /**
+   * Resolves an empty conditional update: the card either does not exist (empty result, mapped to
+   * 404 by the controller) or the balance predicate rejected the movement with the given
+   * rejection.
+   */
+  private <T> Mono<T> rejectIfExists(String creditCardId, CardRejectionException rejection,
+      Runnable onRejected) {
+    return creditCardRepo.existsById(creditCardId)
+        .filter(Boolean::booleanValue)
+        .doOnNext(exists -> onRejected.run())
+        .flatMap(exists -> Mono.error(rejection));
+  }
+
+  /**
+   * Finishes a hold left in doubt: a pending hold is cancelled, a settling hold settled.
+   */
+  private Mono<Void> finish(CardHold hold) {
+    if (CardHold.PENDING.equals(hold.getStatus())) {
+      return creditCardRepo.cancelHold(hold)
+          .doOnNext(cc -> cache.invalidate(cc.getId()))
+          .then(holdRepo.deletePending(hold.getId()))
+          .then();
+    }
+    Mono<CreditCard> applied = CardHold.CAPTURED.equals(hold.getStatus())
+        ? applyCapture(hold) : applyRelease(hold);
+    return applied.then(markSettled(hold));
+  }
+
+  /**
+   * Charges a captured hold to its card and records the charge, unless the card already records
+   * the capture.
+   */
+  private Mono<CreditCard> applyCapture(CardHold hold) {
+    return creditCardRepo.captureHold(hold)
+        .doOnNext(cc -> cache.invalidate(cc.getId()))
+        .flatMap(cc -> saveTransaction(cc, hold.getAmount(), Constants.CHARGE, null));
+  }
+
+  /**
+   * Returns the amount of a voided or expired hold to its card, unless the card already records
+   * the release.
+   */
+  private Mono<CreditCard> applyRelease(CardHold hold) {
+    return creditCardRepo.releaseHold(hold)
+        .doOnNext(cc -> cache.invalidate(cc.getId()));
+  }
+
+  /**
+   * Ends the settling of a closed hold whose card update is applied, then drops its marker from
+   * the card. A marker left behind when the last step fails no longer matches any update.
+   */
+  private Mono<Void> markSettled(CardHold hold) {
+    return holdRepo.markSettled(List.of(hold.getId()))
+        .then(creditCardRepo.clearHoldMarkers(List.of(hold)))
+        .then();
+  }
+
+  /**
+   * Resolves a hold that could not be closed: it either does not exist (empty result, mapped to
+   * 404 by the controller) or was already captured, voided or expired.
+   */
+  private Mono<CardHold> rejectIfHoldExists(String holdId) {
+    return holdRepo.existsById(holdId)
+        .filter(Boolean::booleanValue)
+        .flatMap(exists -> Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+            "The hold is no longer authorized.")));
+  }
+
+  private Mono<CreditCard> saveTransaction(CreditCard creditCard, Money amount,
+      String action, String idempotencyKey) {
+    log.debug("Saving the {} transaction.", action);
+    CreditCardTransactions transaction = CreditCardTransactions.builder()
         .customerId(creditCard.getCustomerId())
         .creditCardId(creditCard.getId())
         .balanceAfterMovement(creditCard.getCurrentBalance())
         .amount(amount)
         .type(action)
         .createdAt(LocalDateTime.now())
-        .build()
-    ).thenReturn(creditCard);
+        .idempotencyKey(idempotencyKey)
+        .build();
+    TransactionGroupCommitter committer = groupCommitter.getIfAvailable();
+    return (committer != null ? committer.submit(transaction)
+        : transactionRepo.append(List.of(transaction))).thenReturn(creditCard);
   }
 
 
@@ -0,0 +1,112 @@
+package com.nttbank.microservices.creditcardservice.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.CustomerCardCounter;
+import com.nttbank.microservices.creditcardservice.repo.ICustomerCardCounterRepo;
+import com.nttbank.microservices.creditcardservice.repo.IJobRunRepo;
+import com.nttbank.microservices.creditcardservice.service.CustomerCardCounterService;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of {@link CustomerCardCounterService}. Counters live in the
+ * 'customer_card_counters' collection, are adjusted atomically on every card write and are
+ * fronted by a short-lived in-memory cache, so a count is a key lookup instead of a count scan.
+ * A write only invalidates the cache of its own replica; the others serve the previous count until
+ * it expires after {@code creditcard.counters.cache-ttl}. The counters are seeded from
+ * 'credit_cards' by the first instance that starts, under the run lease. The seed runs in the
+ * background once the application is ready, so on a database without counters the counts are
+ * partial until it finishes.
+ */
+@Slf4j
+@Service
+public class CustomerCardCounterServiceImpl implements CustomerCardCounterService {
+
+  private static final String SEED_RUN_ID = "customer-card-counters:seed";
+
+  private final ICustomerCardCounterRepo counterRepo;
+  private final IJobRunRepo jobRunRepo;
+  private final AsyncCache<String, Long> cache;
+  private final String owner = UUID.randomUUID().toString();
+  private final Duration leaseTimeout;
+
+  public CustomerCardCounterServiceImpl(ICustomerCardCounterRepo counterRepo,
+      IJobRunRepo jobRunRepo,
+      @Value("${creditcard.counters.cache-ttl:5s}") Duration cacheTtl,
+      @Value("${creditcard.counters.lease-timeout:5m}") Duration leaseTimeout) {
+    this.counterRepo = counterRepo;
+    this.jobRunRepo = jobRunRepo;
+    this.leaseTimeout = leaseTimeout;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterWrite(cacheTtl)
+        .buildAsync();
+  }
+
+  @Override
+  public Mono<Long> count(String customerId, String status) {
+    return Mono.fromFuture(() -> cache.get(CustomerCardCounter.key(customerId, status),
+        (key, executor) -> counterRepo.findById(key)
+            .map(CustomerCardCounter::getCount)
+            .defaultIfEmpty(0L)
+            .toFuture()), true);
+  }
+
+  @Override
+  public Mono<Void> onCardChanged(CreditCard previous, CreditCard current) {
+    String previousKey = keyOf(previous);
+    String currentKey = keyOf(current);
+    if (Objects.equals(previousKey, currentKey)) {
+      return Mono.empty();
+    }
+    Mono<Void> decrement = previousKey == null ? Mono.empty()
+        : counterRepo.increment(previous.getCustomerId(), previous.getStatus(), -1)
+            .doOnSuccess(v -> cache.synchronous().invalidate(previousKey));
+    Mono<Void> increment = currentKey == null ? Mono.empty()
+        : counterRepo.increment(current.getCustomerId(), current.getStatus(), 1)
+            .doOnSuccess(v -> cache.synchronous().invalidate(currentKey));
+    return decrement.then(increment);
+  }
+
+  @Override
+  public Mono<Long> rebuild() {
+    LocalDateTime startedAt = LocalDateTime.now();
+    return counterRepo.rebuild(startedAt)
+        .doOnNext(rebuilt -> {
+          cache.synchronous().invalidateAll();
+          log.info("Rebuilt {} customer card counters.", rebuilt);
+        });
+  }
+
+  /**
+   * Seeds the counters once per database. The seed run stays completed in 'job_runs', so later
+   * starts skip it; an instance that stops mid-seed leaves the run to the next one that starts
+   * after its lease expires.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void seed() {
+    jobRunRepo.claim(SEED_RUN_ID, owner, leaseTimeout)
+        .flatMap(run -> rebuild())
+        .flatMap(rebuilt -> jobRunRepo.complete(SEED_RUN_ID, owner, 0))
+        .subscribe(run -> log.info("Seeded the customer card counters."),
+            error -> log.error("Seeding the customer card counters failed.", error));
+  }
+
+  private static String keyOf(CreditCard creditCard) {
+    if (creditCard == null || creditCard.getCustomerId() == null
+        || creditCard.getStatus() == null) {
+      return null;
+    }
+    return CustomerCardCounter.key(creditCard.getCustomerId(), creditCard.getStatus());
+  }
+}
@@ -0,0 +1,173 @@
+package com.nttbank.microservices.creditcardservice.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nttbank.microservices.creditcardservice.exception.CardRejectionException;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.IdempotencyKey;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.repo.IIdempotencyKeyRepo;
+import com.nttbank.microservices.creditcardservice.service.IdempotencyService;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of {@link IdempotencyService}. Completed outcomes are kept in a bounded
+ * in-memory cache in front of the 'idempotency_keys' collection, so a retry on the same instance
+ * is answered from memory and a retry on another instance from one key lookup, both without
+ * touching the card. Concurrent duplicates on one instance share the future of the first
+ * request; duplicates on other instances wait for the stored outcome.
+ *
+ * <p>The key is passed to the action and recorded on the transaction of the movement, in the same
+ * write as the movement itself. A key is never released once its action was started: if the
+ * action fails or its outcome cannot be stored, the key stays pending until its lease expires,
+ * and the request that takes it over first looks for a transaction recorded with the key. If one
+ * exists the movement is replayed from it instead of being applied again.</p>
+ */
+@Slf4j
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+  private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+
+  private final IIdempotencyKeyRepo idempotencyKeyRepo;
+  private final ICreditCardTransactionRepo transactionRepo;
+  private final ICreditCardRepo creditCardRepo;
+  private final AsyncCache<String, IdempotencyKey> cache;
+  private final Duration lease;
+  private final long maxPolls;
+
+  public IdempotencyServiceImpl(IIdempotencyKeyRepo idempotencyKeyRepo,
+      ICreditCardTransactionRepo transactionRepo, ICreditCardRepo creditCardRepo,
+      @Value("${creditcard.idempotency.maximum-size:10000}") long maximumSize,
+      @Value("${creditcard.idempotency.ttl:10m}") Duration ttl,
+      @Value("${creditcard.idempotency.lease:30s}") Duration lease,
+      @Value("${creditcard.idempotency.wait-timeout:5s}") Duration waitTimeout) {
+    this.idempotencyKeyRepo = idempotencyKeyRepo;
+    this.transactionRepo = transactionRepo;
+    this.creditCardRepo = creditCardRepo;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .buildAsync();
+    this.lease = lease;
+    this.maxPolls = Math.max(1, waitTimeout.toMillis() / POLL_INTERVAL.toMillis());
+  }
+
+  @Override
+  public Mono<CreditCard> execute(String idempotencyKey, String creditCardId, String operation,
+      BigDecimal amount, Supplier<Mono<CreditCard>> action) {
+    Money scaledAmount = Money.of(amount);
+    return Mono.fromFuture(() -> cache.get(idempotencyKey, (key, executor) ->
+            resolve(key, creditCardId, operation, scaledAmount, action).toFuture()), true)
+        .flatMap(outcome -> outcome.matches(creditCardId, operation, scaledAmount)
+            ? replay(outcome) : Mono.error(keyReused()));
+  }
+
+  /**
+   * Executes the request if this instance wins the key, otherwise waits for the outcome stored
+   * by the owner. Completes with a completed key; unexpected failures are not cached and leave
+   * the key pending, so the request can be retried once the lease expires.
+   */
+  private Mono<IdempotencyKey> resolve(String key, String creditCardId, String operation,
+      Money amount, Supplier<Mono<CreditCard>> action) {
+    IdempotencyKey pending = IdempotencyKey.builder()
+        .id(key)
+        .creditCardId(creditCardId)
+        .operation(operation)
+        .amount(amount)
+        .owner(UUID.randomUUID().toString())
+        .build();
+    return idempotencyKeyRepo.claim(pending, lease)
+        .flatMap(claimed -> claimed.matches(creditCardId, operation, amount)
+            ? start(claimed, action) : Mono.error(keyReused()))
+        .switchIfEmpty(Mono.defer(() -> awaitCompletion(key)));
+  }
+
+  /**
+   * Runs the action of a freshly claimed key. A key taken over after its lease expired may
+   * already have had its movement applied, so the movement recorded with the key is looked up
+   * first, from the key's creation less the lease to allow for clocks differing between
+   * instances.
+   */
+  private Mono<IdempotencyKey> start(IdempotencyKey claimed,
+      Supplier<Mono<CreditCard>> action) {
+    if (claimed.getAttempts() <= 1) {
+      return run(claimed, action);
+    }
+    return transactionRepo.findByIdempotencyKey(claimed.getCreditCardId(), claimed.getId(),
+            claimed.getCreatedAt().minus(lease))
+        .flatMap(transaction -> creditCardRepo.findById(claimed.getCreditCardId())
+            .map(card -> completed(claimed, HttpStatus.OK.value(), null, card.toBuilder()
+                .currentBalance(transaction.getBalanceAfterMovement()).build()))
+            .defaultIfEmpty(completed(claimed, HttpStatus.NOT_FOUND.value(), null, null)))
+        .doOnNext(outcome -> log.info("Replaying the movement recorded for idempotency key {}.",
+            claimed.getId()))
+        .flatMap(outcome -> idempotencyKeyRepo.complete(outcome).thenReturn(outcome))
+        .switchIfEmpty(Mono.defer(() -> run(claimed, action)));
+  }
+
+  private Mono<IdempotencyKey> run(IdempotencyKey claimed, Supplier<Mono<CreditCard>> action) {
+    return action.get()
+        .map(card -> completed(claimed, HttpStatus.OK.value(), null, card))
+        .switchIfEmpty(Mono.fromSupplier(() -> completed(claimed,
+            HttpStatus.NOT_FOUND.value(), null, null)))
+        .onErrorResume(CardRejectionException.class, e -> Mono.just(completed(claimed,
+            e.getStatus().value(), e.getMessage(), null)))
+        .onErrorResume(ResponseStatusException.class, e -> Mono.just(completed(claimed,
+            e.getStatusCode().value(), e.getReason(), null)))
+        .flatMap(outcome -> idempotencyKeyRepo.complete(outcome).thenReturn(outcome));
+  }
+
+  private Mono<IdempotencyKey> awaitCompletion(String key) {
+    return idempotencyKeyRepo.findById(key)
+        .filter(stored -> IdempotencyKey.COMPLETED.equals(stored.getStatus()))
+        .repeatWhenEmpty(Math.toIntExact(maxPolls),
+            attempts -> attempts.delayElements(POLL_INTERVAL))
+        .onErrorResume(IllegalStateException.class, e -> Mono.empty())
+        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+            "A request with this idempotency key is still in progress.")));
+  }
+
+  private static IdempotencyKey completed(IdempotencyKey claimed, int status, String message,
+      CreditCard response) {
+    return claimed.toBuilder()
+        .status(IdempotencyKey.COMPLETED)
+        .responseStatus(status)
+        .message(message)
+        .response(response)
+        .completedAt(LocalDateTime.now())
+        .build();
+  }
+
+  private static Mono<CreditCard> replay(IdempotencyKey outcome) {
+    if (outcome.getResponseStatus() == HttpStatus.OK.value()) {
+      return Mono.just(outcome.getResponse());
+    }
+    if (outcome.getResponseStatus() == HttpStatus.NOT_FOUND.value()) {
+      return Mono.empty();
+    }
+    CardRejectionException rejection = CardRejectionException.forReason(outcome.getMessage());
+    if (rejection != null) {
+      return Mono.error(rejection);
+    }
+    return Mono.error(new ResponseStatusException(
+        HttpStatus.valueOf(outcome.getResponseStatus()), outcome.getMessage()));
+  }
+
+  private static ResponseStatusException keyReused() {
+    return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+        "Idempotency key already used with a different request.");
+  }
+}
@@ -0,0 +1,195 @@
+package com.nttbank.microservices.creditcardservice.service.impl;
+
+import com.nttbank.microservices.creditcardservice.cache.CreditCardCache;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepoCustom.BalanceSwap;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.repo.IJobRunRepo;
+import com.nttbank.microservices.creditcardservice.service.MaintenanceFeeService;
+import com.nttbank.microservices.creditcardservice.util.BalanceRules;
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of {@link MaintenanceFeeService}. A run streams the billable cards that were not
+ * billed for the period yet, in {@code _id} order, and processes them in batches with bounded
+ * parallelism. Each batch applies the fees with one ordered bulk write of compare-and-set updates
+ * that also stamp the billing period and a token unique to the batch on the card, and records them
+ * with one bulk insert into 'creditcard_transactions'. The period stamp makes reruns skip billed
+ * cards, and batches are checkpointed in order so an interrupted run resumes where it stopped.
+ */
+@Slf4j
+@Service
+public class MaintenanceFeeServiceImpl implements MaintenanceFeeService {
+
+  private static final String MIN_CARD_ID = "000000000000000000000000";
+
+  private final ICreditCardRepo creditCardRepo;
+  private final ICreditCardTransactionRepo transactionRepo;
+  private final IJobRunRepo jobRunRepo;
+  private final CreditCardCache cache;
+  private final String owner = UUID.randomUUID().toString();
+  private final String billableStatus;
+  private final int batchSize;
+  private final int parallelism;
+  private final Duration leaseTimeout;
+  private final Counter billed;
+  private final Counter rejected;
+  private final Timer batchTimer;
+
+  public MaintenanceFeeServiceImpl(ICreditCardRepo creditCardRepo,
+      ICreditCardTransactionRepo transactionRepo, IJobRunRepo jobRunRepo,
+      CreditCardCache cache, MeterRegistry meterRegistry,
+      @Value("${creditcard.maintenance-fee.status:active}") String billableStatus,
+      @Value("${creditcard.maintenance-fee.batch-size:500}") int batchSize,
+      @Value("${creditcard.maintenance-fee.parallelism:4}") int parallelism,
+      @Value("${creditcard.maintenance-fee.lease-timeout:5m}") Duration leaseTimeout) {
+    this.creditCardRepo = creditCardRepo;
+    this.transactionRepo = transactionRepo;
+    this.jobRunRepo = jobRunRepo;
+    this.cache = cache;
+    this.billableStatus = billableStatus;
+    this.batchSize = batchSize;
+    this.parallelism = parallelism;
+    this.leaseTimeout = leaseTimeout;
+    this.billed = Counter.builder("creditcard.maintenance_fee.billed")
+        .description("Cards billed with their maintenance fee")
+        .register(meterRegistry);
+    this.rejected = Counter.builder("creditcard.maintenance_fee.rejected")
+        .description("Cards skipped for insufficient funds")
+        .register(meterRegistry);
+    this.batchTimer = Timer.builder("creditcard.maintenance_fee.batch")
+        .description("Time to bill one batch of cards")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Mono<JobRun> billMaintenanceFees(YearMonth period) {
+    String runId = "maintenance-fee:" + period;
+    String billingPeriod = period.toString();
+    return jobRunRepo.claim(runId, owner, leaseTimeout)
+        .flatMap(run -> {
+          long started = System.nanoTime();
+          return creditCardRepo
+              .findByStatusAndLastMaintenanceFeePeriodNotAndIdGreaterThanOrderByIdAsc(
+                  billableStatus, billingPeriod,
+                  run.getCheckpoint() != null ? run.getCheckpoint() : MIN_CARD_ID)
+              .buffer(batchSize)
+              .flatMapSequential(batch -> billBatch(batch, billingPeriod)
+                  .thenReturn(batch), parallelism)
+              .concatMap(batch -> jobRunRepo.checkpoint(runId, owner,
+                      batch.get(batch.size() - 1).getId(), batch.size())
+                  .thenReturn(batch.size()))
+              .reduce(0L, Long::sum)
+              .flatMap(cards -> {
+                double seconds = Math.max(1e-3, (System.nanoTime() - started) / 1e9);
+                log.info("Billed maintenance fees for {} over {} cards ({} cards/s).",
+                    billingPeriod, cards, Math.round(cards / seconds));
+                return jobRunRepo.complete(runId, owner, cards / seconds);
+              });
+        });
+  }
+
+  private Mono<Void> billBatch(List<CreditCard> cards, String period) {
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+    List<BalanceSwap> swaps = new ArrayList<>();
+    for (CreditCard card : cards) {
+      Money fee = fee(card);
+      if (fee.signum() > 0 && BalanceRules.canCharge(
+          BalanceRules.available(card.getCurrentBalance(), card.getHeldAmount()), fee)) {
+        swaps.add(new BalanceSwap(card.getId(), card.getCurrentBalance(), card.getUpdatedAt(),
+            card.getCurrentBalance().subtract(fee), now));
+      } else if (fee.signum() > 0) {
+        rejected.increment();
+      }
+    }
+    Map<String, CreditCard> byId = cards.stream()
+        .collect(Collectors.toMap(CreditCard::getId, Function.identity()));
+    String batchToken = new ObjectId().toHexString();
+    Mono<Void> batch = creditCardRepo.compareAndSetMaintenanceFees(swaps, period, batchToken)
+        .flatMap(matched -> matched == swaps.size()
+            ? Mono.just(swaps.stream().map(BalanceSwap::creditCardId).collect(Collectors.toSet()))
+            : findCommitted(swaps, batchToken))
+        .flatMap(committed -> Flux.fromIterable(swaps)
+            .filter(swap -> !committed.contains(swap.creditCardId()))
+            .flatMap(swap -> retrySingle(byId.get(swap.creditCardId()), period))
+            .concatWith(Flux.fromIterable(swaps)
+                .filter(swap -> committed.contains(swap.creditCardId()))
+                .map(swap -> feeTransaction(byId.get(swap.creditCardId()), swap.newBalance(),
+                    now)))
+            .collectList())
+        .flatMap(transactions -> {
+          transactions.forEach(t -> cache.invalidate(t.getCreditCardId()));
+          billed.increment(transactions.size());
+          return transactions.isEmpty() ? Mono.empty()
+              : transactionRepo.append(transactions);
+        });
+    return Mono.defer(() -> {
+      long started = System.nanoTime();
+      return batch.doFinally(signal ->
+          batchTimer.record(Duration.ofNanos(System.nanoTime() - started)));
+    });
+  }
+
+  /**
+   * Resolves which fees of a partially matched bulk write were applied, from the cards that record
+   * the batch token. Every card stamped with the period by this batch gets its fee transaction,
+   * even if another movement changed its balance since.
+   */
+  private Mono<Set<String>> findCommitted(List<BalanceSwap> swaps, String batchToken) {
+    return creditCardRepo.findAppliedBatch(swaps.stream().map(BalanceSwap::creditCardId).toList(),
+            batchToken)
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Bills a card modified concurrently with the batch through a single conditional update.
+   */
+  private Mono<CreditCardTransactions> retrySingle(CreditCard card, String period) {
+    Money fee = fee(card);
+    return creditCardRepo.chargeMaintenanceFee(card.getId(), fee, period)
+        .map(updated -> feeTransaction(updated, updated.getCurrentBalance(),
+            LocalDateTime.now()))
+        .switchIfEmpty(Mono.fromRunnable(rejected::increment));
+  }
+
+  private static Money fee(CreditCard card) {
+    return card.getMaintenanceFee() != null ? card.getMaintenanceFee() : Money.ZERO;
+  }
+
+  private static CreditCardTransactions feeTransaction(CreditCard card, Money balance,
+      LocalDateTime createdAt) {
+    return CreditCardTransactions.builder()
+        .customerId(card.getCustomerId())
+        .creditCardId(card.getId())
+        .balanceAfterMovement(balance)
+        .amount(fee(card))
+        .type(Constants.MAINTENANCE_FEE)
+        .createdAt(createdAt)
+        .description("Maintenance fee")
+        .build();
+  }
+}
@@ -0,0 +1,240 @@
+package com.nttbank.microservices.creditcardservice.service.impl;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.model.ReconciliationReport;
+import com.nttbank.microservices.creditcardservice.model.TransactionArchiveSegment;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepoCustom.TransactionSummary;
+import com.nttbank.microservices.creditcardservice.repo.IJobRunRepo;
+import com.nttbank.microservices.creditcardservice.repo.IReconciliationReportRepo;
+import com.nttbank.microservices.creditcardservice.repo.ITransactionArchiveRepo;
+import com.nttbank.microservices.creditcardservice.service.ReconciliationService;
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of {@link ReconciliationService}. A run streams the cards in {@code _id} order
+ * straight from a cursor, or only those updated since shortly before the start of the last
+ * completed run when incremental, and reconciles them in batches with bounded parallelism. Each
+ * batch aggregates the transactions of its cards with one pipeline and checks that the opening
+ * balance plus payments minus charges equals the stored balance. The check only uses totals, so it
+ * holds whatever order concurrent movements of a card were stored in. The opening balance is the
+ * one recorded when the card was opened; for cards opened before it was recorded, or whose oldest
+ * movements are archived, it is the balance the oldest live movement started from. A card without
+ * transactions, live or archived, must still hold its opening balance, or its credit limit when
+ * none was recorded.
+ *
+ * <p>A movement is inserted after the card update it records, so a card updated within
+ * {@code horizon} is left for a later run. Only the batches in flight are held in memory, and
+ * batches are checkpointed in order so an interrupted run resumes where it stopped.</p>
+ */
+@Slf4j
+@Service
+public class ReconciliationServiceImpl implements ReconciliationService {
+
+  private static final String RUN_PREFIX = "reconciliation:";
+  private static final String MIN_CARD_ID = "000000000000000000000000";
+  private static final Set<String> CARD_FIELDS = Set.of("id", "creditLimit", "currentBalance",
+      "openingBalance", "updatedAt");
+
+  private final ICreditCardRepo creditCardRepo;
+  private final ICreditCardTransactionRepo transactionRepo;
+  private final IReconciliationReportRepo reportRepo;
+  private final ITransactionArchiveRepo archiveRepo;
+  private final IJobRunRepo jobRunRepo;
+  private final String owner = UUID.randomUUID().toString();
+  private final int batchSize;
+  private final int parallelism;
+  private final Duration leaseTimeout;
+  private final Duration horizon;
+  private final Counter mismatches;
+
+  public ReconciliationServiceImpl(ICreditCardRepo creditCardRepo,
+      ICreditCardTransactionRepo transactionRepo, IReconciliationReportRepo reportRepo,
+      ITransactionArchiveRepo archiveRepo, IJobRunRepo jobRunRepo, MeterRegistry meterRegistry,
+      @Value("${creditcard.reconciliation.batch-size:500}") int batchSize,
+      @Value("${creditcard.reconciliation.parallelism:4}") int parallelism,
+      @Value("${creditcard.reconciliation.lease-timeout:5m}") Duration leaseTimeout,
+      @Value("${creditcard.reconciliation.horizon:5m}") Duration horizon) {
+    this.creditCardRepo = creditCardRepo;
+    this.transactionRepo = transactionRepo;
+    this.reportRepo = reportRepo;
+    this.archiveRepo = archiveRepo;
+    this.jobRunRepo = jobRunRepo;
+    this.batchSize = batchSize;
+    this.parallelism = parallelism;
+    this.leaseTimeout = leaseTimeout;
+    this.horizon = horizon;
+    this.mismatches = Counter.builder("creditcard.reconciliation.mismatches")
+        .description("Cards whose balance disagrees with their transactions")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public Mono<JobRun> reconcile(boolean incremental) {
+    String runId = RUN_PREFIX + LocalDate.now() + (incremental ? ":incremental" : "");
+    Mono<LocalDateTime> since = incremental
+        ? jobRunRepo.findFirstByIdStartingWithAndStatusOrderByStartedAtDesc(RUN_PREFIX,
+                JobRun.COMPLETED)
+            .filter(last -> !runId.equals(last.getId()))
+            .map(last -> last.getStartedAt().minus(horizon))
+        : Mono.empty();
+    return since.map(Optional::of)
+        .defaultIfEmpty(Optional.empty())
+        .flatMap(from -> jobRunRepo.claim(runId, owner, leaseTimeout)
+            .flatMap(run -> {
+              long started = System.nanoTime();
+              String checkpoint = run.getCheckpoint();
+              Flux<CreditCard> cards = from
+                  .map(after -> creditCardRepo
+                      .findByUpdatedAtGreaterThanEqualAndIdGreaterThanOrderByIdAsc(after,
+                          checkpoint != null ? checkpoint : MIN_CARD_ID))
+                  .orElseGet(() -> creditCardRepo.streamAll(null, null, CARD_FIELDS,
+                      checkpoint));
+              return cards
+                  .buffer(batchSize)
+                  .flatMapSequential(batch -> reconcileBatch(runId, batch).thenReturn(batch),
+                      parallelism)
+                  .concatMap(batch -> jobRunRepo.checkpoint(runId, owner,
+                          batch.get(batch.size() - 1).getId(), batch.size())
+                      .thenReturn(batch.size()))
+                  .reduce(0L, Long::sum)
+                  .flatMap(total -> {
+                    double seconds = Math.max(1e-3, (System.nanoTime() - started) / 1e9);
+                    log.info("Reconciled {} cards{} ({} cards/s).", total,
+                        from.map(after -> " updated since " + after).orElse(""),
+                        Math.round(total / seconds));
+                    return jobRunRepo.complete(runId, owner, total / seconds);
+                  });
+            }));
+  }
+
+  @Override
+  public Flux<ReconciliationReport> findReports(String runId) {
+    return reportRepo.findByRunIdOrderByCreditCardIdAsc(runId);
+  }
+
+  private Mono<Void> reconcileBatch(String runId, List<CreditCard> batch) {
+    LocalDateTime settledBefore = LocalDateTime.now().minus(horizon);
+    List<CreditCard> cards = batch.stream()
+        .filter(card -> card.getUpdatedAt() == null || card.getUpdatedAt().isBefore(settledBefore))
+        .toList();
+    if (cards.isEmpty()) {
+      return Mono.empty();
+    }
+    Map<String, CreditCard> byId = cards.stream()
+        .collect(Collectors.toMap(CreditCard::getId, Function.identity()));
+    return transactionRepo.summarize(byId.keySet(), Constants.HISTORY_START, Constants.HISTORY_END)
+        .collectMap(TransactionSummary::creditCardId)
+        .zipWith(archived(byId.keySet()))
+        .map(found -> cards.stream()
+            .map(card -> found.getT1().containsKey(card.getId())
+                ? check(runId, card, found.getT1().get(card.getId()),
+                    found.getT2().contains(card.getId()))
+                : found.getT2().contains(card.getId()) ? null
+                    : checkWithoutMovements(runId, card))
+            .filter(Objects::nonNull)
+            .toList())
+        .flatMap(found -> found.isEmpty() ? Mono.empty() : confirm(found, byId))
+        .flatMap(confirmed -> {
+          mismatches.increment(confirmed.size());
+          return reportRepo.saveAll(confirmed).then();
+        });
+  }
+
+  /**
+   * Finds the cards of a batch with archived transactions.
+   */
+  private Mono<Set<String>> archived(Collection<String> creditCardIds) {
+    return archiveRepo.findCardsByCreditCardIdIn(creditCardIds)
+        .map(TransactionArchiveSegment::getCreditCardId)
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Drops the mismatches of cards modified while the batch was aggregated: their aggregate may
+   * not include the latest movement. They are reconciled by the next incremental run.
+   */
+  private Mono<List<ReconciliationReport>> confirm(List<ReconciliationReport> found,
+      Map<String, CreditCard> read) {
+    return creditCardRepo.findAllById(found.stream()
+            .map(ReconciliationReport::getCreditCardId).toList())
+        .filter(card -> Objects.equals(card.getUpdatedAt(), read.get(card.getId()).getUpdatedAt()))
+        .map(CreditCard::getId)
+        .collect(Collectors.toSet())
+        .map(unchanged -> found.stream()
+            .filter(report -> unchanged.contains(report.getCreditCardId()))
+            .toList())
+        .filter(confirmed -> !confirmed.isEmpty());
+  }
+
+  private static ReconciliationReport checkWithoutMovements(String runId, CreditCard card) {
+    Money opening = card.getOpeningBalance() != null
+        ? card.getOpeningBalance() : card.getCreditLimit();
+    if (opening == null || (card.getCurrentBalance() != null
+        && opening.compareTo(card.getCurrentBalance()) == 0)) {
+      return null;
+    }
+    return ReconciliationReport.builder()
+        .id(ReconciliationReport.key(runId, card.getId()))
+        .runId(runId)
+        .creditCardId(card.getId())
+        .reasons(List.of(ReconciliationReport.OPENING_BALANCE))
+        .currentBalance(card.getCurrentBalance())
+        .openingBalance(opening)
+        .totalCharges(Money.ZERO)
+        .totalPayments(Money.ZERO)
+        .detectedAt(LocalDateTime.now())
+        .build();
+  }
+
+  private static ReconciliationReport check(String runId, CreditCard card,
+      TransactionSummary summary, boolean archived) {
+    Money opening = card.getOpeningBalance() != null && !archived
+        ? card.getOpeningBalance() : summary.openingBalance();
+    List<String> reasons = new ArrayList<>();
+    if (card.getCurrentBalance() == null
+        || opening.add(summary.totalPayments()).subtract(summary.totalCharges())
+        .compareTo(card.getCurrentBalance()) != 0) {
+      reasons.add(ReconciliationReport.MOVEMENT_TOTALS);
+    }
+    if (reasons.isEmpty()) {
+      return null;
+    }
+    return ReconciliationReport.builder()
+        .id(ReconciliationReport.key(runId, card.getId()))
+        .runId(runId)
+        .creditCardId(card.getId())
+        .reasons(reasons)
+        .currentBalance(card.getCurrentBalance())
+        .lastBalanceAfterMovement(summary.closingBalance())
+        .openingBalance(opening)
+        .totalCharges(summary.totalCharges())
+        .totalPayments(summary.totalPayments())
+        .transactionCount(summary.transactionCount())
+        .detectedAt(LocalDateTime.now())
+        .build();
+  }
+}
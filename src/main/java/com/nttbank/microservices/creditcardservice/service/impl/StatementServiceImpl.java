@@ -0,0 +1,212 @@
+package com.nttbank.microservices.creditcardservice.service.impl;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.CreditCardStatement;
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.JobRun;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardStatementRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepoCustom.TransactionSummary;
+import com.nttbank.microservices.creditcardservice.repo.IJobRunRepo;
+import com.nttbank.microservices.creditcardservice.service.StatementService;
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import com.nttbank.microservices.creditcardservice.util.TransactionCursor;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of {@link StatementService}. A run streams the cards whose statement day falls on
+ * the statement date in {@code _id} order, splits them into partitions of contiguous card ids and
+ * summarizes each partition with one aggregation over 'creditcard_transactions'. Partitions run
+ * in parallel with bounded concurrency but are acknowledged in order, so the checkpoint stored in
+ * the run always marks a prefix of cards whose statements are written and a restarted run resumes
+ * right after it. The cards are read through the {@code (issueStatementDay, _id)} index, and runs
+ * left unfinished are resumed when an instance starts.
+ */
+@Slf4j
+@Service
+public class StatementServiceImpl implements StatementService {
+
+  private static final String MIN_CARD_ID = "000000000000000000000000";
+  private static final String RUN_PREFIX = "statements:";
+
+  private final ICreditCardRepo creditCardRepo;
+  private final ICreditCardTransactionRepo transactionRepo;
+  private final ICreditCardStatementRepo statementRepo;
+  private final IJobRunRepo jobRunRepo;
+  private final String owner = UUID.randomUUID().toString();
+  private final int partitionSize;
+  private final int concurrency;
+  private final Duration leaseTimeout;
+
+  public StatementServiceImpl(ICreditCardRepo creditCardRepo,
+      ICreditCardTransactionRepo transactionRepo, ICreditCardStatementRepo statementRepo,
+      IJobRunRepo jobRunRepo,
+      @Value("${creditcard.statements.partition-size:500}") int partitionSize,
+      @Value("${creditcard.statements.concurrency:4}") int concurrency,
+      @Value("${creditcard.statements.lease-timeout:5m}") Duration leaseTimeout) {
+    this.creditCardRepo = creditCardRepo;
+    this.transactionRepo = transactionRepo;
+    this.statementRepo = statementRepo;
+    this.jobRunRepo = jobRunRepo;
+    this.partitionSize = partitionSize;
+    this.concurrency = concurrency;
+    this.leaseTimeout = leaseTimeout;
+  }
+
+  @Override
+  public Mono<JobRun> generateStatements(LocalDate statementDate) {
+    String runId = RUN_PREFIX + statementDate;
+    return jobRunRepo.claim(runId, owner, leaseTimeout)
+        .doOnNext(run -> log.info("Generating statements for {} from checkpoint {}.",
+            statementDate, run.getCheckpoint()))
+        .flatMap(run -> {
+          long started = System.nanoTime();
+          return creditCardRepo.findByIssueStatementDayInAndIdGreaterThanOrderByIdAsc(
+                  statementDays(statementDate),
+                  run.getCheckpoint() != null ? run.getCheckpoint() : MIN_CARD_ID)
+              .buffer(partitionSize)
+              .flatMapSequential(partition ->
+                  generatePartition(partition, statementDate), concurrency)
+              .concatMap(partition -> jobRunRepo.checkpoint(runId, owner,
+                      partition.get(partition.size() - 1).getId(), partition.size())
+                  .thenReturn(partition.size()))
+              .reduce(0L, Long::sum)
+              .flatMap(cards -> {
+                double seconds = Math.max(1e-3, (System.nanoTime() - started) / 1e9);
+                log.info("Generated {} statements for {} ({} cards/s).", cards, statementDate,
+                    Math.round(cards / seconds));
+                return jobRunRepo.complete(runId, owner, cards / seconds);
+              });
+        });
+  }
+
+  @Override
+  public Flux<JobRun> resumeUnfinishedRuns() {
+    return jobRunRepo.findByIdStartingWithAndStatusOrderByStartedAtAsc(RUN_PREFIX, JobRun.RUNNING)
+        .map(run -> LocalDate.parse(run.getId().substring(RUN_PREFIX.length())))
+        .concatMap(statementDate -> generateStatements(statementDate)
+            .switchIfEmpty(Mono.delay(leaseTimeout)
+                .then(Mono.defer(() -> generateStatements(statementDate)))));
+  }
+
+  @Override
+  public Flux<CreditCardStatement> findByCreditCardId(String creditCardId) {
+    return statementRepo.findAllByCreditCardIdOrderByPeriodEndDesc(creditCardId);
+  }
+
+  /**
+   * Summarizes a partition with one aggregation per distinct period start; only on the last days
+   * of a month do the cards of a partition start their periods on different days.
+   */
+  private Mono<List<CreditCard>> generatePartition(List<CreditCard> cards, LocalDate periodEnd) {
+    Map<LocalDate, List<String>> idsByPeriodStart = cards.stream()
+        .collect(Collectors.groupingBy(card -> periodStart(card, periodEnd),
+            Collectors.mapping(CreditCard::getId, Collectors.toList())));
+    LocalDateTime generatedAt = LocalDateTime.now();
+    LocalDateTime end = periodEnd.atStartOfDay();
+    return Flux.fromIterable(idsByPeriodStart.entrySet())
+        .flatMap(group -> transactionRepo.summarize(group.getValue(),
+            group.getKey().atStartOfDay(), end))
+        .collectMap(TransactionSummary::creditCardId)
+        .flatMap(summaries -> Flux.fromIterable(cards)
+            .filter(card -> !summaries.containsKey(card.getId()))
+            .flatMap(card -> balanceAt(card, end)
+                .map(balance -> Map.entry(card.getId(), balance)), concurrency)
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+            .map(balances -> cards.stream()
+                .map(card -> toStatement(card, summaries.get(card.getId()),
+                    balances.get(card.getId()), periodStart(card, periodEnd), periodEnd,
+                    generatedAt))
+                .toList()))
+        .flatMap(statementRepo::upsertAll)
+        .thenReturn(cards);
+  }
+
+  /**
+   * Balance of a card at a time it has no movement right before: the balance preceding its first
+   * movement from that time on, or its current balance if it has not moved since. A statement
+   * generated late or regenerated thus ignores the movements made after its period.
+   */
+  private Mono<Money> balanceAt(CreditCard card, LocalDateTime at) {
+    TransactionCursor from = TransactionCursor.startingAt(at);
+    return transactionRepo.findPageByCreditCardId(card.getId(), Constants.HISTORY_END,
+            from.createdAt(), from.id(), 1)
+        .next()
+        .map(StatementServiceImpl::balanceBefore)
+        .defaultIfEmpty(card.getCurrentBalance());
+  }
+
+  private static Money balanceBefore(CreditCardTransactions transaction) {
+    return Constants.PAYMENT.equals(transaction.getType())
+        ? transaction.getBalanceAfterMovement().subtract(transaction.getAmount())
+        : transaction.getBalanceAfterMovement().add(transaction.getAmount());
+  }
+
+  private static CreditCardStatement toStatement(CreditCard card, TransactionSummary summary,
+      Money balance, LocalDate periodStart, LocalDate periodEnd, LocalDateTime generatedAt) {
+    CreditCardStatement.CreditCardStatementBuilder statement = CreditCardStatement.builder()
+        .id(CreditCardStatement.key(card.getId(), periodEnd))
+        .creditCardId(card.getId())
+        .customerId(card.getCustomerId())
+        .periodStart(periodStart)
+        .periodEnd(periodEnd)
+        .generatedAt(generatedAt);
+    if (summary == null) {
+      // No movements in the period: the balance at its end is the balance of the whole period.
+      return statement.openingBalance(balance)
+          .closingBalance(balance)
+          .totalCharges(Money.ZERO)
+          .totalPayments(Money.ZERO)
+          .transactionCount(0)
+          .build();
+    }
+    return statement.openingBalance(summary.openingBalance())
+        .closingBalance(summary.closingBalance())
+        .totalCharges(summary.totalCharges())
+        .totalPayments(summary.totalPayments())
+        .transactionCount(summary.transactionCount())
+        .build();
+  }
+
+  /**
+   * Date of a card's previous statement: its statement day in the month before, clamped to that
+   * month's length, so a card billed on the 31st starts the period closing on April 30th on March
+   * 31st.
+   */
+  private static LocalDate periodStart(CreditCard card, LocalDate periodEnd) {
+    YearMonth previous = YearMonth.from(periodEnd).minusMonths(1);
+    int day = Integer.parseInt(card.getIssueStatementDay().trim());
+    return previous.atDay(Math.min(day, previous.lengthOfMonth()));
+  }
+
+  /**
+   * Statement days issued on a date, as stored in {@code issueStatementDay} with or without a
+   * leading zero. On the last day of a month this includes the days the month does not have, so a
+   * card billed on the 31st gets its statement on the 30th or at the end of February.
+   */
+  private static List<String> statementDays(LocalDate statementDate) {
+    int day = statementDate.getDayOfMonth();
+    int lastDay = day < statementDate.lengthOfMonth() ? day : 31;
+    return IntStream.rangeClosed(day, lastDay)
+        .boxed()
+        .flatMap(d -> Stream.of(String.valueOf(d), String.format("%02d", d)))
+        .distinct()
+        .toList();
+  }
+}
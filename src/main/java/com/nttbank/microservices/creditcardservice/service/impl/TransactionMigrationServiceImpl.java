@@ -0,0 +1,35 @@
+package com.nttbank.microservices.creditcardservice.service.impl;
+
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.service.TransactionMigrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of {@link TransactionMigrationService}. Moves the documents of
+ * 'creditcard_transactions' into monthly buckets batch by batch until none is left. Reads merge
+ * both collections while the migration runs, and each batch can be repeated safely, so the
+ * migration runs online and can be restarted after a failure.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionMigrationServiceImpl implements TransactionMigrationService {
+
+  private final ICreditCardTransactionRepo transactionRepo;
+
+  @Value("${creditcard.transactions.migration.batch-size:1000}")
+  private int batchSize;
+
+  @Override
+  public Mono<Long> migrateToBuckets() {
+    return Mono.defer(() -> transactionRepo.migrateToBuckets(batchSize))
+        .repeat()
+        .takeWhile(moved -> moved > 0)
+        .reduce(0L, (total, moved) -> total + moved)
+        .doOnSuccess(total -> log.info("Moved {} transactions into buckets.", total));
+  }
+}
@@ -0,0 +1,47 @@
+package com.nttbank.microservices.creditcardservice.util;
+
+import com.nttbank.microservices.creditcardservice.model.Money;
+
+/**
+ * Business rules applied to credit card movements. The same rules back the atomic single-call
+ * path, whose predicates are evaluated by MongoDB, and the paths that fold movements in memory.
+ */
+public final class BalanceRules {
+
+  private BalanceRules() {
+  }
+
+  /**
+   * Returns the funds of a card not reserved by authorization holds.
+   *
+   * @param currentBalance the current balance of the card.
+   * @param heldAmount the amount held, or null if the card has no holds.
+   * @return the available balance.
+   */
+  public static Money available(Money currentBalance, Money heldAmount) {
+    return heldAmount == null ? currentBalance : currentBalance.subtract(heldAmount);
+  }
+
+  /**
+   * Checks that a charge does not exceed the available balance.
+   *
+   * @param currentBalance the current balance of the card.
+   * @param amount the amount to charge.
+   * @return true if the charge can be applied.
+   */
+  public static boolean canCharge(Money currentBalance, Money amount) {
+    return currentBalance.isGreaterThanOrEqualTo(amount);
+  }
+
+  /**
+   * Checks that a payment does not take the balance over the credit limit.
+   *
+   * @param currentBalance the current balance of the card.
+   * @param creditLimit the credit limit of the card.
+   * @param amount the amount paid.
+   * @return true if the payment can be applied.
+   */
+  public static boolean canPay(Money currentBalance, Money creditLimit, Money amount) {
+    return Math.subtractExact(creditLimit.cents(), currentBalance.cents()) >= amount.cents();
+  }
+}
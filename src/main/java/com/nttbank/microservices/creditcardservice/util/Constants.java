@@ -1,5 +1,7 @@
 package com.nttbank.microservices.creditcardservice.util;
 
+import java.time.LocalDateTime;
+
 public class Constants {
 
   private Constants() {
@@ -11,6 +13,12 @@ public class Constants {
   public static final String ERROR_KEY = "error";
   public static final String PAYMENT = "payment";
   public static final String CHARGE = "charge";
+  public static final String MAINTENANCE_FEE = "maintenance_fee";
+  public static final String INSUFFICIENT_FUNDS_MESSAGE = "Insufficient funds in the credit card.";
+  public static final String OVER_PAYMENT_MESSAGE =
+      "Cannot pay more than the total amount owed (including credit limit).";
+  public static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+  public static final LocalDateTime HISTORY_END = LocalDateTime.of(9999, 12, 31, 0, 0);
 
 
 }
@@ -0,0 +1,55 @@
+package com.nttbank.microservices.creditcardservice.util;
+
+import com.nttbank.microservices.creditcardservice.model.Money;
+import java.math.BigDecimal;
+import java.util.List;
+import org.bson.types.Decimal128;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+/**
+ * Spring Data MongoDB converters storing {@link Money} as {@code Decimal128}. Amounts written
+ * before that, as the string form of a {@code BigDecimal}, are still read, and stored amounts
+ * with more than two decimals are rounded to the cent rather than rejected.
+ */
+public final class MoneyConverters {
+
+  private MoneyConverters() {
+  }
+
+  public static List<Converter<?, ?>> converters() {
+    return List.of(MoneyToDecimal128Converter.INSTANCE, Decimal128ToMoneyConverter.INSTANCE,
+        StringToMoneyConverter.INSTANCE);
+  }
+
+  @WritingConverter
+  enum MoneyToDecimal128Converter implements Converter<Money, Decimal128> {
+    INSTANCE;
+
+    @Override
+    public Decimal128 convert(Money source) {
+      return source.toDecimal128();
+    }
+  }
+
+  @ReadingConverter
+  enum Decimal128ToMoneyConverter implements Converter<Decimal128, Money> {
+    INSTANCE;
+
+    @Override
+    public Money convert(Decimal128 source) {
+      return Money.rounded(source.bigDecimalValue());
+    }
+  }
+
+  @ReadingConverter
+  enum StringToMoneyConverter implements Converter<String, Money> {
+    INSTANCE;
+
+    @Override
+    public Money convert(String source) {
+      return Money.rounded(new BigDecimal(source));
+    }
+  }
+}
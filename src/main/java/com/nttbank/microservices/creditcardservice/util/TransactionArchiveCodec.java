@@ -0,0 +1,129 @@
+package com.nttbank.microservices.creditcardservice.util;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.model.TransactionArchiveSegment;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import org.bson.types.ObjectId;
+
+/**
+ * Binary encoding of archived transactions. A segment holds the transactions of one card in
+ * {@code (createdAt, _id)} order; each one is written as its 12-byte id, creation time in epoch
+ * milliseconds, type, amount and balance in cents and optional description, and the whole
+ * sequence is deflate-compressed. The card and customer ids are kept once on the segment.
+ */
+public final class TransactionArchiveCodec {
+
+  public static final String ENCODING = "deflate-v1";
+
+  private static final int HAS_BALANCE = 1;
+  private static final int HAS_DESCRIPTION = 2;
+
+  private TransactionArchiveCodec() {
+  }
+
+  /**
+   * Encodes transactions of one card into a segment.
+   *
+   * @param transactions the transactions, sorted by {@code (createdAt, _id)}.
+   * @param archivedAt the archival time.
+   * @return the segment.
+   */
+  public static TransactionArchiveSegment encode(List<CreditCardTransactions> transactions,
+      LocalDateTime archivedAt) {
+    CreditCardTransactions first = transactions.get(0);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(transactions.size() * 24);
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+      out.writeInt(transactions.size());
+      for (CreditCardTransactions t : transactions) {
+        out.write(new ObjectId(t.getId()).toByteArray());
+        out.writeLong(t.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli());
+        out.writeUTF(t.getType());
+        out.writeLong(t.getAmount().cents());
+        int flags = (t.getBalanceAfterMovement() != null ? HAS_BALANCE : 0)
+            | (t.getDescription() != null ? HAS_DESCRIPTION : 0);
+        out.writeByte(flags);
+        if (t.getBalanceAfterMovement() != null) {
+          out.writeLong(t.getBalanceAfterMovement().cents());
+        }
+        if (t.getDescription() != null) {
+          out.writeUTF(t.getDescription());
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      deflater.end();
+    }
+    return TransactionArchiveSegment.builder()
+        .id(first.getId())
+        .creditCardId(first.getCreditCardId())
+        .customerId(first.getCustomerId())
+        .firstCreatedAt(first.getCreatedAt())
+        .lastCreatedAt(transactions.get(transactions.size() - 1).getCreatedAt())
+        .count(transactions.size())
+        .encoding(ENCODING)
+        .payload(bytes.toByteArray())
+        .archivedAt(archivedAt)
+        .build();
+  }
+
+  /**
+   * Decodes the transactions of a segment.
+   *
+   * @param segment the segment.
+   * @return the transactions, in {@code (createdAt, _id)} order.
+   * @throws IllegalArgumentException if the segment has an unknown encoding.
+   */
+  public static List<CreditCardTransactions> decode(TransactionArchiveSegment segment) {
+    if (!ENCODING.equals(segment.getEncoding())) {
+      throw new IllegalArgumentException("Unknown archive encoding: " + segment.getEncoding());
+    }
+    Inflater inflater = new Inflater();
+    try (DataInputStream in = new DataInputStream(
+        new InflaterInputStream(new ByteArrayInputStream(segment.getPayload()), inflater))) {
+      int count = in.readInt();
+      List<CreditCardTransactions> transactions = new ArrayList<>(count);
+      byte[] id = new byte[12];
+      for (int i = 0; i < count; i++) {
+        in.readFully(id);
+        CreditCardTransactions.CreditCardTransactionsBuilder t = CreditCardTransactions.builder()
+            .id(new ObjectId(id).toHexString())
+            .customerId(segment.getCustomerId())
+            .creditCardId(segment.getCreditCardId())
+            .createdAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()),
+                ZoneOffset.UTC))
+            .type(in.readUTF())
+            .amount(Money.ofCents(in.readLong()));
+        int flags = in.readByte();
+        if ((flags & HAS_BALANCE) != 0) {
+          t.balanceAfterMovement(Money.ofCents(in.readLong()));
+        }
+        if ((flags & HAS_DESCRIPTION) != 0) {
+          t.description(in.readUTF());
+        }
+        transactions.add(t.build());
+      }
+      return transactions;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
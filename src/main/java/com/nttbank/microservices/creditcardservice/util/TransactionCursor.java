@@ -0,0 +1,73 @@
+package com.nttbank.microservices.creditcardservice.util;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import org.bson.types.ObjectId;
+
+/**
+ * Keyset position inside a credit card transaction history, ordered by {@code (createdAt, _id)}.
+ * The cursor is exchanged with clients as an opaque URL-safe string.
+ *
+ * @param createdAt creation time of the last transaction already returned.
+ * @param id identifier of the last transaction already returned.
+ */
+public record TransactionCursor(LocalDateTime createdAt, ObjectId id) {
+
+  private static final ObjectId MIN_ID = new ObjectId(new byte[12]);
+  private static final String SEPARATOR = ":";
+
+  /**
+   * Builds the cursor that positions a scan right before the first transaction created at or
+   * after the given time.
+   *
+   * @param from the lower bound (inclusive) of the scan.
+   * @return the starting cursor.
+   */
+  public static TransactionCursor startingAt(LocalDateTime from) {
+    return new TransactionCursor(from, MIN_ID);
+  }
+
+  /**
+   * Builds the cursor that continues a scan after the given transaction.
+   *
+   * @param transaction the last transaction of the current page.
+   * @return the cursor for the next page.
+   */
+  public static TransactionCursor after(CreditCardTransactions transaction) {
+    return new TransactionCursor(transaction.getCreatedAt(), new ObjectId(transaction.getId()));
+  }
+
+  /**
+   * Decodes a cursor previously produced by {@link #encode()}.
+   *
+   * @param value the encoded cursor.
+   * @return the decoded cursor.
+   * @throws IllegalArgumentException if the value is not a valid cursor.
+   */
+  public static TransactionCursor decode(String value) {
+    try {
+      String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8)
+          .split(SEPARATOR);
+      LocalDateTime createdAt = LocalDateTime.ofInstant(
+          Instant.ofEpochMilli(Long.parseLong(parts[0])), ZoneOffset.UTC);
+      return new TransactionCursor(createdAt, new ObjectId(parts[1]));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid transactions cursor.", e);
+    }
+  }
+
+  /**
+   * Encodes this cursor as an opaque URL-safe string.
+   *
+   * @return the encoded cursor.
+   */
+  public String encode() {
+    String raw = createdAt.toInstant(ZoneOffset.UTC).toEpochMilli() + SEPARATOR + id.toHexString();
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,160 @@
+package com.nttbank.microservices.creditcardservice.writer;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Group commit of transaction log inserts. Transactions submitted by concurrent requests are
+ * collected in a lock-free buffer and written with one {@code insertMany} when the buffer reaches
+ * {@code batch-size} or {@code linger} after the first transaction of a batch arrived, whichever
+ * comes first. Each caller completes only once the batch holding its transaction is acknowledged.
+ *
+ * <p>Enabled with {@code creditcard.transactions.group-commit.enabled=true}.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "creditcard.transactions.group-commit.enabled",
+    havingValue = "true")
+public class TransactionGroupCommitter {
+
+  private final ICreditCardTransactionRepo transactionRepo;
+  private final int batchSize;
+  private final Duration linger;
+  private final Queue<PendingTransaction> buffer = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pending = new AtomicInteger();
+  private final AtomicBoolean lingerArmed = new AtomicBoolean();
+  private final DistributionSummary batchSizes;
+  private final Timer flushLatency;
+
+  public TransactionGroupCommitter(ICreditCardTransactionRepo transactionRepo,
+      MeterRegistry meterRegistry,
+      @Value("${creditcard.transactions.group-commit.batch-size:256}") int batchSize,
+      @Value("${creditcard.transactions.group-commit.linger:2ms}") Duration linger) {
+    this.transactionRepo = transactionRepo;
+    this.batchSize = batchSize;
+    this.linger = linger;
+    this.batchSizes = DistributionSummary.builder("creditcard.transactions.batch.size")
+        .description("Transactions written per group commit")
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+    this.flushLatency = Timer.builder("creditcard.transactions.flush.latency")
+        .description("Time to acknowledge a group commit")
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+    Gauge.builder("creditcard.transactions.buffer.depth", pending, AtomicInteger::get)
+        .description("Transactions waiting for a group commit")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Buffers a transaction for the next group commit.
+   *
+   * @param transaction the transaction to insert.
+   * @return completes when the batch holding the transaction is written, or errors if it failed.
+   */
+  public Mono<Void> submit(CreditCardTransactions transaction) {
+    return Mono.defer(() -> {
+      Sinks.Empty<Void> ack = Sinks.empty();
+      buffer.offer(new PendingTransaction(transaction, ack));
+      int buffered = pending.incrementAndGet();
+      if (buffered >= batchSize) {
+        flush();
+      } else if (buffered == 1) {
+        armLinger();
+      }
+      return ack.asMono();
+    });
+  }
+
+  private void armLinger() {
+    if (lingerArmed.compareAndSet(false, true)) {
+      Schedulers.parallel().schedule(() -> {
+        lingerArmed.set(false);
+        flush();
+      }, linger.toNanos(), TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Writes up to one batch from the buffer. Transactions left behind, including those offered
+   * while this batch was drained, are covered by another flush or by the linger timer.
+   */
+  private void flush() {
+    List<PendingTransaction> batch = new ArrayList<>(batchSize);
+    PendingTransaction next;
+    while (batch.size() < batchSize && (next = buffer.poll()) != null) {
+      batch.add(next);
+    }
+    int remaining = pending.addAndGet(-batch.size());
+    if (remaining >= batchSize) {
+      Schedulers.parallel().schedule(this::flush);
+    } else if (remaining > 0) {
+      armLinger();
+    }
+    if (!batch.isEmpty()) {
+      write(batch).subscribe();
+    }
+  }
+
+  private Mono<Void> write(List<PendingTransaction> batch) {
+    List<CreditCardTransactions> transactions = batch.stream()
+        .map(PendingTransaction::transaction).toList();
+    return Mono.defer(() -> {
+      long started = System.nanoTime();
+      return transactionRepo.append(transactions)
+          .doOnSuccess(v -> {
+            flushLatency.record(Duration.ofNanos(System.nanoTime() - started));
+            batchSizes.record(batch.size());
+            batch.forEach(p -> p.ack().tryEmitEmpty());
+          })
+          .onErrorResume(e -> {
+            log.error("Group commit of {} transactions failed.", batch.size(), e);
+            batch.forEach(p -> p.ack().tryEmitError(e));
+            return Mono.empty();
+          });
+    });
+  }
+
+  /**
+   * Flushes the buffered transactions before the context closes.
+   */
+  @PreDestroy
+  public void close() {
+    List<Mono<Void>> writes = new ArrayList<>();
+    while (!buffer.isEmpty()) {
+      List<PendingTransaction> batch = new ArrayList<>(batchSize);
+      PendingTransaction next;
+      while (batch.size() < batchSize && (next = buffer.poll()) != null) {
+        batch.add(next);
+      }
+      pending.addAndGet(-batch.size());
+      writes.add(write(batch));
+    }
+    Flux.merge(writes).then().block(Duration.ofSeconds(10));
+  }
+
+  private record PendingTransaction(CreditCardTransactions transaction, Sinks.Empty<Void> ack) {
+
+  }
+}
@@ -3,7 +3,11 @@ package com.nttbank.microservices.creditcardservice;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+    "spring.autoconfigure.exclude="
+        + "de.flapdoodle.embed.mongo.spring.autoconfigure.EmbeddedMongoAutoConfiguration",
+    "creditcard.migration.amounts.enabled=false"
+})
 class CreditcardServiceApplicationTests {
 
 	@Test
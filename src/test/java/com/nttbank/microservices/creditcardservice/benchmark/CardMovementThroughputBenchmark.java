@@ -0,0 +1,127 @@
+package com.nttbank.microservices.creditcardservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nttbank.microservices.creditcardservice.cache.NoOpCreditCardCache;
+import com.nttbank.microservices.creditcardservice.config.MongoConfig;
+import com.nttbank.microservices.creditcardservice.dto.CardMovementDTO;
+import com.nttbank.microservices.creditcardservice.dto.CardMovementResultDTO;
+import com.nttbank.microservices.creditcardservice.exception.CardRejectionException;
+import com.nttbank.microservices.creditcardservice.metrics.CreditCardMetrics;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.service.impl.CardMovementServiceImpl;
+import com.nttbank.microservices.creditcardservice.service.impl.CreditCardServiceImpl;
+import com.nttbank.microservices.creditcardservice.service.impl.CustomerCardCounterServiceImpl;
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Compares the throughput of the batch movements path against one call per movement on an
+ * embedded MongoDB. Run with {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataMongoTest(properties = {
+    "spring.cloud.config.enabled=false",
+    "de.flapdoodle.mongodb.embedded.version=7.0.12",
+    "creditcard.movements.batch-size=1000"
+})
+@Import({MongoConfig.class, CreditCardServiceImpl.class, CardMovementServiceImpl.class,
+    CustomerCardCounterServiceImpl.class, NoOpCreditCardCache.class,
+    CreditCardMetrics.class, SimpleMeterRegistry.class})
+class CardMovementThroughputBenchmark {
+
+  private static final int CARDS = 200;
+  private static final int MOVEMENTS = 20_000;
+  private static final int CONCURRENCY = 64;
+
+  @Autowired
+  private CreditCardServiceImpl creditCardService;
+
+  @Autowired
+  private CardMovementServiceImpl movementService;
+
+  @Autowired
+  private ICreditCardRepo creditCardRepo;
+
+  @Autowired
+  private ICreditCardTransactionRepo transactionRepo;
+
+  private List<CardMovementDTO> movements;
+
+  @BeforeEach
+  void setUp() {
+    transactionRepo.deleteAll().block();
+    creditCardRepo.deleteAll().block();
+    List<String> ids = Flux.range(0, CARDS)
+        .map(i -> CreditCard.builder()
+            .customerId("customer-" + i)
+            .cardType("personal")
+            .creditLimit(Money.parse("100000.00"))
+            .currentBalance(Money.parse("100000.00"))
+            .expirationDate(LocalDate.now().plusYears(3))
+            .issueStatementDay("15")
+            .maintenanceFee(Money.parse("10.00"))
+            .status("active")
+            .build())
+        .flatMap(creditCardRepo::save)
+        .map(CreditCard::getId)
+        .collectList()
+        .block();
+    movements = IntStream.range(0, MOVEMENTS)
+        .mapToObj(i -> CardMovementDTO.builder()
+            .creditCardId(ids.get(i % CARDS))
+            .type(i % 3 == 0 ? Constants.PAYMENT : Constants.CHARGE)
+            .amount(BigDecimal.ONE)
+            .build())
+        .toList();
+  }
+
+  @Test
+  void singleCallPath() {
+    long start = System.nanoTime();
+    Long applied = Flux.fromIterable(movements)
+        .flatMap(m -> (Constants.CHARGE.equals(m.getType())
+            ? creditCardService.chargeCreditCard(m.getCreditCardId(), m.getAmount())
+            : creditCardService.payCreditCard(m.getCreditCardId(), m.getAmount()))
+            .onErrorResume(CardRejectionException.class, e -> Mono.empty()), CONCURRENCY)
+        .count()
+        .block();
+    report("single-call", Duration.ofNanos(System.nanoTime() - start));
+    assertThat(applied).isPositive();
+  }
+
+  @Test
+  void batchPath() {
+    long start = System.nanoTime();
+    Long applied = movementService.applyMovements(Flux.fromIterable(movements))
+        .filter(r -> CardMovementResultDTO.APPLIED.equals(r.getResult()))
+        .count()
+        .block();
+    report("batch", Duration.ofNanos(System.nanoTime() - start));
+    assertThat(applied).isPositive();
+    assertThat(transactionRepo.count().block()).isEqualTo(applied);
+  }
+
+  private static void report(String path, Duration elapsed) {
+    log.info("{}: {} movements in {} ms ({} movements/s)", path, MOVEMENTS, elapsed.toMillis(),
+        MOVEMENTS * 1000L / Math.max(1, elapsed.toMillis()));
+  }
+}
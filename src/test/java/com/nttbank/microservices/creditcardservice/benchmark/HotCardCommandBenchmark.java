@@ -0,0 +1,117 @@
+package com.nttbank.microservices.creditcardservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nttbank.microservices.creditcardservice.cache.NoOpCreditCardCache;
+import com.nttbank.microservices.creditcardservice.command.CardCommandExecutor;
+import com.nttbank.microservices.creditcardservice.config.MongoConfig;
+import com.nttbank.microservices.creditcardservice.metrics.CreditCardMetrics;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.service.impl.CreditCardServiceImpl;
+import com.nttbank.microservices.creditcardservice.service.impl.CustomerCardCounterServiceImpl;
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hot-card workload: most charges hit a handful of cards. Compares the direct atomic path with the
+ * per-card mailboxes of {@link CardCommandExecutor}, which coalesce queued charges. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataMongoTest(properties = {
+    "spring.cloud.config.enabled=false",
+    "de.flapdoodle.mongodb.embedded.version=7.0.12"
+})
+@Import({MongoConfig.class, CreditCardServiceImpl.class, CustomerCardCounterServiceImpl.class,
+    NoOpCreditCardCache.class, CreditCardMetrics.class, SimpleMeterRegistry.class})
+class HotCardCommandBenchmark {
+
+  private static final int HOT_CARDS = 4;
+  private static final int CHARGES = 20_000;
+  private static final int CONCURRENCY = 256;
+
+  @Autowired
+  private CreditCardServiceImpl service;
+
+  @Autowired
+  private ICreditCardRepo creditCardRepo;
+
+  @Autowired
+  private ICreditCardTransactionRepo transactionRepo;
+
+  private List<String> hotCards;
+
+  @BeforeEach
+  void setUp() {
+    transactionRepo.deleteAll().block();
+    creditCardRepo.deleteAll().block();
+    hotCards = Flux.range(0, HOT_CARDS)
+        .map(i -> CreditCard.builder()
+            .customerId("customer-" + i)
+            .cardType("personal")
+            .creditLimit(Money.parse("1000000.00"))
+            .currentBalance(Money.parse("1000000.00"))
+            .expirationDate(LocalDate.now().plusYears(3))
+            .issueStatementDay("15")
+            .maintenanceFee(Money.parse("10.00"))
+            .status("active")
+            .build())
+        .flatMap(creditCardRepo::save)
+        .map(CreditCard::getId)
+        .collectList()
+        .block();
+  }
+
+  @Test
+  void directPath() {
+    run("direct", id -> service.chargeCreditCard(id, BigDecimal.ONE));
+  }
+
+  @Test
+  void sequencedPath() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    CardCommandExecutor executor = new CardCommandExecutor(creditCardRepo, transactionRepo,
+        new NoOpCreditCardCache(), registry, 0, 256);
+    run("sequenced", id -> executor.submit(id, Constants.CHARGE, Money.parse("1.00"), null,
+        () -> service.chargeCreditCard(id, BigDecimal.ONE)));
+    log.info("sequenced: coalescing ratio {}",
+        registry.get("creditcard.commands.coalescing.ratio").gauge().value());
+  }
+
+  private void run(String path, Function<String, Mono<CreditCard>> charge) {
+    long start = System.nanoTime();
+    Long applied = Flux.range(0, CHARGES)
+        .flatMap(i -> charge.apply(hotCards.get(i % HOT_CARDS)), CONCURRENCY)
+        .count()
+        .block();
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+    log.info("{}: {} charges on {} cards in {} ms ({} charges/s)", path, CHARGES, HOT_CARDS,
+        elapsed.toMillis(), CHARGES * 1000L / Math.max(1, elapsed.toMillis()));
+
+    assertThat(applied).isEqualTo(CHARGES);
+    Money total = creditCardRepo.findAllById(hotCards)
+        .map(CreditCard::getCurrentBalance)
+        .reduce(Money.ZERO, Money::add)
+        .block();
+    assertThat(total).isEqualByComparingTo(
+        Money.ofCents((1_000_000L * HOT_CARDS - CHARGES) * 100));
+  }
+}
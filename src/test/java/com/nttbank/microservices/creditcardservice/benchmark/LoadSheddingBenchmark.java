@@ -0,0 +1,136 @@
+package com.nttbank.microservices.creditcardservice.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.nttbank.microservices.creditcardservice.limiter.CustomerQuotas;
+import com.nttbank.microservices.creditcardservice.limiter.GradientConcurrencyLimit;
+import com.nttbank.microservices.creditcardservice.limiter.LoadSheddingFilter;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Overload scenario for the load-shedding filter: charges arrive at about twice the rate a
+ * simulated backend can serve, the backend getting slower with every request queued beyond its
+ * capacity, as a saturated MongoDB pool does. Compares the p99 latency of the accepted requests
+ * with and without the filter, and checks that the filter keeps the p99 near the backend latency
+ * while admitting about what the backend can serve. A first protected run through its own limit
+ * warms up the code paths and is discarded, and the exchanges are built before each run, so the
+ * measured run times the filter rather than the JIT or the harness. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class LoadSheddingBenchmark {
+
+  private static final int CAPACITY = 16;
+  private static final Duration BASE_LATENCY = Duration.ofMillis(20);
+  private static final int TICKS = 1500;
+  private static final int REQUESTS_PER_TICK = 2;
+  private static final int CARDS = 50;
+
+  @Test
+  void overload() {
+    Result unprotected = run(new SlowBackend()::serve);
+
+    run(protect(new GradientConcurrencyLimit(20, 4, 500, 1.5)));
+    GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 4, 500, 1.5);
+    Result protectedRun = run(protect(limit));
+
+    report("without limiter", unprotected);
+    report("with limiter", protectedRun);
+    log.info("final concurrency limit: {}", limit.getLimit());
+    long servable = CAPACITY * TICKS / BASE_LATENCY.toMillis();
+    assertThat(protectedRun.shed()).isPositive();
+    assertThat(protectedRun.p99()).isLessThan(unprotected.p99());
+    assertThat(protectedRun.p99()).isLessThanOrEqualTo(BASE_LATENCY.multipliedBy(3));
+    assertThat(protectedRun.accepted()).isGreaterThanOrEqualTo((int) (servable * 0.9));
+    assertThat(limit.getLimit()).isBetween(CAPACITY / 2, CAPACITY * 3);
+  }
+
+  /**
+   * Puts a filter with the given limit in front of a fresh backend, and sends it one request per
+   * card in sequence, so the customers of the cards are known before the load starts. Requests
+   * sent one at a time do not move the limit.
+   */
+  private static WebFilterChain protect(GradientConcurrencyLimit limit) {
+    ICreditCardRepo creditCardRepo = mock(ICreditCardRepo.class);
+    when(creditCardRepo.findCustomerIdById(anyString())).thenReturn(Mono.just("customer"));
+    LoadSheddingFilter filter = new LoadSheddingFilter(limit,
+        new CustomerQuotas(1_000_000, 1_000_000, 1000), new CustomerQuotas(1, 5, 1000),
+        creditCardRepo, Duration.ofMillis(50), 32, new SimpleMeterRegistry(), 1000);
+    SlowBackend backend = new SlowBackend();
+    Flux.range(0, CARDS).concatMap(i -> filter.filter(exchange(i), backend::serve)).blockLast();
+    return exchange -> filter.filter(exchange, backend::serve);
+  }
+
+  private static Result run(WebFilterChain handler) {
+    AtomicInteger shed = new AtomicInteger();
+    List<MockServerWebExchange> exchanges = IntStream.range(0, TICKS * REQUESTS_PER_TICK)
+        .mapToObj(LoadSheddingBenchmark::exchange)
+        .toList();
+    List<Long> latencies = Flux.interval(Duration.ofMillis(1))
+        .take(TICKS)
+        .flatMap(tick -> Flux.range(0, REQUESTS_PER_TICK)
+            .map(i -> exchanges.get((int) (tick * REQUESTS_PER_TICK + i))))
+        .flatMap(exchange -> {
+          long start = System.nanoTime();
+          return handler.filter(exchange)
+              .then(Mono.fromSupplier(() -> System.nanoTime() - start))
+              .filter(latency -> exchange.getResponse().getStatusCode() == null
+                  || exchange.getResponse().getStatusCode().is2xxSuccessful())
+              .switchIfEmpty(Mono.fromRunnable(shed::incrementAndGet));
+        }, Integer.MAX_VALUE)
+        .sort()
+        .collectList()
+        .block();
+    long p99 = latencies.isEmpty() ? 0 : latencies.get((int) (latencies.size() * 0.99));
+    return new Result(latencies.size(), shed.get(), Duration.ofNanos(p99));
+  }
+
+  private static MockServerWebExchange exchange(int request) {
+    return MockServerWebExchange.from(MockServerHttpRequest
+        .post("/creditcards/card-" + request % CARDS + "/charge"));
+  }
+
+  private static void report(String scenario, Result result) {
+    log.info("{}: {} accepted, {} shed, p99 {} ms", scenario, result.accepted(), result.shed(),
+        result.p99().toMillis());
+  }
+
+  private record Result(int accepted, int shed, Duration p99) {
+
+  }
+
+  /**
+   * Serves each request in the base latency while fewer than twice {@link #CAPACITY} are active,
+   * and one base latency slower for every further {@link #CAPACITY} active requests.
+   */
+  private static final class SlowBackend {
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    Mono<Void> serve(ServerWebExchange exchange) {
+      return Mono.defer(() -> {
+        int load = active.incrementAndGet();
+        Duration latency = BASE_LATENCY.multipliedBy(Math.max(1, load / CAPACITY));
+        return Mono.delay(latency).then();
+      }).doFinally(signal -> active.decrementAndGet());
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.nttbank.microservices.creditcardservice.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+class CaffeineCreditCardCacheTest {
+
+  private final AtomicInteger loads = new AtomicInteger();
+  private CaffeineCreditCardCache cache;
+
+  private final Function<String, Mono<CreditCard>> loader = id -> Mono.fromCallable(() -> {
+    loads.incrementAndGet();
+    return CreditCard.builder().id(id).build();
+  }).delayElement(Duration.ofMillis(50));
+
+  @BeforeEach
+  void setUp() {
+    cache = new CaffeineCreditCardCache(Caffeine.newBuilder().maximumSize(100).buildAsync());
+  }
+
+  @Test
+  void coalescesConcurrentLookupsOfTheSameCard() {
+    Long found = Flux.range(0, 1000)
+        .parallel()
+        .runOn(Schedulers.parallel())
+        .flatMap(i -> cache.get("card-1", loader))
+        .sequential()
+        .count()
+        .block();
+
+    assertThat(found).isEqualTo(1000L);
+    assertThat(loads.get()).isEqualTo(1);
+  }
+
+  @Test
+  void invalidationForcesANewLoad() {
+    cache.get("card-1", loader).block();
+    cache.invalidate("card-1");
+    cache.get("card-1", loader).block();
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  void callersCannotChangeTheCachedCard() {
+    cache.get("card-1", loader).block().setStatus("blocked");
+
+    assertThat(cache.get("card-1", loader).block().getStatus()).isNull();
+    assertThat(loads.get()).isEqualTo(1);
+  }
+
+  @Test
+  void missingCardsAreNotCached() {
+    assertThat(cache.get("missing", id -> {
+      loads.incrementAndGet();
+      return Mono.empty();
+    }).block()).isNull();
+    cache.get("missing", loader).block();
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+}
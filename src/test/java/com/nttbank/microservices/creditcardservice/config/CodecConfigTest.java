@@ -0,0 +1,55 @@
+package com.nttbank.microservices.creditcardservice.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nttbank.microservices.creditcardservice.codec.BinaryFormats;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+class CodecConfigTest {
+
+  private final ServerCodecConfigurer configurer = ServerCodecConfigurer.create();
+
+  CodecConfigTest() {
+    DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+    beans.registerSingleton("builder", new Jackson2ObjectMapperBuilder());
+    new CodecConfig().binaryCodecsCustomizer(
+        beans.getBeanProvider(Jackson2ObjectMapperBuilder.class)).customize(configurer);
+  }
+
+  @Test
+  void jsonIsStillWrittenByTheJsonEncoder() {
+    assertThat(encoderFor(Map.class, MediaType.APPLICATION_JSON))
+        .isInstanceOf(Jackson2JsonEncoder.class);
+    assertThat(encoderFor(CreditCard.class, MediaType.APPLICATION_JSON))
+        .isInstanceOf(Jackson2JsonEncoder.class);
+  }
+
+  @Test
+  void binaryFormatsOnlyClaimTheirOwnMediaType() {
+    assertThat(encoderFor(Map.class, BinaryFormats.CBOR).getEncodableMimeTypes())
+        .containsExactly(BinaryFormats.CBOR);
+    assertThat(encoderFor(Map.class, BinaryFormats.SMILE).getEncodableMimeTypes())
+        .containsExactly(BinaryFormats.SMILE);
+  }
+
+  private Encoder<?> encoderFor(Class<?> type, MediaType mediaType) {
+    ResolvableType elementType = ResolvableType.forClass(type);
+    for (HttpMessageWriter<?> writer : configurer.getWriters()) {
+      if (writer.canWrite(elementType, mediaType)) {
+        return ((EncoderHttpMessageWriter<?>) writer).getEncoder();
+      }
+    }
+    throw new AssertionError("No writer for " + type + " as " + mediaType);
+  }
+}
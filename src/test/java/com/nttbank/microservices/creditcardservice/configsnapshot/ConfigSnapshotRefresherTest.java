@@ -0,0 +1,99 @@
+package com.nttbank.microservices.creditcardservice.configsnapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.context.refresh.ContextRefresher;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+class ConfigSnapshotRefresherTest {
+
+  @TempDir
+  private Path directory;
+
+  private final ContextRefresher contextRefresher = mock(ContextRefresher.class);
+
+  @Test
+  void writtenSnapshotIsUsedForStartupAndRefreshed() throws IOException {
+    Path path = directory.resolve("snapshot/creditcard-service.properties");
+
+    ConfigurableEnvironment first = environment(path);
+    refresher(first, Map.of("creditcard.holds.ttl", "7d", "config.client.version", "v1"))
+        .refresh();
+    assertThat(read(path)).containsEntry("creditcard.holds.ttl", "7d");
+    if (Files.getFileStore(path).supportsFileAttributeView("posix")) {
+      assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(path)))
+          .isEqualTo("rw-------");
+    }
+    verify(contextRefresher, never()).refresh();
+
+    ConfigurableEnvironment restarted = environment(path);
+    new ConfigSnapshotEnvironmentPostProcessor().postProcessEnvironment(restarted, null);
+    assertThat(ConfigSnapshotEnvironmentPostProcessor.isUsingSnapshot(restarted)).isTrue();
+    assertThat(restarted.getProperty("creditcard.config.import"))
+        .isEqualTo("optional:file:" + path);
+
+    refresher(restarted, Map.of("creditcard.holds.ttl", "3d", "config.client.version", "v2"))
+        .refresh();
+    assertThat(read(path)).containsEntry("creditcard.holds.ttl", "3d")
+        .containsEntry("config.client.version", "v2");
+    verify(contextRefresher).refresh();
+  }
+
+  @Test
+  void relativeSnapshotPathsAreRejected() {
+    ConfigurableEnvironment environment = environment(Path.of("config-snapshot/x.properties"));
+
+    assertThatIllegalStateException().isThrownBy(
+        () -> ConfigSnapshotEnvironmentPostProcessor.snapshotPath(environment));
+  }
+
+  private ConfigSnapshotRefresher refresher(ConfigurableEnvironment environment,
+      Map<String, Object> remote) {
+    DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+    beans.registerSingleton("clientProperties", new ConfigClientProperties(environment));
+    beans.registerSingleton("contextRefresher", contextRefresher);
+    return new ConfigSnapshotRefresher(environment,
+        beans.getBeanProvider(ConfigClientProperties.class),
+        beans.getBeanProvider(ContextRefresher.class), Duration.ofMinutes(5)) {
+      @Override
+      PropertySource<?> fetch(ConfigClientProperties properties) {
+        return new MapPropertySource("configserver", remote);
+      }
+    };
+  }
+
+  private static ConfigurableEnvironment environment(Path path) {
+    StandardEnvironment environment = new StandardEnvironment();
+    environment.getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+        ConfigSnapshotEnvironmentPostProcessor.ENABLED_PROPERTY, "true",
+        ConfigSnapshotEnvironmentPostProcessor.PATH_PROPERTY, path.toString())));
+    return environment;
+  }
+
+  private static Map<Object, Object> read(Path path) throws IOException {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(path)) {
+      properties.load(reader);
+    }
+    return properties;
+  }
+}
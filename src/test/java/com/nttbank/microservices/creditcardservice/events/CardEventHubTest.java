@@ -0,0 +1,80 @@
+package com.nttbank.microservices.creditcardservice.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.nttbank.microservices.creditcardservice.dto.CardEventDTO;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+class CardEventHubTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final CardEventHub hub =
+      new CardEventHub(mock(ReactiveMongoTemplate.class), registry, 2);
+
+  @Test
+  void routesEventsToTheSubscribersOfTheirCard() {
+    List<CardEventDTO> first = new ArrayList<>();
+    List<CardEventDTO> second = new ArrayList<>();
+    Disposable a = hub.subscribe("card-1").subscribe(first::add);
+    Disposable b = hub.subscribe("card-1").subscribe(second::add);
+
+    hub.publish(event("card-1", 100));
+    hub.publish(event("card-2", 200));
+
+    assertThat(first).containsExactly(event("card-1", 100));
+    assertThat(second).containsExactly(event("card-1", 100));
+    a.dispose();
+    b.dispose();
+  }
+
+  @Test
+  void removesTheCardWhenItsLastSubscriberCancels() {
+    Disposable a = hub.subscribe("card-1").subscribe();
+    Disposable b = hub.subscribe("card-1").subscribe();
+    assertThat(registry.get("creditcard.events.cards").gauge().value()).isEqualTo(1);
+    assertThat(registry.get("creditcard.events.subscribers").gauge().value()).isEqualTo(2);
+
+    a.dispose();
+    assertThat(registry.get("creditcard.events.cards").gauge().value()).isEqualTo(1);
+    b.dispose();
+    assertThat(registry.get("creditcard.events.cards").gauge().value()).isZero();
+    assertThat(registry.get("creditcard.events.subscribers").gauge().value()).isZero();
+  }
+
+  @Test
+  void dropsTheOldestEventsOfSlowSubscribers() {
+    List<CardEventDTO> fast = new ArrayList<>();
+    Disposable a = hub.subscribe("card-1").subscribe(fast::add);
+
+    StepVerifier.create(hub.subscribe("card-1"), 0)
+        .then(() -> {
+          for (int i = 1; i <= 4; i++) {
+            hub.publish(event("card-1", i));
+          }
+        })
+        .thenRequest(2)
+        .expectNext(event("card-1", 3), event("card-1", 4))
+        .thenCancel()
+        .verify();
+
+    assertThat(fast).hasSize(4);
+    assertThat(registry.get("creditcard.events.dropped").counter().count()).isEqualTo(2);
+    a.dispose();
+  }
+
+  private static CardEventDTO event(String creditCardId, long balanceCents) {
+    return CardEventDTO.builder()
+        .type(CardEventDTO.BALANCE)
+        .creditCardId(creditCardId)
+        .currentBalance(Money.ofCents(balanceCents))
+        .build();
+  }
+}
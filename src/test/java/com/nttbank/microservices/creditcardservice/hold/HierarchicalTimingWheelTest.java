@@ -0,0 +1,50 @@
+package com.nttbank.microservices.creditcardservice.hold;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class HierarchicalTimingWheelTest {
+
+  private final HierarchicalTimingWheel<String> wheel =
+      new HierarchicalTimingWheel<>(10, 8, 1_000);
+
+  @Test
+  void firesItemsInTheTickOfTheirDeadline() {
+    wheel.schedule("near", 1_035);
+    wheel.schedule("far", 1_000 + 10 * 8 * 8 * 3 + 5);
+    List<String> fired = new ArrayList<>();
+
+    wheel.advance(1_029, fired::add);
+    assertThat(fired).isEmpty();
+    wheel.advance(1_030, fired::add);
+    assertThat(fired).containsExactly("near");
+
+    wheel.advance(2_919, fired::add);
+    assertThat(fired).containsExactly("near");
+    wheel.advance(2_930, fired::add);
+    assertThat(fired).containsExactly("near", "far");
+    assertThat(wheel.size()).isZero();
+  }
+
+  @Test
+  void cancelledItemsNeverFire() {
+    HierarchicalTimingWheel.Timeout<String> timeout = wheel.schedule("hold", 5_000);
+    wheel.schedule("other", 5_000);
+
+    assertThat(wheel.cancel(timeout)).isTrue();
+    assertThat(wheel.cancel(timeout)).isFalse();
+    List<String> fired = new ArrayList<>();
+    wheel.advance(10_000, fired::add);
+
+    assertThat(fired).containsExactly("other");
+  }
+
+  @Test
+  void refusesItemsAlreadyDue() {
+    assertThat(wheel.schedule("late", 1_005)).isNull();
+    assertThat(wheel.size()).isZero();
+  }
+}
@@ -0,0 +1,62 @@
+package com.nttbank.microservices.creditcardservice.limiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+class LoadSheddingFilterTest {
+
+  private final ICreditCardRepo creditCardRepo = mock(ICreditCardRepo.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+  private final LoadSheddingFilter filter = new LoadSheddingFilter(
+      new GradientConcurrencyLimit(100, 100, 100, 1.5), new CustomerQuotas(0, 1, 100),
+      new CustomerQuotas(0, 1, 100), creditCardRepo, Duration.ofMillis(50), 1, registry, 100);
+
+  @Test
+  void chargesTheQuotaOfTheCardsCustomer() {
+    when(creditCardRepo.findCustomerIdById("card-1")).thenReturn(Mono.just("customer-1"));
+    when(creditCardRepo.findCustomerIdById("card-2")).thenReturn(Mono.just("customer-1"));
+
+    assertThat(charge("card-1", "10.0.0.1")).isEqualTo(HttpStatus.OK);
+    assertThat(charge("card-2", "10.0.0.2")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+  }
+
+  @Test
+  void skipsTheQuotaWhenTheCustomerCannotBeResolvedInTime() {
+    when(creditCardRepo.findCustomerIdById("card-1")).thenReturn(Mono.never());
+
+    assertThat(charge("card-1", "10.0.0.1")).isEqualTo(HttpStatus.OK);
+    assertThat(charge("card-1", "10.0.0.1")).isEqualTo(HttpStatus.OK);
+    assertThat(registry.get("creditcard.limiter.quota_skipped").counter().count()).isEqualTo(2);
+  }
+
+  @Test
+  void chargesUnknownCardsToTheirCaller() {
+    when(creditCardRepo.findCustomerIdById("missing-1")).thenReturn(Mono.empty());
+    when(creditCardRepo.findCustomerIdById("missing-2")).thenReturn(Mono.empty());
+
+    assertThat(charge("missing-1", "10.0.0.1")).isEqualTo(HttpStatus.OK);
+    assertThat(charge("missing-2", "10.0.0.1")).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    assertThat(charge("missing-2", "10.0.0.2")).isEqualTo(HttpStatus.OK);
+  }
+
+  private HttpStatusCode charge(String creditCardId, String caller) {
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+        .post("/creditcards/" + creditCardId + "/charge")
+        .remoteAddress(new InetSocketAddress(caller, 443)));
+    filter.filter(exchange, e -> Mono.empty()).block();
+    HttpStatusCode status = exchange.getResponse().getStatusCode();
+    return status == null ? HttpStatus.OK : status;
+  }
+}
@@ -0,0 +1,24 @@
+package com.nttbank.microservices.creditcardservice.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+  @Test
+  void convertsAmountsWithTwoDecimalsExactly() {
+    assertThat(Money.of(new BigDecimal("10.5"))).isEqualTo(Money.ofCents(1050));
+    assertThat(Money.of(new BigDecimal("10.2500"))).isEqualTo(Money.ofCents(1025));
+  }
+
+  @Test
+  void rejectsAmountsWithMoreThanTwoDecimals() {
+    assertThatThrownBy(() -> Money.of(new BigDecimal("0.001")))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> Money.parse("10.255"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,131 @@
+package com.nttbank.microservices.creditcardservice.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.nttbank.microservices.creditcardservice.cache.NoOpCreditCardCache;
+import com.nttbank.microservices.creditcardservice.config.MongoConfig;
+import com.nttbank.microservices.creditcardservice.dto.CardMovementDTO;
+import com.nttbank.microservices.creditcardservice.dto.CardMovementResultDTO;
+import com.nttbank.microservices.creditcardservice.metrics.CreditCardMetrics;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.repo.ICardHoldRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+/**
+ * Runs a batch of movements against an embedded MongoDB while other writers change its cards
+ * around the bulk write, and checks that every movement is applied and recorded exactly once.
+ */
+@DataMongoTest(properties = {
+    "spring.cloud.config.enabled=false",
+    "de.flapdoodle.mongodb.embedded.version=7.0.12"
+})
+@Import({MongoConfig.class, CreditCardServiceImpl.class, CustomerCardCounterServiceImpl.class,
+    NoOpCreditCardCache.class, CreditCardMetrics.class, SimpleMeterRegistry.class})
+class CardMovementServiceImplTest {
+
+  private static final Money INITIAL_BALANCE = Money.parse("1000.00");
+
+  @Autowired
+  private CreditCardServiceImpl creditCardService;
+
+  @Autowired
+  private ICreditCardRepo creditCardRepo;
+
+  @Autowired
+  private ICreditCardTransactionRepo transactionRepo;
+
+  @Autowired
+  private ICardHoldRepo holdRepo;
+
+  @Autowired
+  private NoOpCreditCardCache cache;
+
+  @Autowired
+  private CreditCardMetrics metrics;
+
+  private CreditCard committed;
+  private CreditCard conflicted;
+
+  @BeforeEach
+  void setUp() {
+    transactionRepo.deleteAll().block();
+    holdRepo.deleteAll().block();
+    creditCardRepo.deleteAll().block();
+    committed = creditCardRepo.save(card()).block();
+    conflicted = creditCardRepo.save(card()).block();
+  }
+
+  @Test
+  void cardsChangedAfterTheBulkWriteAreNotReplayed() {
+    ICreditCardRepo racingRepo = mock(ICreditCardRepo.class,
+        AdditionalAnswers.delegatesTo(creditCardRepo));
+    doAnswer(invocation -> creditCardRepo
+        .chargeIfFundsAvailable(conflicted.getId(), Money.parse("5.00"))
+        .then(creditCardRepo.compareAndSetBalances(invocation.getArgument(0),
+            invocation.getArgument(1)))
+        .flatMap(matched -> creditCardRepo
+            .chargeIfFundsAvailable(committed.getId(), Money.parse("7.00"))
+            .thenReturn(matched)))
+        .when(racingRepo).compareAndSetBalances(anyList(), anyString());
+    CardMovementServiceImpl service = new CardMovementServiceImpl(racingRepo, transactionRepo,
+        creditCardService, cache, metrics);
+    ReflectionTestUtils.setField(service, "batchSize", 100);
+
+    List<CardMovementResultDTO> results = service.applyMovements(Flux.just(
+            charge(committed.getId(), "100.00"),
+            charge(conflicted.getId(), "100.00")))
+        .collectList()
+        .block();
+
+    assertThat(results).extracting(CardMovementResultDTO::getResult)
+        .containsOnly(CardMovementResultDTO.APPLIED);
+    assertThat(creditCardRepo.findById(committed.getId()).block().getCurrentBalance())
+        .isEqualByComparingTo(Money.parse("893.00"));
+    assertThat(creditCardRepo.findById(conflicted.getId()).block().getCurrentBalance())
+        .isEqualByComparingTo(Money.parse("895.00"));
+    assertThat(transactionRepo.findAllByCreditCardId(committed.getId()).count().block())
+        .isEqualTo(1L);
+    assertThat(transactionRepo.findAllByCreditCardId(conflicted.getId()).count().block())
+        .isEqualTo(1L);
+  }
+
+  private static CardMovementDTO charge(String creditCardId, String amount) {
+    return CardMovementDTO.builder()
+        .creditCardId(creditCardId)
+        .type(Constants.CHARGE)
+        .amount(new BigDecimal(amount))
+        .build();
+  }
+
+  private static CreditCard card() {
+    return CreditCard.builder()
+        .customerId("customer-1")
+        .cardType("personal")
+        .creditLimit(INITIAL_BALANCE)
+        .currentBalance(INITIAL_BALANCE)
+        .expirationDate(LocalDate.now().plusYears(3))
+        .issueStatementDay("15")
+        .maintenanceFee(Money.parse("10.00"))
+        .status("active")
+        .build();
+  }
+}
@@ -0,0 +1,165 @@
+package com.nttbank.microservices.creditcardservice.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nttbank.microservices.creditcardservice.cache.NoOpCreditCardCache;
+import com.nttbank.microservices.creditcardservice.config.MongoConfig;
+import com.nttbank.microservices.creditcardservice.exception.CardRejectionException;
+import com.nttbank.microservices.creditcardservice.metrics.CreditCardMetrics;
+import com.nttbank.microservices.creditcardservice.model.CardHold;
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.repo.ICardHoldRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Fires thousands of parallel charges at a single card against an embedded MongoDB and checks
+ * that the conditional updates neither lose a movement nor overdraw the card.
+ */
+@DataMongoTest(properties = {
+    "spring.cloud.config.enabled=false",
+    "de.flapdoodle.mongodb.embedded.version=7.0.12"
+})
+@Import({MongoConfig.class, CreditCardServiceImpl.class, CustomerCardCounterServiceImpl.class,
+    NoOpCreditCardCache.class, CreditCardMetrics.class, SimpleMeterRegistry.class})
+class CreditCardServiceImplConcurrencyTest {
+
+  private static final int CHARGES = 4000;
+  private static final Money INITIAL_BALANCE = Money.parse("3000.00");
+
+  @Autowired
+  private CreditCardServiceImpl service;
+
+  @Autowired
+  private ICreditCardRepo creditCardRepo;
+
+  @Autowired
+  private ICreditCardTransactionRepo transactionRepo;
+
+  @Autowired
+  private ICardHoldRepo holdRepo;
+
+  private CreditCard creditCard;
+
+  @BeforeEach
+  void setUp() {
+    transactionRepo.deleteAll().block();
+    holdRepo.deleteAll().block();
+    creditCardRepo.deleteAll().block();
+    creditCard = creditCardRepo.save(CreditCard.builder()
+        .customerId("customer-1")
+        .cardType("personal")
+        .creditLimit(INITIAL_BALANCE)
+        .currentBalance(INITIAL_BALANCE)
+        .expirationDate(LocalDate.now().plusYears(3))
+        .issueStatementDay("15")
+        .maintenanceFee(Money.parse("10.00"))
+        .status("active")
+        .build()).block();
+  }
+
+  @Test
+  void parallelChargesLeaveAnExactBalance() {
+    AtomicInteger rejected = new AtomicInteger();
+
+    Long accepted = Flux.range(0, CHARGES)
+        .parallel()
+        .runOn(Schedulers.parallel())
+        .flatMap(i -> service.chargeCreditCard(creditCard.getId(), BigDecimal.ONE)
+            .onErrorResume(CardRejectionException.class, e -> {
+              rejected.incrementAndGet();
+              return Mono.empty();
+            }))
+        .sequential()
+        .count()
+        .block();
+
+    CreditCard stored = creditCardRepo.findById(creditCard.getId()).block();
+    assertThat(accepted).isEqualTo(3000L);
+    assertThat(rejected.get()).isEqualTo(CHARGES - 3000);
+    assertThat(stored.getCurrentBalance()).isEqualByComparingTo(Money.ZERO);
+    assertThat(transactionRepo.findAllByCreditCardId(creditCard.getId()).count().block())
+        .isEqualTo(3000L);
+  }
+
+  @Test
+  void parallelChargesAndPaymentsNeverExceedTheCreditLimit() {
+    Flux.range(0, CHARGES)
+        .parallel()
+        .runOn(Schedulers.parallel())
+        .flatMap(i -> (i % 2 == 0
+            ? service.chargeCreditCard(creditCard.getId(), BigDecimal.ONE)
+            : service.payCreditCard(creditCard.getId(), BigDecimal.ONE))
+            .onErrorResume(CardRejectionException.class, e -> Mono.empty()))
+        .sequential()
+        .blockLast();
+
+    CreditCard stored = creditCardRepo.findById(creditCard.getId()).block();
+    long charges = transactionRepo.findAllByCreditCardId(creditCard.getId())
+        .filter(t -> "charge".equals(t.getType())).count().block();
+    long payments = transactionRepo.findAllByCreditCardId(creditCard.getId())
+        .filter(t -> "payment".equals(t.getType())).count().block();
+    assertThat(stored.getCurrentBalance())
+        .isEqualByComparingTo(INITIAL_BALANCE.subtract(Money.ofCents((charges - payments) * 100)));
+    assertThat(stored.getCurrentBalance()).isLessThanOrEqualTo(INITIAL_BALANCE);
+  }
+
+  @Test
+  void holdsLeftInDoubtAreFinishedOnce() {
+    LocalDateTime now = LocalDateTime.now();
+    CardHold pending = holdRepo.insert(CardHold.builder()
+        .creditCardId(creditCard.getId())
+        .amount(Money.parse("100.00"))
+        .status(CardHold.PENDING)
+        .createdAt(now)
+        .expiresAt(now.plusDays(7))
+        .build()).block();
+    creditCardRepo.holdIfFundsAvailable(pending).block();
+    CardHold authorized = service.authorize(creditCard.getId(), new BigDecimal("50.00")).block();
+    holdRepo.close(authorized.getId(), CardHold.CAPTURED, LocalDateTime.now()).block();
+
+    LocalDateTime before = LocalDateTime.now().plusSeconds(1);
+    assertThat(service.settleHolds(before, 10).block()).isEqualTo(2L);
+    assertThat(service.settleHolds(before, 10).block()).isZero();
+
+    CreditCard stored = creditCardRepo.findById(creditCard.getId()).block();
+    assertThat(stored.getHeldAmount()).isEqualByComparingTo(Money.ZERO);
+    assertThat(stored.getCurrentBalance())
+        .isEqualByComparingTo(INITIAL_BALANCE.subtract(Money.parse("50.00")));
+    assertThat(stored.getPendingHolds()).isEmpty();
+    assertThat(holdRepo.existsById(pending.getId()).block()).isFalse();
+    assertThat(holdRepo.findById(authorized.getId()).block().getSettling()).isNull();
+    assertThat(transactionRepo.findAllByCreditCardId(creditCard.getId()).count().block())
+        .isEqualTo(1L);
+  }
+
+  @Test
+  void updateLeavesHoldsUntouched() {
+    service.authorize(creditCard.getId(), new BigDecimal("40.00")).block();
+
+    service.update(creditCard.toBuilder()
+        .creditLimit(Money.parse("5000.00"))
+        .heldAmount(Money.ZERO)
+        .status("blocked")
+        .build()).block();
+
+    CreditCard stored = creditCardRepo.findById(creditCard.getId()).block();
+    assertThat(stored.getCreditLimit()).isEqualByComparingTo(Money.parse("5000.00"));
+    assertThat(stored.getStatus()).isEqualTo("blocked");
+    assertThat(stored.getHeldAmount()).isEqualByComparingTo(Money.parse("40.00"));
+  }
+}
@@ -0,0 +1,210 @@
+package com.nttbank.microservices.creditcardservice.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.CreditCardTransactions;
+import com.nttbank.microservices.creditcardservice.model.IdempotencyKey;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardRepo;
+import com.nttbank.microservices.creditcardservice.repo.ICreditCardTransactionRepo;
+import com.nttbank.microservices.creditcardservice.repo.IIdempotencyKeyRepo;
+import com.nttbank.microservices.creditcardservice.util.Constants;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Checks that a charge submitted with an idempotency key is applied at most once across claims,
+ * replays, concurrent duplicates and takeovers of expired leases.
+ */
+class IdempotencyServiceImplTest {
+
+  private static final String KEY = "key-1";
+  private static final String CARD_ID = "card-1";
+  private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+  private final IIdempotencyKeyRepo idempotencyKeyRepo = mock(IIdempotencyKeyRepo.class);
+  private final ICreditCardTransactionRepo transactionRepo =
+      mock(ICreditCardTransactionRepo.class);
+  private final ICreditCardRepo creditCardRepo = mock(ICreditCardRepo.class);
+  private final IdempotencyServiceImpl service = new IdempotencyServiceImpl(idempotencyKeyRepo,
+      transactionRepo, creditCardRepo, 100, Duration.ofMinutes(10), Duration.ofSeconds(30),
+      Duration.ofMillis(100));
+  private final AtomicInteger charges = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    when(idempotencyKeyRepo.complete(any())).thenReturn(Mono.empty());
+  }
+
+  @Test
+  void appliesTheMovementOfAClaimedKeyAndStoresItsOutcome() {
+    claimOnAttempt(1);
+
+    CreditCard card = execute(charge(Money.parse("90.00"))).block();
+
+    assertThat(card.getCurrentBalance()).isEqualTo(Money.parse("90.00"));
+    assertThat(charges).hasValue(1);
+    verify(idempotencyKeyRepo).complete(argThat(k -> k.getResponseStatus() == 200
+        && IdempotencyKey.COMPLETED.equals(k.getStatus())));
+  }
+
+  @Test
+  void replaysTheOutcomeStoredByAnotherInstance() {
+    when(idempotencyKeyRepo.claim(any(), any())).thenReturn(Mono.empty());
+    when(idempotencyKeyRepo.findById(KEY)).thenReturn(Mono.just(completedKey()));
+
+    CreditCard card = execute(charge(Money.parse("80.00"))).block();
+
+    assertThat(card.getCurrentBalance()).isEqualTo(Money.parse("90.00"));
+    assertThat(charges).hasValue(0);
+  }
+
+  @Test
+  void answersRetriesOnTheSameInstanceFromMemory() {
+    claimOnAttempt(1);
+
+    execute(charge(Money.parse("90.00"))).block();
+    CreditCard retried = execute(charge(Money.parse("80.00"))).block();
+
+    assertThat(retried.getCurrentBalance()).isEqualTo(Money.parse("90.00"));
+    assertThat(charges).hasValue(1);
+    verify(idempotencyKeyRepo, times(1)).claim(any(), any());
+  }
+
+  @Test
+  void appliesConcurrentDuplicatesOnce() {
+    claimOnAttempt(1);
+    Sinks.One<CreditCard> pending = Sinks.one();
+    Supplier<Mono<CreditCard>> action = () -> {
+      charges.incrementAndGet();
+      return pending.asMono();
+    };
+
+    Mono<CreditCard> first = execute(action).cache();
+    Mono<CreditCard> second = execute(action).cache();
+    first.subscribe();
+    second.subscribe();
+    pending.tryEmitValue(card(Money.parse("90.00")));
+
+    assertThat(first.block().getCurrentBalance()).isEqualTo(Money.parse("90.00"));
+    assertThat(second.block().getCurrentBalance()).isEqualTo(Money.parse("90.00"));
+    assertThat(charges).hasValue(1);
+  }
+
+  @Test
+  void replaysTheMovementRecordedBeforeAnExpiredLeaseIsTakenOver() {
+    claimOnAttempt(2);
+    when(transactionRepo.findByIdempotencyKey(anyString(), anyString(), any()))
+        .thenReturn(Mono.just(CreditCardTransactions.builder()
+            .creditCardId(CARD_ID)
+            .idempotencyKey(KEY)
+            .balanceAfterMovement(Money.parse("90.00"))
+            .build()));
+    when(creditCardRepo.findById(CARD_ID)).thenReturn(Mono.just(card(Money.parse("70.00"))));
+
+    CreditCard card = execute(charge(Money.parse("80.00"))).block();
+
+    assertThat(card.getCurrentBalance()).isEqualTo(Money.parse("90.00"));
+    assertThat(charges).hasValue(0);
+  }
+
+  @Test
+  void appliesTheMovementOfAnExpiredLeaseThatRecordedNone() {
+    claimOnAttempt(2);
+    when(transactionRepo.findByIdempotencyKey(anyString(), anyString(), any()))
+        .thenReturn(Mono.empty());
+
+    CreditCard card = execute(charge(Money.parse("90.00"))).block();
+
+    assertThat(card.getCurrentBalance()).isEqualTo(Money.parse("90.00"));
+    assertThat(charges).hasValue(1);
+  }
+
+  @Test
+  void keepsTheKeyPendingWhenItsOutcomeCannotBeStored() {
+    claimOnAttempt(1);
+    when(idempotencyKeyRepo.complete(any()))
+        .thenReturn(Mono.error(new IllegalStateException("write failed")));
+
+    assertThatThrownBy(() -> execute(charge(Money.parse("90.00"))).block())
+        .hasMessageContaining("write failed");
+
+    when(idempotencyKeyRepo.claim(any(), any())).thenReturn(Mono.empty());
+    when(idempotencyKeyRepo.findById(KEY)).thenReturn(Mono.just(pendingKey(1)));
+    assertThatThrownBy(() -> execute(charge(Money.parse("80.00"))).block())
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("still in progress");
+    assertThat(charges).hasValue(1);
+  }
+
+  @Test
+  void rejectsAKeyReusedWithAnotherRequest() {
+    claimOnAttempt(1);
+    execute(charge(Money.parse("90.00"))).block();
+
+    assertThatThrownBy(() -> service.execute(KEY, CARD_ID, Constants.PAYMENT, AMOUNT,
+        charge(Money.parse("100.00"))).block())
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("different request");
+    assertThat(charges).hasValue(1);
+  }
+
+  private Mono<CreditCard> execute(Supplier<Mono<CreditCard>> action) {
+    return service.execute(KEY, CARD_ID, Constants.CHARGE, AMOUNT, action);
+  }
+
+  private Supplier<Mono<CreditCard>> charge(Money balanceAfter) {
+    return () -> Mono.fromSupplier(() -> {
+      charges.incrementAndGet();
+      return card(balanceAfter);
+    });
+  }
+
+  private void claimOnAttempt(int attempts) {
+    when(idempotencyKeyRepo.claim(any(), any())).thenReturn(Mono.just(pendingKey(attempts)));
+  }
+
+  private static IdempotencyKey pendingKey(int attempts) {
+    LocalDateTime now = LocalDateTime.now();
+    return IdempotencyKey.builder()
+        .id(KEY)
+        .creditCardId(CARD_ID)
+        .operation(Constants.CHARGE)
+        .amount(Money.of(AMOUNT))
+        .status(IdempotencyKey.PENDING)
+        .owner("owner")
+        .attempts(attempts)
+        .claimedAt(now)
+        .createdAt(now.minusMinutes(1))
+        .build();
+  }
+
+  private static IdempotencyKey completedKey() {
+    return pendingKey(1).toBuilder()
+        .status(IdempotencyKey.COMPLETED)
+        .responseStatus(200)
+        .response(card(Money.parse("90.00")))
+        .build();
+  }
+
+  private static CreditCard card(Money balance) {
+    return CreditCard.builder().id(CARD_ID).currentBalance(balance).build();
+  }
+}
@@ -0,0 +1,58 @@
+package com.nttbank.microservices.creditcardservice.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nttbank.microservices.creditcardservice.model.CreditCard;
+import com.nttbank.microservices.creditcardservice.model.Money;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+class MoneyConvertersTest {
+
+  private MappingMongoConverter converter;
+
+  @BeforeEach
+  void setUp() {
+    MongoCustomConversions conversions = new MongoCustomConversions(MoneyConverters.converters());
+    MongoMappingContext context = new MongoMappingContext();
+    context.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+    converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, context);
+    converter.setCustomConversions(conversions);
+    converter.afterPropertiesSet();
+  }
+
+  @Test
+  void readsAmountsStoredAsStrings() {
+    CreditCard card = converter.read(CreditCard.class, new Document("_id", "card-1")
+        .append("creditLimit", "3000.00")
+        .append("currentBalance", "1250.5"));
+
+    assertThat(card.getCreditLimit()).isEqualTo(Money.parse("3000.00"));
+    assertThat(card.getCurrentBalance()).isEqualTo(Money.ofCents(125_050));
+  }
+
+  @Test
+  void roundsStoredAmountsWithMoreThanTwoDecimals() {
+    CreditCard card = converter.read(CreditCard.class, new Document("_id", "card-1")
+        .append("creditLimit", Decimal128.parse("3000.005"))
+        .append("currentBalance", "1250.504"));
+
+    assertThat(card.getCreditLimit()).isEqualTo(Money.parse("3000.01"));
+    assertThat(card.getCurrentBalance()).isEqualTo(Money.parse("1250.50"));
+  }
+
+  @Test
+  void writesAmountsAsDecimal128() {
+    Document document = new Document();
+    converter.write(CreditCard.builder().currentBalance(Money.parse("10.25")).build(), document);
+
+    assertThat(document.get("currentBalance"))
+        .isEqualTo(Decimal128.parse("10.25"));
+  }
+}